@@ -0,0 +1,36 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface AccountLock {
+    /**
+     * lock 획득 대기 시간(ms)
+     */
+    long tryLockTime() default 1000L;
+
+    /**
+     * lock 유지 시간(ms), 이 시간이 지나면 해제하지 않아도 lock 이 풀린다.
+     * watchdog 을 사용하면 무시된다.
+     */
+    long leaseTime() default 15000L;
+
+    /**
+     * true 면 고정 lease 대신 Redisson watchdog 이 작업이 끝날 때까지 lock 을 갱신한다.
+     */
+    boolean watchdog() default false;
+
+    /**
+     * true 면 해당 계좌의 최근 경합 상황상 대기 시간 안에 lock 을 얻지 못할 것으로 보일 때
+     * 대기하지 않고 바로 실패한다.
+     */
+    boolean adaptive() default false;
+
+    /**
+     * true 면 shard 로 나뉜 계좌는 계좌 lock 을 잡지 않는다. (ShardedBalanceService 가 shard 별 lock 을 잡는다)
+     */
+    boolean shardable() default false;
+}
@@ -0,0 +1,39 @@
+package com.example.account.aop;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * lock 구현체에 전달되는 대기/유지 시간 정책 (단위 ms)
+ * leaseTime 이 음수이면 Redisson watchdog 으로 lock 을 갱신한다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class LockPolicy {
+    public static final long WATCHDOG_LEASE_TIME = -1L;
+
+    public static final LockPolicy DEFAULT = LockPolicy.builder()
+            .waitTime(1000L)
+            .leaseTime(15000L)
+            .build();
+
+    private final long waitTime;
+    private final long leaseTime;
+
+    public static LockPolicy from(AccountLock accountLock) {
+        return LockPolicy.builder()
+                .waitTime(accountLock.tryLockTime())
+                .leaseTime(accountLock.watchdog() ? WATCHDOG_LEASE_TIME : accountLock.leaseTime())
+                .build();
+    }
+
+    public LockPolicy withWaitTime(long waitTime) {
+        return new LockPolicy(waitTime, leaseTime);
+    }
+
+    public boolean isWatchdog() {
+        return leaseTime < 0;
+    }
+}
@@ -21,9 +21,11 @@ import static com.example.account.type.ErrorCode.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "uk_account_account_number", columnList = "accountNumber", unique = true))
 @EntityListeners(AuditingEntityListener.class)
 public class Account extends BaseEntity{
-    @ManyToOne
+    // 소유주 id 만 필요한 경우가 대부분이라 조회 시 사용자 row 를 함께 읽지 않는다.
+    @ManyToOne(fetch = FetchType.LAZY)
     private AccountUser accountUser;
     private String accountNumber;
 
@@ -34,6 +36,13 @@ public class Account extends BaseEntity{
     private LocalDateTime registeredAt;
     private LocalDateTime unRegisteredAt;
 
+    // 0 보다 크면 잔액 대부분이 그 수만큼의 AccountShard 에 나뉘어 있다. (전체 잔액 = balance + shard 잔액 합)
+    private Integer shardCount;
+
+    // 잔액 변경 시 update ... where version = ? 로 동시 수정을 감지한다.
+    @Version
+    private Long version;
+
     public void useBalance(Long amount){
         validateBalance(amount);
         balance -= amount;
@@ -44,6 +53,15 @@ public class Account extends BaseEntity{
         balance += amount;
     }
 
+    public void depositBalance(Long amount){
+        validateAmount(amount);
+        balance += amount;
+    }
+
+    public boolean isSharded(){
+        return shardCount != null && shardCount > 0;
+    }
+
     private void validateAmount(Long amount) {
         if (amount < 0){
             throw new AccountException(INVALID_REQUEST);
@@ -0,0 +1,39 @@
+package com.example.account.domain;
+
+import com.example.account.exception.AccountException;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+
+/**
+ * 거래가 몰리는 계좌의 잔액을 나눠 담는 부분 잔액
+ * shard 마다 lock 을 따로 잡으므로 같은 계좌의 잔액 사용이 shard 수만큼 동시에 처리된다.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "uk_account_shard_account_shard_index", columnList = "account_id, shardIndex", unique = true))
+@EntityListeners(AuditingEntityListener.class)
+public class AccountShard extends BaseEntity {
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+    private Integer shardIndex;
+    private Long balance;
+
+    @Version
+    private Long version;
+
+    public void useBalance(Long amount){
+        if (amount > balance){
+            throw new AccountException(AMOUNT_EXCEED_BALANCE);
+        }
+        balance -= amount;
+    }
+}
@@ -18,6 +18,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @SuperBuilder
+@Table(indexes = {
+        @Index(name = "uk_transaction_transaction_id", columnList = "transactionId", unique = true),
+        // 계좌별 거래 내역을 최신순으로 조회 (거래 내역 조회의 정렬 순서와 같아야 정렬 없이 읽는다)
+        @Index(name = "idx_transaction_account_transacted_at", columnList = "account_id, transactedAt desc, id desc")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction extends BaseEntity {
     @Enumerated(EnumType.STRING)
@@ -26,7 +31,7 @@ public class Transaction extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
 
     private Long amount;
@@ -34,4 +39,7 @@ public class Transaction extends BaseEntity {
 
     private String transactionId;
     private LocalDateTime transactedAt;
+
+    // 이체의 출금(TRANSFER_OUT)과 입금(TRANSFER_IN) 거래는 서로의 transactionId 를 가진다.
+    private String pairTransactionId;
 }
@@ -0,0 +1,18 @@
+package com.example.account.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스레드가 아닌 대상(대기열, 비동기 요청)이 Redisson lock 을 소유할 때 사용하는 owner id
+ * 실제 스레드 id 와 겹치지 않도록 음수만 발급하고, 같은 노드 안에서는 중복되지 않는다.
+ */
+public final class LockOwnerIds {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private LockOwnerIds() {
+    }
+
+    public static long next() {
+        return -SEQUENCE.incrementAndGet();
+    }
+}
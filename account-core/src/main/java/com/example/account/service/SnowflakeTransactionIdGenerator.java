@@ -0,0 +1,148 @@
+package com.example.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 시간순 거래 번호 (snowflake)
+ * 41bit 밀리초 + 10bit 노드 번호 + 12bit 순번을 Crockford base32 13자리로 표현한다.
+ * 고정 길이라 문자열 순서가 발급 순서와 같아서 transactionId 인덱스의 끝에만 추가된다.
+ *
+ * 노드 번호는 node-id 로 지정하고, 지정하지 않으면 기동 시 Redis 에서 node-lease-seconds 동안 임대하여
+ * 그 1/3 주기로 연장한다. 연장하지 못한 사이에 임대가 만료되어 잃으면 새 번호를 임대한다.
+ * 같은 밀리초에 4096 개를 넘거나 시계가 뒤로 가면 다음 밀리초를 미리 당겨 써서 항상 증가한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.transaction.id.type", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeTransactionIdGenerator implements TransactionIdGenerator {
+    // 2023-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1672531200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final LongSupplier clock;
+    private final TransactionIdNodeLease nodeLease;
+    private final ScheduledExecutorService heartbeat;
+    // 임대를 잃으면 heartbeat 스레드가 바꾼다.
+    private volatile long nodeId;
+    // (밀리초 << SEQUENCE_BITS) | 순번
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeTransactionIdGenerator(RedissonClient redissonClient,
+                                           @Value("${account.transaction.id.node-id:-1}") long nodeId,
+                                           @Value("${account.transaction.id.node-lease-seconds:30}") long nodeLeaseSeconds) {
+        this(nodeId >= 0 ? null : new TransactionIdNodeLease(redissonClient, MAX_NODE_ID,
+                        TimeUnit.SECONDS.toMillis(nodeLeaseSeconds)),
+                nodeId, System::currentTimeMillis);
+        log.info("Transaction id node : {}", this.nodeId);
+    }
+
+    SnowflakeTransactionIdGenerator(long nodeId, LongSupplier clock) {
+        this(null, nodeId, clock);
+    }
+
+    /**
+     * @param nodeLease : null 이 아니면 nodeId 대신 임대한 번호를 쓴다.
+     */
+    SnowflakeTransactionIdGenerator(TransactionIdNodeLease nodeLease, long nodeId, LongSupplier clock) {
+        if (nodeLease != null) {
+            nodeId = nodeLease.claim();
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.nodeLease = nodeLease;
+        if (nodeLease == null) {
+            this.heartbeat = null;
+            return;
+        }
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-id-node-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = nodeLease.getLeaseMillis() / 3;
+        heartbeat.scheduleWithFixedDelay(this::renewNodeLease, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    long getNodeId() {
+        return nodeId;
+    }
+
+    void renewNodeLease() {
+        try {
+            if (!nodeLease.renew(nodeId)) {
+                long lost = nodeId;
+                nodeId = nodeLease.claim();
+                log.warn("Transaction id node lease {} expired, claimed {}", lost, nodeId);
+            }
+        } catch (RuntimeException e) {
+            // 임대가 만료되기 전에 다음 주기에서 다시 연장한다.
+            log.error("Failed to renew transaction id node lease : {}", nodeId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (nodeLease == null) {
+            return;
+        }
+        heartbeat.shutdownNow();
+        try {
+            nodeLease.release(nodeId);
+        } catch (RuntimeException e) {
+            log.error("Failed to release transaction id node lease : {}", nodeId, e);
+        }
+    }
+
+    @Override
+    public String generate() {
+        return encode(nextId());
+    }
+
+    long nextId() {
+        long nodeId = this.nodeId;
+        long state;
+        while (true) {
+            long last = lastState.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            state = Math.max(last + 1, now);
+            if (lastState.compareAndSet(last, state)) {
+                break;
+            }
+        }
+
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD_BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.account.service;
+
+/**
+ * 거래 번호(transactionId) 발급
+ *  - snowflake : 시간순으로 증가하는 13자리 번호 (SnowflakeTransactionIdGenerator, 기본)
+ *  - uuid : 기존 방식의 32자리 hex 번호 (UuidTransactionIdGenerator)
+ * 어느 쪽으로 발급해도 조회는 문자열 그대로 하므로 이미 저장된 32자리 번호도 그대로 조회된다.
+ */
+public interface TransactionIdGenerator {
+    String generate();
+}
@@ -0,0 +1,82 @@
+package com.example.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 거래 번호 노드 번호의 Redis 임대 (SnowflakeTransactionIdGenerator 에서만 사용)
+ * 노드 번호마다 TRANSACTION-ID-NODE:{번호} 키를 만료 시간과 함께 SET NX 로 잡고, 주기적으로 만료 시간을 늘린다.
+ * 종료되거나 죽은 노드의 번호는 만료된 뒤에만 다른 노드가 가져가므로 살아 있는 노드와 번호가 겹치지 않는다.
+ * 어느 번호부터 시도할지는 TRANSACTION-ID-NODE 카운터로 정해서 노드들이 같은 번호부터 경합하지 않게 한다.
+ */
+@Slf4j
+class TransactionIdNodeLease {
+    private static final String HINT_KEY = "TRANSACTION-ID-NODE";
+    private static final String NODE_KEY_PREFIX = "TRANSACTION-ID-NODE:";
+
+    private static final String RENEW_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0";
+
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) end return 0";
+
+    private final RedissonClient redissonClient;
+    private final long maxNodeId;
+    private final long leaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    TransactionIdNodeLease(RedissonClient redissonClient, long maxNodeId, long leaseMillis) {
+        this.redissonClient = redissonClient;
+        this.maxNodeId = maxNodeId;
+        this.leaseMillis = leaseMillis;
+    }
+
+    long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * 비어 있는 노드 번호를 잡는다. 모든 번호가 사용 중이면 IllegalStateException
+     */
+    long claim() {
+        long start = redissonClient.getAtomicLong(HINT_KEY).incrementAndGet();
+        for (long i = 0; i <= maxNodeId; i++) {
+            long nodeId = (start + i) & maxNodeId;
+            if (redissonClient.getBucket(nodeKey(nodeId), StringCodec.INSTANCE)
+                    .trySet(owner, leaseMillis, TimeUnit.MILLISECONDS)) {
+                return nodeId;
+            }
+        }
+        throw new IllegalStateException("no free transaction id node");
+    }
+
+    /**
+     * @return 아직 이 노드가 잡고 있어서 만료 시간을 늘렸으면 true, 만료되어 잃었으면 false
+     */
+    boolean renew(long nodeId) {
+        Long result = script().eval(RScript.Mode.READ_WRITE, RENEW_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(nodeKey(nodeId)), owner, String.valueOf(leaseMillis));
+        return result != null && result == 1L;
+    }
+
+    void release(long nodeId) {
+        script().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                List.of(nodeKey(nodeId)), owner);
+    }
+
+    private RScript script() {
+        return redissonClient.getScript(StringCodec.INSTANCE);
+    }
+
+    private static String nodeKey(long nodeId) {
+        return NODE_KEY_PREFIX + nodeId;
+    }
+}
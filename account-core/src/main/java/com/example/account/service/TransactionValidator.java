@@ -0,0 +1,60 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.exception.AccountException;
+import com.example.account.type.AccountStatus;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionType.TRANSFER_IN;
+import static com.example.account.type.TransactionType.TRANSFER_OUT;
+
+/**
+ * 잔액 사용/취소 검증
+ * 서블릿 모듈(TransactionService, RedisBalanceService)과 account-reactive 모듈이 같은 검증을 쓴다.
+ */
+public final class TransactionValidator {
+
+    private TransactionValidator() {
+    }
+
+    public static void validateUseBalance(Long amount, Long userId, Account account) {
+        validateUsableAccount(userId, account);
+
+        if (account.getBalance() < amount){
+            throw new AccountException(AMOUNT_EXCEED_BALANCE);
+        }
+    }
+
+    public static void validateUsableAccount(Long userId, Account account) {
+        if (!Objects.equals(userId, account.getAccountUser().getId())){
+            throw new AccountException(USER_ACCOUNT_UN_MATCH);
+        }
+
+        if (account.getAccountStatus() != AccountStatus.IN_USE){
+            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+        }
+    }
+
+    public static void validateCancelBalance(Long amount, Transaction transaction, Account account) {
+        if (transaction.getTransactionType() == TRANSFER_OUT
+                || transaction.getTransactionType() == TRANSFER_IN){
+            throw new AccountException(TRANSFER_CANNOT_CANCEL);
+        }
+
+        if (!Objects.equals(transaction.getAccount().getId(), account.getId())){
+            throw new AccountException(TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+
+        if (!Objects.equals(transaction.getAmount(), amount)){
+            throw new AccountException(CANCEL_MUST_FULLY);
+        }
+
+        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))){
+            throw new AccountException(TOO_OLD_TRANSACTION_TO_CANCEL);
+        }
+    }
+}
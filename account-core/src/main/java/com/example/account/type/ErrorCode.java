@@ -19,6 +19,12 @@ public enum ErrorCode {
     TOO_OLD_TRANSACTION_TO_CANCEL("1년이 지난 거래는 취소가 불가능합니다."),
     INTERNAL_SERVER_ERROR("내부 서버 오류가 발생하였습니다."),
     ACCOUNT_TRANSACTION_LOCK("해당 계좌는 사용 중입니다."),
+    ACCOUNT_COMMAND_QUEUE_FULL("해당 계좌에 대기 중인 거래가 너무 많습니다."),
+    TRANSFER_SAME_ACCOUNT("같은 계좌로 이체할 수 없습니다."),
+    TRANSFER_CANNOT_CANCEL("이체 거래는 취소할 수 없습니다."),
+    ACCOUNT_ALREADY_SHARDED("이미 나뉘어 있는 계좌입니다."),
+    IDEMPOTENCY_KEY_REUSED("같은 Idempotency-Key 로 다른 요청을 보낼 수 없습니다."),
+    IDEMPOTENT_REQUEST_IN_PROGRESS("같은 Idempotency-Key 의 요청을 처리 중입니다."),
     AMOUNT_EXCEED_BALANCE("거래 금액이 잔금보다 큽니다.");
 
     private final String description;
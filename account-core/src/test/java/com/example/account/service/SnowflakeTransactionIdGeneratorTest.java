@@ -0,0 +1,151 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class SnowflakeTransactionIdGeneratorTest {
+
+    @Test
+    @DisplayName("발급 순서대로 문자열이 증가")
+    void generateInOrder() {
+        //given
+        AtomicLong now = new AtomicLong(1700000000000L);
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(3, now::get);
+
+        //when
+        String first = generator.generate();
+        String second = generator.generate();
+        now.addAndGet(1);
+        String third = generator.generate();
+
+        //then
+        assertThat(first).hasSize(13).matches("[0-9A-HJKMNP-TV-Z]+");
+        assertThat(first).isLessThan(second);
+        assertThat(second).isLessThan(third);
+    }
+
+    @Test
+    @DisplayName("시계가 뒤로 가도 번호는 증가")
+    void clockMovedBackwards() {
+        //given
+        AtomicLong now = new AtomicLong(1700000000000L);
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(3, now::get);
+        long before = generator.nextId();
+
+        //when
+        now.addAndGet(-1000);
+        long after = generator.nextId();
+
+        //then
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("같은 밀리초에 순번을 넘기면 다음 밀리초를 당겨 씀")
+    void sequenceOverflow() {
+        //given
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(3, () -> 1700000000000L);
+        long first = generator.nextId();
+
+        //when
+        long last = first;
+        for (int i = 0; i < 5000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(last);
+            last = id;
+        }
+
+        //then
+        assertThat(last >>> 22).isEqualTo((first >>> 22) + 1);
+        assertThat((last >>> 12) & 1023).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 발급해도 중복 없음")
+    void generateConcurrently() throws InterruptedException {
+        //given
+        SnowflakeTransactionIdGenerator generator =
+                new SnowflakeTransactionIdGenerator(1, System::currentTimeMillis);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    ids.add(generator.generate());
+                }
+                latch.countDown();
+            });
+        }
+        latch.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //then
+        assertThat(ids).hasSize(80000);
+    }
+
+    @Test
+    @DisplayName("노드 번호 범위 초과")
+    void invalidNodeId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeTransactionIdGenerator(1024, System::currentTimeMillis));
+    }
+
+    @Test
+    @DisplayName("임대를 잃으면 새 노드 번호를 임대하고, 종료 시 반납")
+    void reclaimLostNodeLease() {
+        //given
+        TransactionIdNodeLease nodeLease = mock(TransactionIdNodeLease.class);
+        given(nodeLease.getLeaseMillis()).willReturn(30000L);
+        given(nodeLease.claim()).willReturn(5L, 9L);
+        given(nodeLease.renew(5L)).willReturn(false);
+        SnowflakeTransactionIdGenerator generator =
+                new SnowflakeTransactionIdGenerator(nodeLease, -1, () -> 1700000000000L);
+        long before = generator.nextId();
+
+        //when
+        generator.renewNodeLease();
+        long after = generator.nextId();
+        generator.shutdown();
+
+        //then
+        assertThat((before >>> 12) & 1023).isEqualTo(5);
+        assertThat((after >>> 12) & 1023).isEqualTo(9);
+        verify(nodeLease, times(1)).release(9L);
+    }
+
+    @Test
+    @DisplayName("임대 연장 중 Redis 오류가 나면 노드 번호 유지")
+    void keepNodeIdWhenRenewFails() {
+        //given
+        TransactionIdNodeLease nodeLease = mock(TransactionIdNodeLease.class);
+        given(nodeLease.getLeaseMillis()).willReturn(30000L);
+        given(nodeLease.claim()).willReturn(5L);
+        given(nodeLease.renew(5L)).willThrow(new IllegalStateException("redis down"));
+        SnowflakeTransactionIdGenerator generator =
+                new SnowflakeTransactionIdGenerator(nodeLease, -1, () -> 1700000000000L);
+
+        //when
+        generator.renewNodeLease();
+
+        //then
+        assertThat(generator.getNodeId()).isEqualTo(5L);
+        verify(nodeLease, times(1)).claim();
+        generator.shutdown();
+    }
+}
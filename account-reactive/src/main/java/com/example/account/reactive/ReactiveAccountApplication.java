@@ -0,0 +1,17 @@
+package com.example.account.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 잔액 사용/취소/거래 확인 API 의 non-blocking 버전 (WebFlux + R2DBC + Redisson reactive lock)
+ * 요청을 기다리는 동안 스레드를 점유하지 않으므로 적은 수의 event loop 스레드로 많은 연결을 처리한다.
+ */
+@SpringBootApplication
+public class ReactiveAccountApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveAccountApplication.class, args);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.account.reactive.config;
+
+import com.example.account.service.SnowflakeTransactionIdGenerator;
+import com.example.account.service.TransactionIdGenerator;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 계좌 lock 과 거래 번호 노드 임대를 서블릿 모듈과 나눠 쓰도록 같은 Redis 에 연결한다.
+ * 이 모듈은 Redis 를 직접 띄우지 않으므로 로컬에서는 서블릿 모듈(embedded redis)을 먼저 실행한다.
+ * 거래 번호도 서블릿 모듈과 같은 snowflake 발급기를 써서 두 모듈의 노드 번호가 겹치지 않게 한다.
+ */
+@Configuration
+public class ReactiveRedisConfig {
+    @Value("${spring.redis.host}")
+    private String redisHost;
+
+    @Value("${spring.redis.port}")
+    private int redisPort;
+
+    @Bean
+    public RedissonClient redissonClient() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
+
+        return Redisson.create(config);
+    }
+
+    @Bean
+    public RedissonReactiveClient redissonReactiveClient(RedissonClient redissonClient) {
+        return redissonClient.reactive();
+    }
+
+    @Bean
+    public TransactionIdGenerator transactionIdGenerator(RedissonClient redissonClient,
+                                                         @Value("${account.transaction.id.node-id:-1}") long nodeId,
+                                                         @Value("${account.transaction.id.node-lease-seconds:30}") long nodeLeaseSeconds) {
+        return new SnowflakeTransactionIdGenerator(redissonClient, nodeId, nodeLeaseSeconds);
+    }
+}
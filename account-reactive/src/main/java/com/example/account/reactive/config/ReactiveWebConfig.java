@@ -0,0 +1,14 @@
+package com.example.account.reactive.config;
+
+import com.example.account.exception.GlobalExceptionHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 오류 응답은 서블릿 모듈과 같은 GlobalExceptionHandler 로 만든다.
+ * (WebFlux 의 요청 검증 실패 WebExchangeBindException 은 Exception 처리로 INVALID_REQUEST 가 된다)
+ */
+@Configuration
+@Import(GlobalExceptionHandler.class)
+public class ReactiveWebConfig {
+}
@@ -0,0 +1,80 @@
+package com.example.account.reactive.controller;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.QueryTransactionResponse;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.reactive.service.ReactiveLockService;
+import com.example.account.reactive.service.ReactiveTransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+/**
+ * 잔액 관련 컨트롤러 (WebFlux)
+ * 1. 잔액 사용
+ * 2. 잔액 사용 취소
+ * 3. 거래 확인
+ *
+ * 요청/응답은 서블릿 모듈의 TransactionController 와 같다.
+ * lock 을 기다리는 동안 요청 스레드를 잡고 있지 않는다.
+ */
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveTransactionController {
+
+    private final ReactiveTransactionService transactionService;
+    private final ReactiveLockService lockService;
+
+    @PostMapping("/transaction/use")
+    public Mono<UseBalance.Response> useBalance(@Valid @RequestBody UseBalance.Request request) {
+        return lockService.withLock(request.getAccountNumber(), LockPolicy.DEFAULT, () ->
+                transactionService.useBalance(
+                                request.getUserId(),
+                                request.getAccountNumber(),
+                                request.getAmount()
+                        )
+                        .map(UseBalance.Response::from)
+                        .onErrorResume(AccountException.class, e -> {
+                            log.error("Failed to use balance");
+
+                            return transactionService.saveFailedUseTransactions(
+                                    request.getAccountNumber(),
+                                    request.getAmount()
+                            ).then(Mono.error(e));
+                        }));
+    }
+
+    @PostMapping("/transaction/cancel")
+    public Mono<CancelBalance.Response> cancelBalance(@Valid @RequestBody CancelBalance.Request request) {
+        return lockService.withLock(request.getAccountNumber(), LockPolicy.DEFAULT, () ->
+                transactionService.cancelBalance(
+                                request.getTransactionId(),
+                                request.getAccountNumber(),
+                                request.getAmount()
+                        )
+                        .map(CancelBalance.Response::from)
+                        .onErrorResume(AccountException.class, e -> {
+                            log.error("Failed to cancel balance");
+
+                            return transactionService.saveFailedCancelTransactions(
+                                    request.getAccountNumber(),
+                                    request.getAmount()
+                            ).then(Mono.error(e));
+                        }));
+    }
+
+    @GetMapping("/transaction/{transactionId}")
+    public Mono<QueryTransactionResponse> queryTransaction(
+            @PathVariable String transactionId
+    ) {
+        return transactionService.queryTransaction(transactionId)
+                .map(QueryTransactionResponse::from);
+    }
+}
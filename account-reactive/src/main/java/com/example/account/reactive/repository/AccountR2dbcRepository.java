@@ -0,0 +1,67 @@
+package com.example.account.reactive.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.type.AccountStatus;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 이 모듈의 schema.sql 로 만든 account 테이블을 SQL 로 읽고 쓴다.
+ * 조회 결과는 도메인 검증(Account.useBalance 등)을 그대로 쓰도록 Account 로 옮기고, 소유주는 id 만 채운다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountR2dbcRepository {
+    static final String ACCOUNT_COLUMNS = "a.id, a.account_number, a.account_status, a.balance, a.version,"
+            + " a.account_user_id, a.registered_at, a.un_registered_at, a.shard_count";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Account> findByAccountNumber(String accountNumber) {
+        return databaseClient.sql("select " + ACCOUNT_COLUMNS + " from account a where a.account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .map((row, metadata) -> toAccount(row))
+                .one();
+    }
+
+    public Mono<Boolean> existsUserById(Long userId) {
+        return databaseClient.sql("select count(*) as cnt from account_user u where u.id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> row.get("cnt", Long.class) > 0)
+                .one();
+    }
+
+    /**
+     * 읽은 뒤에 다른 곳에서 잔액이 바뀌었으면 (version 이 다르면) 0 건이 갱신된다.
+     */
+    public Mono<Integer> updateBalance(Account account) {
+        return databaseClient.sql("update account set balance = :balance, version = version + 1,"
+                        + " updated_at = :updatedAt where id = :id and version = :version")
+                .bind("balance", account.getBalance())
+                .bind("updatedAt", LocalDateTime.now())
+                .bind("id", account.getId())
+                .bind("version", account.getVersion())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    static Account toAccount(Row row) {
+        return Account.builder()
+                .id(row.get("id", Long.class))
+                .accountNumber(row.get("account_number", String.class))
+                .accountStatus(AccountStatus.valueOf(row.get("account_status", String.class)))
+                .balance(row.get("balance", Long.class))
+                .version(row.get("version", Long.class))
+                .accountUser(AccountUser.builder().id(row.get("account_user_id", Long.class)).build())
+                .registeredAt(row.get("registered_at", LocalDateTime.class))
+                .unRegisteredAt(row.get("un_registered_at", LocalDateTime.class))
+                .shardCount(row.get("shard_count", Integer.class))
+                .build();
+    }
+}
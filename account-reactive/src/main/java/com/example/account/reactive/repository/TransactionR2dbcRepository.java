@@ -0,0 +1,99 @@
+package com.example.account.reactive.repository;
+
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 이 모듈의 schema.sql 로 만든 transaction 테이블을 SQL 로 읽고 쓴다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionR2dbcRepository {
+    private static final String TRANSACTION_COLUMNS = "t.id as t_id, t.transaction_type, t.transaction_result_type,"
+            + " t.amount, t.balance_snapshot, t.transaction_id, t.transacted_at, t.pair_transaction_id";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * 취소할 거래와 그 계좌를 한 번에 조회한다.
+     */
+    public Mono<Transaction> findWithAccountByTransactionId(String transactionId) {
+        return databaseClient.sql("select " + TRANSACTION_COLUMNS + ", " + AccountR2dbcRepository.ACCOUNT_COLUMNS
+                        + " from transaction t join account a on a.id = t.account_id"
+                        + " where t.transaction_id = :transactionId")
+                .bind("transactionId", transactionId)
+                .map((row, metadata) -> {
+                    Transaction transaction = toTransaction(row);
+                    transaction.setAccount(AccountR2dbcRepository.toAccount(row));
+                    return transaction;
+                })
+                .one();
+    }
+
+    public Mono<TransactionDto> findDtoByTransactionId(String transactionId) {
+        return databaseClient.sql("select " + TRANSACTION_COLUMNS + ", a.account_number"
+                        + " from transaction t join account a on a.id = t.account_id"
+                        + " where t.transaction_id = :transactionId")
+                .bind("transactionId", transactionId)
+                .map((row, metadata) -> TransactionDto.builder()
+                        .accountNumber(row.get("account_number", String.class))
+                        .transactionType(TransactionType.valueOf(row.get("transaction_type", String.class)))
+                        .transactionResultType(TransactionResultType.valueOf(
+                                row.get("transaction_result_type", String.class)))
+                        .amount(row.get("amount", Long.class))
+                        .balanceSnapshot(row.get("balance_snapshot", Long.class))
+                        .transactionId(row.get("transaction_id", String.class))
+                        .transactedAt(row.get("transacted_at", LocalDateTime.class))
+                        .build())
+                .one();
+    }
+
+    /**
+     * id 는 transaction_seq 에서 한 번에 하나씩 받는다.
+     */
+    public Mono<Transaction> save(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("insert into transaction (id, transaction_type,"
+                        + " transaction_result_type, account_id, amount, balance_snapshot, transaction_id, transacted_at,"
+                        + " pair_transaction_id, created_at, updated_at)"
+                        + " values (next value for transaction_seq, :transactionType, :transactionResultType, :accountId,"
+                        + " :amount, :balanceSnapshot, :transactionId, :transactedAt, :pairTransactionId, :now, :now)")
+                .bind("transactionType", transaction.getTransactionType().name())
+                .bind("transactionResultType", transaction.getTransactionResultType().name())
+                .bind("accountId", transaction.getAccount().getId())
+                .bind("amount", transaction.getAmount())
+                .bind("balanceSnapshot", transaction.getBalanceSnapshot())
+                .bind("transactionId", transaction.getTransactionId())
+                .bind("transactedAt", transaction.getTransactedAt())
+                .bind("now", now);
+        spec = transaction.getPairTransactionId() == null
+                ? spec.bindNull("pairTransactionId", String.class)
+                : spec.bind("pairTransactionId", transaction.getPairTransactionId());
+
+        return spec.fetch()
+                .rowsUpdated()
+                .thenReturn(transaction);
+    }
+
+    private static Transaction toTransaction(Row row) {
+        return Transaction.builder()
+                .id(row.get("t_id", Long.class))
+                .transactionType(TransactionType.valueOf(row.get("transaction_type", String.class)))
+                .transactionResultType(TransactionResultType.valueOf(row.get("transaction_result_type", String.class)))
+                .amount(row.get("amount", Long.class))
+                .balanceSnapshot(row.get("balance_snapshot", Long.class))
+                .transactionId(row.get("transaction_id", String.class))
+                .transactedAt(row.get("transacted_at", LocalDateTime.class))
+                .pairTransactionId(row.get("pair_transaction_id", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.account.reactive.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import com.example.account.service.LockOwnerIds;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redisson reactive lock 으로 서블릿 모듈과 같은 ACLK: lock 을 잡는다.
+ * 요청을 처리하는 스레드가 정해져 있지 않으므로 요청마다 owner id 를 발급해서 획득과 해제에 함께 쓴다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveLockService {
+    private final RedissonReactiveClient redissonReactiveClient;
+
+    /**
+     * lock 을 잡고 task 를 실행한 뒤, 성공/실패/취소와 상관없이 lock 을 푼다.
+     */
+    public <T> Mono<T> withLock(String accountNumber, LockPolicy policy, Supplier<Mono<T>> task) {
+        return Mono.usingWhen(
+                lock(accountNumber, policy),
+                ownerId -> task.get(),
+                ownerId -> unlock(accountNumber, ownerId));
+    }
+
+    public Mono<Long> lock(String accountNumber, LockPolicy policy) {
+        return Mono.defer(() -> {
+            long ownerId = LockOwnerIds.next();
+            log.debug("Trying reactive lock for accountNumber : {}", accountNumber);
+
+            return redissonReactiveClient.getLock(getLockKey(accountNumber))
+                    .tryLock(policy.getWaitTime(), policy.getLeaseTime(), TimeUnit.MILLISECONDS, ownerId)
+                    .flatMap(isLock -> {
+                        if (!isLock) {
+                            log.error("================= Lock acquisition failed ===============");
+                            return Mono.error(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+                        }
+                        return Mono.just(ownerId);
+                    });
+        });
+    }
+
+    /**
+     * 해제에 실패해도 lease 가 지나면 lock 은 풀리므로 오류는 남기기만 한다.
+     */
+    public Mono<Void> unlock(String accountNumber, long ownerId) {
+        log.debug("Reactive unlock for accountNumber : {}", accountNumber);
+        return redissonReactiveClient.getLock(getLockKey(accountNumber))
+                .unlock(ownerId)
+                .onErrorResume(e -> {
+                    log.error("Redis unlock failed", e);
+                    return Mono.empty();
+                });
+    }
+
+    private static String getLockKey(String accountNumber) {
+        return "ACLK:" + accountNumber;
+    }
+}
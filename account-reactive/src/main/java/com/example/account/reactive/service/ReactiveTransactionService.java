@@ -0,0 +1,175 @@
+package com.example.account.reactive.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.reactive.repository.AccountR2dbcRepository;
+import com.example.account.reactive.repository.TransactionR2dbcRepository;
+import com.example.account.service.TransactionIdGenerator;
+import com.example.account.service.TransactionValidator;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * TransactionService 의 잔액 사용/취소/거래 확인을 R2DBC 로 처리한다.
+ * 검증은 TransactionValidator 와 Account 의 것을 그대로 쓰고, 호출한 쪽이 계좌 lock 을 잡고 있어야 한다.
+ *
+ * 잔액은 읽은 version 이 그대로일 때만 갱신하므로 lock 없이 바뀐 경우 ACCOUNT_TRANSACTION_LOCK 으로 실패한다.
+ * 잔액은 이 모듈의 DB 에만 반영되므로 서블릿 모듈의 계좌 목록 캐시(AccountListCache)는 건드리지 않는다.
+ * shard 로 나뉜 계좌는 계좌에 남은 잔액(balance)만 사용/취소한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveTransactionService {
+    private final AccountR2dbcRepository accountRepository;
+    private final TransactionR2dbcRepository transactionRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * 사용자 없는 경우, 사용자 아이디와 계좌 소유주가 다른 경우,
+     * 계좌가 이미 해지 상태인 경우, 거래금액이 잔액보다 큰 경우 실패 응답
+     */
+    public Mono<TransactionDto> useBalance(Long userId, String accountNumber, Long amount) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .switchIfEmpty(Mono.defer(() -> accountNotFound(userId)))
+                .flatMap(account -> validateUserExists(userId, account))
+                .flatMap(account -> {
+                    TransactionValidator.validateUseBalance(amount, userId, account);
+
+                    account.useBalance(amount);
+                    return updateBalanceAndSaveTransaction(amount, account, USE);
+                })
+                .as(transactionalOperator::transactional)
+                .map(TransactionDto::fromEntity);
+    }
+
+    /**
+     * 계좌가 없는 실패는 남기지 않는다. (서블릿 모듈의 FailedTransactionRecorder 와 같다)
+     * 기록에 실패해도 원래 실패 응답은 그대로 나가도록 오류는 남기기만 한다.
+     */
+    public Mono<Void> saveFailedUseTransactions(String accountNumber, Long amount) {
+        return saveFailedTransaction(accountNumber, amount, USE);
+    }
+
+    public Mono<TransactionDto> cancelBalance(String transactionId, String accountNumber, Long amount) {
+        return transactionRepository.findWithAccountByTransactionId(transactionId)
+                .switchIfEmpty(Mono.error(() -> new AccountException(TRANSACTION_NOT_FOUND)))
+                .flatMap(transaction -> getCancelAccount(transaction, accountNumber)
+                        .flatMap(account -> {
+                            TransactionValidator.validateCancelBalance(amount, transaction, account);
+
+                            account.cancelBalance(amount);
+                            return updateBalanceAndSaveTransaction(amount, account, CANCEL);
+                        }))
+                .as(transactionalOperator::transactional)
+                .map(TransactionDto::fromEntity);
+    }
+
+    public Mono<Void> saveFailedCancelTransactions(String accountNumber, Long amount) {
+        return saveFailedTransaction(accountNumber, amount, CANCEL);
+    }
+
+    public Mono<TransactionDto> queryTransaction(String transactionId) {
+        return transactionRepository.findDtoByTransactionId(transactionId)
+                .switchIfEmpty(Mono.error(() -> new AccountException(TRANSACTION_NOT_FOUND)));
+    }
+
+    /**
+     * 계좌가 없을 때만 사용자가 있는지 확인해서 USER_NOT_FOUND 를 먼저 응답한다.
+     */
+    private Mono<Account> accountNotFound(Long userId) {
+        return accountRepository.existsUserById(userId)
+                .flatMap(exists -> Mono.error(new AccountException(
+                        exists ? ACCOUNT_NOT_FOUND : USER_NOT_FOUND)));
+    }
+
+    /**
+     * 소유주가 아닌 사용자만 따로 확인한다. (소유주는 계좌가 참조하므로 항상 있다)
+     */
+    private Mono<Account> validateUserExists(Long userId, Account account) {
+        if (Objects.equals(userId, account.getAccountUser().getId())) {
+            return Mono.just(account);
+        }
+        return accountRepository.existsUserById(userId)
+                .flatMap(exists -> exists
+                        ? Mono.just(account)
+                        : Mono.error(new AccountException(USER_NOT_FOUND)));
+    }
+
+    /**
+     * 거래와 함께 조회한 계좌가 요청한 계좌인지 확인한다. (TransactionService.getCancelAccount 와 같다)
+     */
+    private Mono<Account> getCancelAccount(Transaction transaction, String accountNumber) {
+        Account account = transaction.getAccount();
+        if (Objects.equals(account.getAccountNumber(), accountNumber)) {
+            return Mono.just(account);
+        }
+        return accountRepository.findByAccountNumber(accountNumber)
+                .hasElement()
+                .flatMap(exists -> Mono.error(new AccountException(
+                        exists ? TRANSACTION_ACCOUNT_UN_MATCH : ACCOUNT_NOT_FOUND)));
+    }
+
+    private Mono<Transaction> updateBalanceAndSaveTransaction(Long amount, Account account,
+                                                              TransactionType transactionType) {
+        return accountRepository.updateBalance(account)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        log.error("Account version changed, accountNumber : {}", account.getAccountNumber());
+                        return Mono.error(new AccountException(ACCOUNT_TRANSACTION_LOCK));
+                    }
+                    return saveTransaction(amount, account, S, transactionType);
+                });
+    }
+
+    private Mono<Void> saveFailedTransaction(String accountNumber, Long amount, TransactionType transactionType) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .flatMap(account -> saveTransaction(amount, account, F, transactionType))
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Failed to save failed transaction, accountNumber : {}", accountNumber, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Transaction> saveTransaction(Long amount, Account account,
+                                              TransactionResultType resultType,
+                                              TransactionType transactionType) {
+        return Mono.fromCallable(transactionIdGenerator::generate)
+                .flatMap(transactionId -> transactionRepository.save(
+                        Transaction.builder()
+                                .transactionType(transactionType)
+                                .transactionResultType(resultType)
+                                .account(account)
+                                .amount(amount)
+                                .balanceSnapshot(account.getBalance())
+                                .transactionId(transactionId)
+                                .transactedAt(now())
+                                .build()));
+    }
+
+    /**
+     * DB 컬럼 정밀도(마이크로초)에 맞춰야 저장한 값과 다시 읽은 값이 같다.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,17 @@
+insert into account_user(id, name, created_at, updated_at)
+values (1, 'Pororo', now(), now());
+
+insert into account_user(id, name, created_at, updated_at)
+values (2, 'Lupi', now(), now());
+
+insert into account_user(id, name, created_at, updated_at)
+values (3, 'Eddie', now(), now());
+
+-- 이 모듈에는 계좌 생성 API 가 없으므로 거래에 쓸 계좌를 미리 넣는다.
+insert into account(id, account_user_id, account_number, account_status, balance, version,
+                    registered_at, created_at, updated_at)
+values (1, 1, '1000000000', 'IN_USE', 100000, 0, now(), now(), now());
+
+insert into account(id, account_user_id, account_number, account_status, balance, version,
+                    registered_at, created_at, updated_at)
+values (2, 2, '1000000001', 'IN_USE', 100000, 0, now(), now(), now());
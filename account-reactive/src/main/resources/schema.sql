@@ -0,0 +1,49 @@
+-- 이 모듈의 DB 테이블, 도메인 클래스를 그대로 쓰도록 서블릿 모듈의 JPA 매핑과 같은 구조로 만든다.
+create sequence if not exists account_user_seq start with 1 increment by 50;
+create sequence if not exists account_seq start with 1 increment by 50;
+create sequence if not exists transaction_seq start with 1 increment by 50;
+
+create table if not exists account_user (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists account (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    account_number varchar(255),
+    account_status varchar(255),
+    balance bigint,
+    registered_at timestamp,
+    shard_count integer,
+    un_registered_at timestamp,
+    version bigint,
+    account_user_id bigint,
+    primary key (id),
+    constraint uk_account_account_number unique (account_number),
+    foreign key (account_user_id) references account_user (id)
+);
+
+create table if not exists transaction (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    amount bigint,
+    balance_snapshot bigint,
+    pair_transaction_id varchar(255),
+    transacted_at timestamp,
+    transaction_id varchar(255),
+    transaction_result_type varchar(255),
+    transaction_type varchar(255),
+    account_id bigint,
+    primary key (id),
+    constraint uk_transaction_transaction_id unique (transaction_id),
+    foreign key (account_id) references account (id)
+);
+
+create index if not exists idx_transaction_account_transacted_at
+    on transaction (account_id, transacted_at desc, id desc);
@@ -0,0 +1,194 @@
+package com.example.account.reactive.controller;
+
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.exception.GlobalExceptionHandler;
+import com.example.account.reactive.service.ReactiveLockService;
+import com.example.account.reactive.service.ReactiveTransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+import static com.example.account.type.ErrorCode.TRANSACTION_NOT_FOUND;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(ReactiveTransactionController.class)
+@Import(GlobalExceptionHandler.class)
+class ReactiveTransactionControllerTest {
+    @MockBean
+    private ReactiveTransactionService transactionService;
+
+    @MockBean
+    private ReactiveLockService lockService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void runWithoutLock() {
+        given(lockService.withLock(anyString(), any(), any()))
+                .willAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(2).get());
+    }
+
+    @Test
+    void useBalanceSuccess() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(Mono.just(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(11111L)
+                        .transactionId("transactionId")
+                        .transactionResultType(S)
+                        .build()));
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "2000000000", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("1000000000")
+                .jsonPath("$.transactionResultType").isEqualTo("S")
+                .jsonPath("$.transactionId").isEqualTo("transactionId")
+                .jsonPath("$.amount").isEqualTo(11111);
+        verify(lockService).withLock(eq("2000000000"), any(), any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 실패 거래 저장 후 오류 응답")
+    void useBalanceFailed() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(Mono.error(new AccountException(AMOUNT_EXCEED_BALANCE)));
+        given(transactionService.saveFailedUseTransactions(anyString(), anyLong()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "2000000000", 3000L))
+                .exchange()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("AMOUNT_EXCEED_BALANCE");
+        verify(transactionService).saveFailedUseTransactions("2000000000", 3000L);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - lock 획득 실패는 실패 거래를 남기지 않음")
+    void useBalance_lockFailed() {
+        //given
+        willReturn(Mono.error(new AccountException(ACCOUNT_TRANSACTION_LOCK)))
+                .given(lockService).withLock(anyString(), any(), any());
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "2000000000", 3000L))
+                .exchange()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("ACCOUNT_TRANSACTION_LOCK");
+        verify(transactionService, never()).saveFailedUseTransactions(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 잘못된 요청")
+    void useBalance_invalidRequest() {
+        //given
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "100", 3000L))
+                .exchange()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("INVALID_REQUEST");
+        verify(lockService, never()).withLock(anyString(), any(), any());
+    }
+
+    @Test
+    void cancelBalanceSuccess() {
+        //given
+        given(transactionService.cancelBalance(anyString(), anyString(), anyLong()))
+                .willReturn(Mono.just(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(11111L)
+                        .transactionId("transactionIdForCancel")
+                        .transactionResultType(S)
+                        .build()));
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/cancel")
+                .bodyValue(new CancelBalance.Request("transactionId", "2000000000", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("1000000000")
+                .jsonPath("$.transactionResultType").isEqualTo("S")
+                .jsonPath("$.transactionId").isEqualTo("transactionIdForCancel")
+                .jsonPath("$.amount").isEqualTo(11111);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 확인 성공")
+    void queryTransactionSuccess() {
+        //given
+        given(transactionService.queryTransaction(anyString()))
+                .willReturn(Mono.just(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactionType(USE)
+                        .transactedAt(LocalDateTime.now())
+                        .amount(11111L)
+                        .transactionId("transactionId")
+                        .transactionResultType(S)
+                        .build()));
+
+        //when
+        //then
+        webTestClient.get().uri("/transaction/12345")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("1000000000")
+                .jsonPath("$.transactionType").isEqualTo("USE")
+                .jsonPath("$.amount").isEqualTo(11111)
+                .jsonPath("$.transactionId").isEqualTo("transactionId")
+                .jsonPath("$.transactionResultType").isEqualTo("S");
+    }
+
+    @Test
+    @DisplayName("잔액 사용 확인 실패 - 거래 없음")
+    void queryTransaction_transactionNotFound() {
+        //given
+        given(transactionService.queryTransaction(anyString()))
+                .willReturn(Mono.error(new AccountException(TRANSACTION_NOT_FOUND)));
+
+        //when
+        //then
+        webTestClient.get().uri("/transaction/12345")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("TRANSACTION_NOT_FOUND");
+    }
+}
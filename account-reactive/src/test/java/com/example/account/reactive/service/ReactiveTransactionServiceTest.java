@@ -0,0 +1,224 @@
+package com.example.account.reactive.service;
+
+import com.example.account.domain.Account;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.reactive.repository.AccountR2dbcRepository;
+import com.example.account.reactive.repository.TransactionR2dbcRepository;
+import com.example.account.service.TransactionIdGenerator;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * data.sql 의 계좌 1000000000(사용자 1), 1000000001(사용자 2)로 R2DBC 저장까지 확인한다.
+ */
+@DataR2dbcTest
+@Import({ReactiveTransactionService.class, AccountR2dbcRepository.class, TransactionR2dbcRepository.class})
+class ReactiveTransactionServiceTest {
+    @MockBean
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Autowired
+    private ReactiveTransactionService transactionService;
+
+    @Autowired
+    private AccountR2dbcRepository accountRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("delete from transaction").then().block();
+        databaseClient.sql("update account set balance = 100000, version = 0").then().block();
+        given(transactionIdGenerator.generate())
+                .willAnswer(invocation -> "transactionId" + sequence.incrementAndGet());
+    }
+
+    @Test
+    void successUseBalance() {
+        //given
+        //when
+        StepVerifier.create(transactionService.useBalance(1L, "1000000000", 1000L))
+                //then
+                .assertNext(transactionDto -> {
+                    assertEquals("1000000000", transactionDto.getAccountNumber());
+                    assertEquals(USE, transactionDto.getTransactionType());
+                    assertEquals(S, transactionDto.getTransactionResultType());
+                    assertEquals(1000L, transactionDto.getAmount());
+                    assertEquals(99000L, transactionDto.getBalanceSnapshot());
+                })
+                .verifyComplete();
+        assertEquals(99000L, balanceOf("1000000000"));
+        assertEquals(1L, versionOf("1000000000"));
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 거래 금액이 잔액보다 큰 경우")
+    void useBalance_exceedAmount() {
+        //given
+        //when
+        //then
+        verifyError(transactionService.useBalance(1L, "1000000000", 100001L), AMOUNT_EXCEED_BALANCE);
+        assertEquals(100000L, balanceOf("1000000000"));
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 계좌 소유주가 다름")
+    void useBalance_userUnMatch() {
+        //given
+        //when
+        //then
+        verifyError(transactionService.useBalance(2L, "1000000000", 1000L), USER_ACCOUNT_UN_MATCH);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 사용자 없음")
+    void useBalance_userNotFound() {
+        //given
+        //when
+        //then
+        verifyError(transactionService.useBalance(9L, "1000000000", 1000L), USER_NOT_FOUND);
+        verifyError(transactionService.useBalance(9L, "1000000009", 1000L), USER_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 계좌 없음")
+    void useBalance_accountNotFound() {
+        //given
+        //when
+        //then
+        verifyError(transactionService.useBalance(1L, "1000000009", 1000L), ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("잔액 갱신 실패 - 조회 후 다른 곳에서 잔액이 바뀐 경우")
+    void useBalance_versionChanged() {
+        //given
+        Account account = accountRepository.findByAccountNumber("1000000000").block();
+        databaseClient.sql("update account set version = version + 1").then().block();
+        account.useBalance(1000L);
+
+        //when
+        //then
+        StepVerifier.create(accountRepository.updateBalance(account))
+                .expectNext(0)
+                .verifyComplete();
+        assertEquals(100000L, balanceOf("1000000000"));
+    }
+
+    @Test
+    void successCancelBalance() {
+        //given
+        TransactionDto used = transactionService.useBalance(1L, "1000000000", 1000L).block();
+
+        //when
+        StepVerifier.create(transactionService.cancelBalance(used.getTransactionId(), "1000000000", 1000L))
+                //then
+                .assertNext(transactionDto -> {
+                    assertEquals(CANCEL, transactionDto.getTransactionType());
+                    assertEquals(S, transactionDto.getTransactionResultType());
+                    assertEquals(100000L, transactionDto.getBalanceSnapshot());
+                })
+                .verifyComplete();
+        assertEquals(100000L, balanceOf("1000000000"));
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 실패 - 거래와 계좌가 다름")
+    void cancelBalance_transactionAccountUnMatch() {
+        //given
+        TransactionDto used = transactionService.useBalance(1L, "1000000000", 1000L).block();
+
+        //when
+        //then
+        verifyError(transactionService.cancelBalance(used.getTransactionId(), "1000000001", 1000L),
+                TRANSACTION_ACCOUNT_UN_MATCH);
+        verifyError(transactionService.cancelBalance(used.getTransactionId(), "1000000009", 1000L),
+                ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 실패 - 부분 취소")
+    void cancelBalance_cancelMustFully() {
+        //given
+        TransactionDto used = transactionService.useBalance(1L, "1000000000", 1000L).block();
+
+        //when
+        //then
+        verifyError(transactionService.cancelBalance(used.getTransactionId(), "1000000000", 500L),
+                CANCEL_MUST_FULLY);
+        assertEquals(99000L, balanceOf("1000000000"));
+    }
+
+    @Test
+    @DisplayName("실패한 잔액 사용은 F 거래로 저장")
+    void saveFailedUseTransaction() {
+        //given
+        //when
+        StepVerifier.create(transactionService.saveFailedUseTransactions("1000000000", 1000L))
+                .verifyComplete();
+
+        //then
+        StepVerifier.create(transactionService.queryTransaction("transactionId1"))
+                .assertNext(transactionDto -> {
+                    assertEquals(USE, transactionDto.getTransactionType());
+                    assertEquals(F, transactionDto.getTransactionResultType());
+                    assertEquals(100000L, transactionDto.getBalanceSnapshot());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("잔액 사용 확인 실패 - 거래 없음")
+    void queryTransaction_transactionNotFound() {
+        //given
+        //when
+        //then
+        verifyError(transactionService.queryTransaction("transactionId"), TRANSACTION_NOT_FOUND);
+    }
+
+    private static void verifyError(Mono<?> mono, ErrorCode errorCode) {
+        StepVerifier.create(mono)
+                .expectErrorMatches(e -> e instanceof AccountException
+                        && ((AccountException) e).getErrorCode() == errorCode)
+                .verify();
+    }
+
+    private Long balanceOf(String accountNumber) {
+        return databaseClient.sql("select balance from account where account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .map((row, metadata) -> row.get("balance", Long.class))
+                .one()
+                .block();
+    }
+
+    private Long versionOf(String accountNumber) {
+        return databaseClient.sql("select version from account where account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .map((row, metadata) -> row.get("version", Long.class))
+                .one()
+                .block();
+    }
+}
@@ -1,11 +0,0 @@
-package com.example.account.aop;
-
-import java.lang.annotation.*;
-
-@Target(ElementType.METHOD)
-@Retention(RetentionPolicy.RUNTIME)
-@Documented
-@Inherited
-public @interface AccountLock {
-    long tryLockTime() default 5000L;
-}
@@ -0,0 +1,17 @@
+package com.example.account.aop;
+
+import java.util.List;
+
+/**
+ * 여러 계좌를 함께 lock 해야 하는 요청 (이체)
+ */
+public interface AccountLockIdsInterface {
+    List<String> getAccountNumbers();
+
+    /**
+     * shard 로 나뉘었으면 모든 shard lock 도 함께 잡아야 하는 계좌 (shard 잔액에서 출금하는 계좌)
+     */
+    default List<String> getShardLockAccountNumbers() {
+        return List.of();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * Idempotency-Key 헤더가 있으면 같은 키의 첫 응답을 저장해 두었다가 재요청에 그대로 돌려준다.
+ * 계좌 lock 보다 먼저 확인하므로 재요청은 lock 과 DB 를 거치지 않는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Idempotent {
+    /**
+     * 같은 키라도 API 가 다르면 다른 요청으로 본다.
+     */
+    String value();
+}
@@ -0,0 +1,14 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * account.lock.type=optimistic 일 때 version 충돌로 실패한 트랜잭션을 처음부터 다시 수행한다.
+ * 트랜잭션 바깥에서 재시도해야 하므로 @Transactional 메소드에 함께 붙인다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface OptimisticRetry {
+}
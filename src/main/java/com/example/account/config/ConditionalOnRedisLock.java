@@ -0,0 +1,16 @@
+package com.example.account.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+
+import java.lang.annotation.*;
+
+/**
+ * account.lock.type 이 Redis 의 ACLK: lock 을 사용하는 방식(redis, two-tier)일 때만 등록한다.
+ * Redis lock 을 직접 다루는 기능이 다른 lock 방식과 섞여 상호 배제가 깨지지 않도록 하기 위함
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ConditionalOnExpression("'${account.lock.type:redis}' == 'redis' or '${account.lock.type:redis}' == 'two-tier'")
+public @interface ConditionalOnRedisLock {
+}
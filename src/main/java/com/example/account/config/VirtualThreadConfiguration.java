@@ -0,0 +1,64 @@
+package com.example.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 요청을 Tomcat 스레드 풀(server.tomcat.threads.max) 대신 요청마다 만든 가상 스레드에서 처리한다. (account.threads.virtual=true)
+ * 잔액 사용/취소는 대부분의 시간을 Redisson lock 과 JDBC 응답을 기다리며 보내는데,
+ * 가상 스레드는 기다리는 동안 carrier 스레드를 놓아주므로 동시에 처리 중인 요청 수가 스레드 풀 크기에 묶이지 않는다.
+ * LockAopAspect 의 lock 대기도 요청 스레드에서 일어나므로 함께 가상 스레드에서 기다린다.
+ *
+ * 컴파일 기준은 Java 11 이므로 Executors.newVirtualThreadPerTaskExecutor 는 reflection 으로 찾고,
+ * 실행 중인 JVM 이 Java 21 미만이면 기동에 실패한다.
+ * DB 를 동시에 쓰는 요청 수는 여전히 spring.datasource.hikari.maximum-pool-size 로 제한된다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration {
+    private final ExecutorService requestExecutor = newVirtualThreadPerTaskExecutor()
+            .orElseThrow(() -> new IllegalStateException(
+                    "account.threads.virtual=true requires Java 21 or later, running on " + Runtime.version()));
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            log.info("Handling requests on virtual threads");
+            protocolHandler.setExecutor(requestExecutor);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdown();
+    }
+
+    /**
+     * Java 21 이상이면 작업마다 가상 스레드를 만드는 executor, 아니면 empty
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.account.controller;
 
-import com.example.account.domain.Account;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountInfo;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
@@ -10,7 +10,6 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,14 +18,7 @@ public class AccountController {
 
     @GetMapping("/account")
     public List<AccountInfo> getAccountsByUserId(@RequestParam("user_id") Long userId){
-        return accountService.getAccountsByUserId(userId)
-                .stream()
-                .map(accountDto -> AccountInfo.builder()
-                        .accountNumber(accountDto.getAccountNumber())
-                        .balance(accountDto.getBalance())
-                        .build()
-                )
-                .collect(Collectors.toList());
+        return accountService.getAccountInfosByUserId(userId);
     }
 
     @PostMapping("/account")
@@ -51,7 +43,7 @@ public class AccountController {
 
 
     @GetMapping("/account/{id}")
-    public Account getAccount(@PathVariable Long id){
+    public AccountDetail getAccount(@PathVariable Long id){
         return accountService.getAccount(id);
     }
 }
@@ -0,0 +1,33 @@
+package com.example.account.controller;
+
+import com.example.account.aop.AccountLock;
+import com.example.account.dto.ShardAccount;
+import com.example.account.service.AccountShardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+/**
+ * 잔액 사용이 몰리는 계좌의 잔액을 shard 로 나누는 API (account.shard.enabled=true)
+ * 계좌 lock 을 잡고 나누므로 진행 중인 잔액 사용과 겹치지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnExpression("${account.shard.enabled:false} and '${account.balance.store:db}' == 'db' and '${account.lock.type:redis}' != 'serial'")
+public class AccountShardController {
+    private final AccountShardService accountShardService;
+
+    @PostMapping("/account/shard")
+    @AccountLock
+    public ShardAccount.Response shardAccount(@Valid @RequestBody ShardAccount.Request request){
+        return accountShardService.shardAccount(
+                request.getUserId(),
+                request.getAccountNumber(),
+                request.getShardCount()
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.account.controller;
+
+import com.example.account.config.ConditionalOnRedisLock;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.service.AsyncTransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 잔액 사용/취소의 비동기 API
+ * 요청/응답 형식은 /transaction/use, /transaction/cancel 과 같고,
+ * lock 을 기다리는 동안 servlet 스레드를 반납한다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnRedisLock
+public class AsyncTransactionController {
+    private final AsyncTransactionService asyncTransactionService;
+
+    @PostMapping("/transaction/use/async")
+    public CompletableFuture<UseBalance.Response> useBalance(@Valid @RequestBody UseBalance.Request request){
+        return asyncTransactionService.useBalance(
+                request.getUserId(),
+                request.getAccountNumber(),
+                request.getAmount()
+        ).thenApply(UseBalance.Response::from);
+    }
+
+    @PostMapping("/transaction/cancel/async")
+    public CompletableFuture<CancelBalance.Response> cancelBalance(@Valid @RequestBody CancelBalance.Request request){
+        return asyncTransactionService.cancelBalance(
+                request.getTransactionId(),
+                request.getAccountNumber(),
+                request.getAmount()
+        ).thenApply(CancelBalance.Response::from);
+    }
+}
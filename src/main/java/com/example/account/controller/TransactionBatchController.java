@@ -0,0 +1,27 @@
+package com.example.account.controller;
+
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.service.TransactionBatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+/**
+ * 잔액 사용 일괄 API
+ * 건별 결과를 요청 순서대로 돌려주며, 일부가 실패해도 나머지는 처리된다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class TransactionBatchController {
+    private final TransactionBatchService transactionBatchService;
+
+    @PostMapping("/transaction/use/batch")
+    public UseBalanceBatch.Response useBalances(@Valid @RequestBody UseBalanceBatch.Request request){
+        return UseBalanceBatch.Response.builder()
+                .results(transactionBatchService.useBalances(request.getRequests()))
+                .build();
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.account.controller;
 
 import com.example.account.aop.AccountLock;
+import com.example.account.aop.Idempotent;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.QueryTransactionResponse;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
-import com.example.account.service.TransactionService;
+import com.example.account.service.BalanceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,8 @@ import javax.validation.Valid;
  * 1. 잔액 사용
  * 2. 잔액 사용 취소
  * 3. 거래 확인
+ *
+ * 잔액 사용과 취소는 Idempotency-Key 헤더가 있으면 같은 키의 재요청에 처음 응답을 돌려준다.
  */
 
 @RestController
@@ -24,10 +27,11 @@ import javax.validation.Valid;
 @RequiredArgsConstructor
 public class TransactionController {
 
-    private final TransactionService transactionService;
+    private final BalanceService transactionService;
 
     @PostMapping("/transaction/use")
-    @AccountLock
+    @Idempotent("use")
+    @AccountLock(shardable = true)
     public UseBalance.Response useBalance(@Valid @RequestBody UseBalance.Request request) throws InterruptedException{
         try {
             //Thread.sleep(5000L);
@@ -51,6 +55,7 @@ public class TransactionController {
     }
 
     @PostMapping("/transaction/cancel")
+    @Idempotent("cancel")
     @AccountLock
     public CancelBalance.Response cancelBalance(@Valid @RequestBody CancelBalance.Request request){
         try {
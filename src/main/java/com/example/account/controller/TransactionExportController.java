@@ -0,0 +1,55 @@
+package com.example.account.controller;
+
+import com.example.account.service.TransactionExportService;
+import com.example.account.type.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 계좌의 전체 거래 내역 내보내기
+ * GET /account/{accountNumber}/transactions/export?format=NDJSON|CSV
+ * Accept-Encoding 에 gzip 이 있으면 gzip 으로 압축해서 보낸다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class TransactionExportController {
+    private final TransactionExportService transactionExportService;
+
+    @GetMapping("/account/{accountNumber}/transactions/export")
+    public void exportTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        // 응답을 쓰기 시작하면 오류 응답으로 바꿀 수 없으므로 계좌부터 확인한다.
+        Long accountId = transactionExportService.getAccountId(accountNumber);
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("transactions-" + accountNumber + "." + format.getExtension())
+                .build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            transactionExportService.export(accountId, format, response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), 8192);
+        transactionExportService.export(accountId, format, gzip);
+        gzip.finish();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.account.controller;
+
+import com.example.account.dto.TransactionHistory;
+import com.example.account.service.TransactionHistoryService;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+/**
+ * 계좌별 거래 내역 조회
+ * GET /account/{accountNumber}/transactions?size=20&transaction_type=USE&result_type=S
+ *     &from=2022-06-01T00:00:00&to=2022-06-30T23:59:59&cursor={이전 응답의 nextCursor}
+ */
+@RestController
+@RequiredArgsConstructor
+public class TransactionHistoryController {
+    private final TransactionHistoryService transactionHistoryService;
+
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistory.Response getTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "transaction_type", required = false) TransactionType transactionType,
+            @RequestParam(value = "result_type", required = false) TransactionResultType resultType,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return transactionHistoryService.getTransactions(
+                accountNumber, cursor, size, transactionType, resultType, from, to);
+    }
+}
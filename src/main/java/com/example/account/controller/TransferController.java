@@ -0,0 +1,52 @@
+package com.example.account.controller;
+
+import com.example.account.aop.AccountLock;
+import com.example.account.dto.TransferBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+
+/**
+ * 계좌 간 이체 API
+ * 출금/입금 계좌의 lock 을 정해진 순서로 함께 잡은 뒤 하나의 트랜잭션에서 처리한다.
+ *
+ * 잔액이 Redis 에 있는 경우(balance.store=redis)와 계좌별 대기열이 하나의 계좌만 직렬화하는 serial 모드에서는 등록하지 않는다.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${account.balance.store:db}' == 'db' and '${account.lock.type:redis}' != 'serial'")
+public class TransferController {
+    private final TransactionService transactionService;
+
+    @PostMapping("/transaction/transfer")
+    @AccountLock
+    public TransferBalance.Response transfer(@Valid @RequestBody TransferBalance.Request request){
+        try {
+            return TransferBalance.Response.from(
+                    transactionService.transfer(
+                            request.getUserId(),
+                            request.getFromAccountNumber(),
+                            request.getToAccountNumber(),
+                            request.getAmount()
+                    )
+            );
+        } catch(AccountException e){
+            log.error("Failed to transfer balance");
+
+            transactionService.saveFailedTransferTransactions(
+                    request.getFromAccountNumber(),
+                    request.getAmount()
+            );
+
+            throw e;
+        }
+    }
+}
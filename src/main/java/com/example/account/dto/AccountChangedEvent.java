@@ -0,0 +1,28 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+/**
+ * 계좌가 생성/해지되었을 때 발행하는 이벤트
+ * 계좌 정보를 DB 밖에 복제해 두는 기능(Redis 잔액 저장소 등)이 commit 이후에 갱신하는 데 사용한다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountChangedEvent {
+    private final Long userId;
+    private final String accountNumber;
+    private final AccountStatus accountStatus;
+    private final Long balance;
+
+    public static AccountChangedEvent from(Account account) {
+        return AccountChangedEvent.builder()
+                .userId(account.getAccountUser().getId())
+                .accountNumber(account.getAccountNumber())
+                .accountStatus(account.getAccountStatus())
+                .balance(account.getBalance())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.account.dto;
+
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * GET /account/{id} 응답
+ * 엔티티 대신 필요한 컬럼만 한 번에 조회한다. (소유주는 id 만)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountDetail {
+    private Long id;
+    private Long userId;
+    private String accountNumber;
+    private AccountStatus accountStatus;
+    private Long balance;
+
+    private LocalDateTime registeredAt;
+    private LocalDateTime unRegisteredAt;
+}
@@ -0,0 +1,17 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+
+/**
+ * 계좌와 요청한 사용자의 존재 여부를 한 번에 조회한 결과
+ * 계좌가 없으면 결과가 없고, 사용자가 없으면 userCount 가 0 이다.
+ */
+public interface AccountOwnership {
+    Account getAccount();
+
+    Long getUserCount();
+
+    default boolean isUserExists() {
+        return getUserCount() > 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.account.dto;
+
+import com.example.account.aop.AccountLockIdInterface;
+import lombok.*;
+
+import javax.validation.constraints.*;
+
+public class ShardAccount {
+
+    /**
+     * {
+     * "userId":1,
+     * "accountNumber":"1000000000",
+     * "shardCount":8
+     * }
+     */
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request implements AccountLockIdInterface {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+
+        @NotNull
+        @Min(2)
+        @Max(64)
+        private Integer shardCount;
+    }
+
+    /**
+     * {
+     * "userId":1,
+     * "accountNumber":"1000000000",
+     * "shardCount":8,
+     * "balance":100000
+     * }
+     */
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private Long userId;
+        private String accountNumber;
+        private Integer shardCount;
+        private Long balance;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TransactionHistory {
+
+    /**
+     * {
+     * "transactions":[{
+     *   "transactionId":"0BZ4W3RS00A01",
+     *   "transactionType":"USE",
+     *   "transactionResultType":"S",
+     *   "amount":1000,
+     *   "balanceSnapshot":9000,
+     *   "transactedAt":"2022-06-01T23:26:14.671859"
+     * }],
+     * "nextCursor":"MjAyMi0wNi0wMVQyMzoyNjoxNC42NzE4NTl8MTAx"
+     * }
+     * nextCursor 가 null 이면 마지막 페이지
+     */
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private List<Item> transactions;
+        private String nextCursor;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private String transactionId;
+        private TransactionType transactionType;
+        private TransactionResultType transactionResultType;
+        private Long amount;
+        private Long balanceSnapshot;
+        private LocalDateTime transactedAt;
+
+        public static Item from(TransactionSummary summary) {
+            return Item.builder()
+                    .transactionId(summary.getTransactionId())
+                    .transactionType(summary.getTransactionType())
+                    .transactionResultType(summary.getTransactionResultType())
+                    .amount(summary.getAmount())
+                    .balanceSnapshot(summary.getBalanceSnapshot())
+                    .transactedAt(summary.getTransactedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 거래 내역 조회용 projection
+ * Transaction 엔티티를 읽지 않고 필요한 컬럼만 조회한다.
+ */
+public interface TransactionSummary {
+    Long getId();
+
+    String getTransactionId();
+
+    TransactionType getTransactionType();
+
+    TransactionResultType getTransactionResultType();
+
+    Long getAmount();
+
+    Long getBalanceSnapshot();
+
+    LocalDateTime getTransactedAt();
+}
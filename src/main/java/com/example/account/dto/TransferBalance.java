@@ -0,0 +1,98 @@
+package com.example.account.dto;
+
+import com.example.account.aop.AccountLockIdsInterface;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TransferBalance {
+
+    /**
+     * {
+     * "userId":1,
+     * "fromAccountNumber":"1000000000",
+     * "toAccountNumber":"1000000001",
+     * "amount":1000
+     * }
+     */
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request implements AccountLockIdsInterface {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String fromAccountNumber;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String toAccountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000_000_000)
+        private Long amount;
+
+        @Override
+        @JsonIgnore
+        public List<String> getAccountNumbers() {
+            return List.of(fromAccountNumber, toAccountNumber);
+        }
+
+        @Override
+        @JsonIgnore
+        public List<String> getShardLockAccountNumbers() {
+            return List.of(fromAccountNumber);
+        }
+    }
+
+    /**
+     * {
+     * "fromAccountNumber":"1000000000",
+     * "toAccountNumber":"1000000001",
+     * "transactionResultType":"S",
+     * "withdrawalTransactionId":"0BZ4W3RS00A01",
+     * "depositTransactionId":"0BZ4W3RS00A02",
+     * "amount":1000,
+     * "transactedAt":"2022-06-01T23:26:14.671859"
+     * }
+     */
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String fromAccountNumber;
+        private String toAccountNumber;
+        private TransactionResultType transactionResultType;
+        private String withdrawalTransactionId;
+        private String depositTransactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+
+        public static Response from(TransferDto transferDto) {
+            TransactionDto withdrawal = transferDto.getWithdrawal();
+            TransactionDto deposit = transferDto.getDeposit();
+            return Response.builder()
+                    .fromAccountNumber(withdrawal.getAccountNumber())
+                    .toAccountNumber(deposit.getAccountNumber())
+                    .transactionResultType(withdrawal.getTransactionResultType())
+                    .withdrawalTransactionId(withdrawal.getTransactionId())
+                    .depositTransactionId(deposit.getTransactionId())
+                    .amount(withdrawal.getAmount())
+                    .transactedAt(withdrawal.getTransactedAt())
+                    .build();
+        }
+    }
+}
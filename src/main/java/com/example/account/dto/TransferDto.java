@@ -0,0 +1,16 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+/**
+ * 이체로 저장된 출금/입금 거래 한 쌍
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferDto {
+    private TransactionDto withdrawal;
+    private TransactionDto deposit;
+}
@@ -0,0 +1,105 @@
+package com.example.account.dto;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class UseBalanceBatch {
+
+    /**
+     * {
+     * "requests":[
+     *   {"userId":1, "accountNumber":"1000000000", "amount":1000},
+     *   {"userId":1, "accountNumber":"1000000000", "amount":2000}
+     * ]
+     * }
+     */
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request {
+        @Valid
+        @NotEmpty
+        @Size(max = 10_000)
+        private List<UseBalance.Request> requests;
+    }
+
+    /**
+     * {
+     * "results":[
+     *   {"accountNumber":"1000000000", "transactionResultType":"S", "transactionId":"0BZ4W3RS00A01",
+     *    "amount":1000, "transactedAt":"2022-06-01T23:26:14.671859", "errorCode":null, "errorMessage":null},
+     *   {"accountNumber":"1000000000", "transactionResultType":"F", "transactionId":null,
+     *    "amount":2000, "transactedAt":null, "errorCode":"AMOUNT_EXCEED_BALANCE", "errorMessage":"거래 금액이 잔금보다 큽니다."}
+     * ]
+     * }
+     * results 는 요청과 같은 순서
+     */
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private List<Item> results;
+    }
+
+    /**
+     * 건별 결과, 성공이면 /transaction/use 의 응답과 같고 실패면 errorCode 가 있다.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private String accountNumber;
+        private TransactionResultType transactionResultType;
+        private String transactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+
+        private ErrorCode errorCode;
+        private String errorMessage;
+
+        public static Item from(TransactionDto transactionDto) {
+            return Item.builder()
+                    .accountNumber(transactionDto.getAccountNumber())
+                    .transactionResultType(transactionDto.getTransactionResultType())
+                    .transactionId(transactionDto.getTransactionId())
+                    .amount(transactionDto.getAmount())
+                    .transactedAt(transactionDto.getTransactedAt())
+                    .build();
+        }
+
+        public static Item failure(String accountNumber, Long amount, ErrorCode errorCode) {
+            return Item.builder()
+                    .accountNumber(accountNumber)
+                    .transactionResultType(TransactionResultType.F)
+                    .amount(amount)
+                    .errorCode(errorCode)
+                    .errorMessage(errorCode.getDescription())
+                    .build();
+        }
+    }
+
+    /**
+     * 한 계좌에 대한 요청 묶음, 계좌 lock 을 한 번만 잡고 처리한다.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class AccountRequests implements AccountLockIdInterface {
+        private final String accountNumber;
+        private final List<UseBalance.Request> requests;
+    }
+}
@@ -2,19 +2,100 @@ package com.example.account.repository;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountOwnership;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findFirstByOrderByIdDesc();
+    String OWNERSHIP_QUERY = "select a as account,"
+            + " (select count(u) from AccountUser u where u.id = :userId) as userCount"
+            + " from Account a where a.accountNumber = :accountNumber";
+
+    /**
+     * shard 로 나뉜 계좌는 shard 잔액을 더한 전체 잔액 (AccountShard s 를 left join 하고 계좌 단위로 group by)
+     * 나뉘지 않은 계좌는 shard row 가 없으므로 join 해도 한 건이다.
+     */
+    String TOTAL_BALANCE = "a.balance + coalesce(sum(s.balance), 0)";
+
+    /**
+     * 문자열 정렬로는 자릿수가 늘어날 때 순서가 틀리므로 숫자로 바꿔서 비교한다.
+     */
+    @Query("select max(cast(a.accountNumber as long)) from Account a")
+    Optional<Long> findMaxAccountNumber();
 
     Integer countByAccountUser(AccountUser accountUser);
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
-    List<Account> findByAccountUser(AccountUser accountUser);
+    @Query("select a.id from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * 사용자와 계좌를 outer join 으로 한 번에 조회한다.
+     * 사용자가 없으면 빈 목록, 계좌가 없으면 accountNumber 가 null 인 한 건이 나온다.
+     */
+    @Query("select new com.example.account.dto.AccountDto(u.id, a.accountNumber, " + TOTAL_BALANCE + ","
+            + " a.registeredAt, a.unRegisteredAt)"
+            + " from AccountUser u left join Account a on a.accountUser = u"
+            + " left join AccountShard s on s.account = a"
+            + " where u.id = :userId"
+            + " group by u.id, a.id, a.accountNumber, a.balance, a.registeredAt, a.unRegisteredAt"
+            + " order by a.id")
+    List<AccountDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.example.account.dto.AccountDetail(a.id, a.accountUser.id, a.accountNumber,"
+            + " a.accountStatus, " + TOTAL_BALANCE + ", a.registeredAt, a.unRegisteredAt)"
+            + " from Account a left join AccountShard s on s.account = a"
+            + " where a.id = :id"
+            + " group by a.id, a.accountUser.id, a.accountNumber, a.accountStatus, a.balance,"
+            + " a.registeredAt, a.unRegisteredAt")
+    Optional<AccountDetail> findDetailById(@Param("id") Long id);
+
+    /**
+     * 잔액 사용 시 계좌와 사용자 존재 여부를 한 번에 조회한다. (소유주 비교는 account.accountUser 의 id 로 한다)
+     */
+    @Query(OWNERSHIP_QUERY)
+    Optional<AccountOwnership> findOwnershipByAccountNumber(@Param("accountNumber") String accountNumber,
+                                                            @Param("userId") Long userId);
+
+    /**
+     * findOwnershipByAccountNumber 와 같고 select ... for update 로 계좌 row 에 쓰기 lock 을 건다. (account.lock.type=pessimistic)
+     * lock 을 3초 안에 얻지 못하면 PessimisticLockingFailureException 이 발생한다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    @Query(OWNERSHIP_QUERY)
+    Optional<AccountOwnership> findLockedOwnershipByAccountNumber(@Param("accountNumber") String accountNumber,
+                                                                  @Param("userId") Long userId);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Query("select coalesce(a.shardCount, 0) from Account a where a.accountNumber = :accountNumber")
+    Optional<Integer> findShardCountByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("select a.accountNumber from Account a where a.shardCount > 0"
+            + " and a.accountStatus = com.example.account.type.AccountStatus.IN_USE")
+    List<String> findShardedAccountNumbers();
+
+    /**
+     * 이체할 계좌들을 한 번에 조회하며 계좌 번호 순으로 row lock 을 건다. (account.lock.type=pessimistic)
+     * 모든 이체가 같은 순서로 잠그므로 서로 반대 방향의 이체끼리 교착 상태가 되지 않는다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    @Query("select a from Account a where a.accountNumber in :accountNumbers order by a.accountNumber")
+    List<Account> findLockedByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
 }
@@ -0,0 +1,35 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountShardRepository extends JpaRepository<AccountShard, Long> {
+    List<AccountShard> findByAccountOrderByShardIndex(Account account);
+
+    List<AccountShard> findByAccountAndShardIndexInOrderByShardIndex(Account account, Collection<Integer> shardIndexes);
+
+    /**
+     * 사용할 shard 를 shard 번호 순으로 조회하며 row lock 을 건다. (account.lock.type=pessimistic)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    @Query("select s from AccountShard s where s.account = :account and s.shardIndex in :shardIndexes"
+            + " order by s.shardIndex")
+    List<AccountShard> findLockedByAccountAndShardIndexIn(@Param("account") Account account,
+                                                          @Param("shardIndexes") Collection<Integer> shardIndexes);
+
+    @Query("select coalesce(sum(s.balance), 0) from AccountShard s where s.account = :account")
+    Long sumBalanceByAccount(@Param("account") Account account);
+}
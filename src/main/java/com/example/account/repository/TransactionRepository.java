@@ -3,13 +3,101 @@ package com.example.account.repository;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionSummary;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    /**
+     * 주어진 거래 번호 중 이미 저장된 번호만 조회한다. (실패 거래 journal 재반영 시 중복 제외)
+     */
+    @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+    List<String> findTransactionIdsIn(@Param("transactionIds") Collection<String> transactionIds);
+
+    /**
+     * 취소할 거래를 계좌와 함께 한 번에 조회한다.
+     */
+    @EntityGraph(attributePaths = "account")
+    Optional<Transaction> findWithAccountByTransactionId(String transactionId);
+
+    /**
+     * findWithAccountByTransactionId 와 같고 거래와 계좌 row 에 쓰기 lock 을 건다. (account.lock.type=pessimistic)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    @EntityGraph(attributePaths = "account")
+    Optional<Transaction> findLockedWithAccountByTransactionId(String transactionId);
+
+    /**
+     * 거래 조회 응답용, 계좌는 번호만 join 해서 한 번에 읽는다.
+     */
+    @Query("select new com.example.account.dto.TransactionDto(a.accountNumber, t.transactionType,"
+            + " t.transactionResultType, t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt)"
+            + " from Transaction t join t.account a"
+            + " where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    /**
+     * 계좌의 거래 내역을 최신순으로 (transactedAt, id) 커서 이후부터 조회한다. (keyset pagination)
+     * (account_id, transacted_at desc, id desc) 인덱스 순서대로 읽고 정렬하지 않으므로 몇 번째 페이지든 조회 비용이 같다.
+     * 유형/결과 조건이 null 이면 전체를 조회한다.
+     */
+    @Query("select t.id as id, t.transactionId as transactionId, t.transactionType as transactionType,"
+            + " t.transactionResultType as transactionResultType, t.amount as amount,"
+            + " t.balanceSnapshot as balanceSnapshot, t.transactedAt as transactedAt"
+            + " from Transaction t"
+            + " where t.account.id = :accountId"
+            + " and t.transactedAt >= :from"
+            + " and t.transactedAt <= :cursorAt"
+            + " and (t.transactedAt < :cursorAt or t.id < :cursorId)"
+            + " and (:transactionType is null or t.transactionType = :transactionType)"
+            + " and (:resultType is null or t.transactionResultType = :resultType)"
+            + " order by t.account.id, t.transactedAt desc, t.id desc")
+    List<TransactionSummary> findHistory(@Param("accountId") Long accountId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("cursorAt") LocalDateTime cursorAt,
+                                         @Param("cursorId") Long cursorId,
+                                         @Param("transactionType") TransactionType transactionType,
+                                         @Param("resultType") TransactionResultType resultType,
+                                         Pageable pageable);
+
+    /**
+     * 계좌의 전체 거래 내역을 최신순으로 한 건씩 읽는다. (내보내기용)
+     * projection 이라 persistence context 에 엔티티가 쌓이지 않고, fetch size 만큼씩 DB 에서 가져온다.
+     * 반환된 Stream 은 트랜잭션 안에서 다 읽고 닫아야 한다.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t.id as id, t.transactionId as transactionId, t.transactionType as transactionType,"
+            + " t.transactionResultType as transactionResultType, t.amount as amount,"
+            + " t.balanceSnapshot as balanceSnapshot, t.transactedAt as transactedAt"
+            + " from Transaction t"
+            + " where t.account.id = :accountId"
+            + " order by t.account.id, t.transactedAt desc, t.id desc")
+    Stream<TransactionSummary> streamByAccountId(@Param("accountId") Long accountId);
 }
@@ -0,0 +1,47 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLock;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 한 계좌의 잔액 사용 묶음을 계좌 lock 안에서 처리한다.
+ * lock 은 @AccountLock 으로 잡으므로 account.lock.type 에 상관없이 단건 API 와 같은 방식으로 상호 배제된다.
+ * 묶음이 커서 처리 시간이 길 수 있으므로 고정 lease 대신 watchdog 으로 lock 을 유지한다.
+ *
+ * 실패 거래는 단건 API 와 같이 lock 을 잡은 채로 기록한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountBatchProcessor {
+    private final BalanceService balanceService;
+
+    @AccountLock(watchdog = true)
+    public List<UseBalanceBatch.Item> useBalances(UseBalanceBatch.AccountRequests accountRequests) {
+        String accountNumber = accountRequests.getAccountNumber();
+        List<UseBalanceBatch.Item> items;
+        try {
+            items = balanceService.useBalances(accountNumber, accountRequests.getRequests());
+        } catch (AccountException e) {
+            log.error("Failed to use balance batch");
+            for (UseBalance.Request request : accountRequests.getRequests()) {
+                balanceService.saveFailedUseTransactions(accountNumber, request.getAmount());
+            }
+            throw e;
+        }
+
+        for (UseBalanceBatch.Item item : items) {
+            if (item.getErrorCode() != null) {
+                balanceService.saveFailedUseTransactions(accountNumber, item.getAmount());
+            }
+        }
+        return items;
+    }
+}
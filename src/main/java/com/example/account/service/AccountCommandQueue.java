@@ -0,0 +1,116 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_COMMAND_QUEUE_FULL;
+
+/**
+ * 계좌별 단일 실행 대기열 (account.lock.type=serial)
+ * 같은 계좌의 명령은 들어온 순서대로 하나씩만 실행되므로 lock 이 필요 없고,
+ * 다른 계좌의 명령은 공용 스레드 풀에서 병렬로 실행된다.
+ * 대기열이 max-queue-depth 를 넘으면 ACCOUNT_COMMAND_QUEUE_FULL 로 바로 거절한다.
+ *
+ * 대기열의 추가/제거는 모두 queues.compute 안에서 일어나므로 계좌 단위로 원자적이다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "serial")
+public class AccountCommandQueue {
+    // 한 계좌가 스레드를 독점하지 않도록 이만큼 실행하면 스레드 풀에 다시 넣는다.
+    private static final int DRAIN_BATCH_SIZE = 32;
+
+    private final ExecutorService executor;
+    private final int maxQueueDepth;
+    private final ConcurrentHashMap<String, SerialQueue> queues = new ConcurrentHashMap<>();
+
+    public AccountCommandQueue(@Value("${account.lock.serial.pool-size:16}") int poolSize,
+                               @Value("${account.lock.serial.max-queue-depth:100}") int maxQueueDepth) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize,
+                runnable -> new Thread(runnable, "account-command-" + threadNumber.incrementAndGet()));
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    public <T> CompletableFuture<T> submit(String accountNumber, Callable<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(command.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+
+        boolean[] accepted = new boolean[1];
+        boolean[] start = new boolean[1];
+        queues.compute(accountNumber, (key, current) -> {
+            SerialQueue queue = current == null ? new SerialQueue() : current;
+            if (queue.tasks.size() >= maxQueueDepth) {
+                return queue;
+            }
+            queue.tasks.add(task);
+            accepted[0] = true;
+            if (!queue.running) {
+                queue.running = true;
+                start[0] = true;
+            }
+            return queue;
+        });
+
+        if (!accepted[0]) {
+            log.error("Command queue is full for accountNumber : {}", accountNumber);
+            future.completeExceptionally(new AccountException(ACCOUNT_COMMAND_QUEUE_FULL));
+        } else if (start[0]) {
+            executor.execute(() -> drain(accountNumber));
+        }
+        return future;
+    }
+
+    int getQueueDepth(String accountNumber) {
+        SerialQueue queue = queues.get(accountNumber);
+        return queue == null ? 0 : queue.tasks.size();
+    }
+
+    private void drain(String accountNumber) {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+            Runnable task = poll(accountNumber);
+            if (task == null) {
+                return;
+            }
+            task.run();
+        }
+        executor.execute(() -> drain(accountNumber));
+    }
+
+    private Runnable poll(String accountNumber) {
+        Runnable[] task = new Runnable[1];
+        queues.computeIfPresent(accountNumber, (key, queue) -> {
+            task[0] = queue.tasks.poll();
+            if (task[0] == null) {
+                queue.running = false;
+                return null;
+            }
+            return queue;
+        });
+        return task[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class SerialQueue {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+    }
+}
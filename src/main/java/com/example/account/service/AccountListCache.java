@@ -0,0 +1,212 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountChangedEvent;
+import com.example.account.dto.AccountInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 사용자별 계좌 목록(GET /account 응답)의 Redis 캐시
+ * ACCOUNT-LIST:{userId} 에 목록을 JSON 으로 ttl-seconds 동안 두고, 계좌 생성/해지나 잔액 변경이 commit 되면 지운다.
+ *
+ * DB 에서 읽는 동안 목록이 바뀌어 지워진 뒤에 오래된 목록을 다시 넣지 않도록
+ * ACCOUNT-LIST-VERSION:{userId} 를 지울 때마다 올리고, 읽기 시작할 때의 버전과 같을 때만 넣는다.
+ * 버전 키도 ttl-seconds 가 지나면 사라져서 사용자 수만큼 Redis 에 쌓이지 않는다.
+ * Redis 오류는 캐시가 없는 것처럼 DB 에서 읽는다.
+ *
+ * 지우기는 commit 뒤(DB 트랜잭션 밖)에서 EVALSHA 가 끝날 때까지 기다려서, 응답이 나간 뒤에 이전 잔액이 보이지 않게 한다.
+ * 실패하면 evict-attempts 번까지 다시 보내고, 그래도 실패하면 목록 키만이라도 DEL 로 지운다.
+ */
+@Slf4j
+@Component
+public class AccountListCache {
+    private static final String LIST_KEY_PREFIX = "ACCOUNT-LIST:";
+    private static final String VERSION_KEY_PREFIX = "ACCOUNT-LIST-VERSION:";
+    private static final String NO_VERSION = "0";
+    private static final TypeReference<List<AccountInfo>> LIST_TYPE = new TypeReference<>() {
+    };
+
+    private static final String PUT_SCRIPT =
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1";
+
+    private static final String EVICT_SCRIPT =
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return 1";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int evictAttempts;
+    // EVICT_SCRIPT 의 SHA1, Redis 재시작 등으로 스크립트 캐시가 비면 다시 올린다.
+    private volatile String evictSha;
+
+    public AccountListCache(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            @Value("${account.list-cache.enabled:true}") boolean enabled,
+                            @Value("${account.list-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${account.list-cache.evict-attempts:2}") int evictAttempts) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.evictAttempts = Math.max(1, evictAttempts);
+    }
+
+    /**
+     * 캐시에 있으면 반환하고, 없으면 loader 로 읽어서 넣는다.
+     */
+    public List<AccountInfo> get(Long userId, Supplier<List<AccountInfo>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String version = NO_VERSION;
+        try {
+            Map<String, String> cached = redissonClient.getBuckets(StringCodec.INSTANCE)
+                    .get(listKey(userId), versionKey(userId));
+            String list = cached.get(listKey(userId));
+            if (list != null) {
+                return objectMapper.readValue(list, LIST_TYPE);
+            }
+            version = cached.getOrDefault(versionKey(userId), NO_VERSION);
+        } catch (RedisException | JsonProcessingException e) {
+            log.error("Failed to read account list cache, userId : {}", userId, e);
+            return loader.get();
+        }
+
+        List<AccountInfo> accountInfos = loader.get();
+        put(userId, version, accountInfos);
+        return accountInfos;
+    }
+
+    /**
+     * 현재 트랜잭션이 commit 된 뒤에 지운다.
+     */
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    /**
+     * 계좌 생성/해지가 commit 되면 지운다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.getUserId());
+    }
+
+    /**
+     * 끝날 때까지 기다린다. 모두 실패해서 DEL 로 지운 경우에는 버전이 오르지 않으므로,
+     * 그 전에 DB 를 읽기 시작한 요청이 이전 목록을 다시 넣을 수 있다.
+     */
+    public void evict(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        for (int attempt = 1; attempt <= evictAttempts; attempt++) {
+            try {
+                evalEvict(userId);
+                return;
+            } catch (RedisException e) {
+                log.warn("Failed to evict account list cache, userId : {}, attempt : {}", userId, attempt, e);
+            }
+        }
+        try {
+            redissonClient.getBucket(listKey(userId), StringCodec.INSTANCE).delete();
+        } catch (RedisException e) {
+            log.error("Failed to delete account list cache, userId : {}", userId, e);
+        }
+    }
+
+    private void evalEvict(Long userId) {
+        String sha = evictSha;
+        if (sha == null) {
+            sha = loadEvictScript();
+        }
+        try {
+            evalEvict(sha, userId);
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            evalEvict(loadEvictScript(), userId);
+        }
+    }
+
+    private void evalEvict(String sha, Long userId) {
+        script().<Long>evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER,
+                evictKeys(userId), evictArgs(ttlMillis));
+    }
+
+    private String loadEvictScript() {
+        String sha = script().scriptLoad(EVICT_SCRIPT);
+        evictSha = sha;
+        return sha;
+    }
+
+    private void put(Long userId, String version, List<AccountInfo> accountInfos) {
+        try {
+            script().eval(RScript.Mode.READ_WRITE, PUT_SCRIPT, RScript.ReturnType.INTEGER,
+                    List.of(listKey(userId), versionKey(userId)),
+                    version, objectMapper.writeValueAsString(accountInfos), String.valueOf(ttlMillis));
+        } catch (RedisException | JsonProcessingException e) {
+            log.error("Failed to write account list cache, userId : {}", userId, e);
+        }
+    }
+
+    private RScript script() {
+        return redissonClient.getScript(StringCodec.INSTANCE);
+    }
+
+    /**
+     * EVICT_SCRIPT 의 KEYS
+     */
+    private static List<Object> evictKeys(Long userId) {
+        return List.of(listKey(userId), versionKey(userId));
+    }
+
+    /**
+     * EVICT_SCRIPT 의 ARGV (버전 키의 만료 시간)
+     */
+    private static Object[] evictArgs(long ttlMillis) {
+        return new Object[]{String.valueOf(ttlMillis)};
+    }
+
+    // {userId} 는 Redis Cluster 에서 두 키가 같은 slot 에 있도록 하는 hash tag
+    private static String listKey(Long userId) {
+        return LIST_KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private static String versionKey(Long userId) {
+        return VERSION_KEY_PREFIX + "{" + userId + "}";
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 계좌 번호 발급기 (hi/lo)
+ * Redis 의 INCRBY 로 block-size 개의 번호 구간을 예약해 두고, 구간 안에서는 메모리에서 바로 발급한다.
+ * 예약은 Redis 에서 원자적으로 이루어지므로 여러 노드가 동시에 발급해도 번호가 겹치지 않는다.
+ * (구간을 다 쓰기 전에 종료된 노드의 남은 번호는 버려진다)
+ *
+ * Redis 에 카운터가 없으면 DB 의 가장 큰 계좌 번호로 시작한다.
+ * 계좌가 이미 있는데 카운터가 없어진 경우(Redis 유실)는 다른 노드가 아직 쓰고 있는 구간과
+ * 겹치지 않도록 reseed-gap 만큼 건너뛰고 시작한다.
+ */
+@Slf4j
+@Component
+public class AccountNumberAllocator {
+    private static final String COUNTER_KEY = "ACCOUNT-NUMBER";
+    private static final long FIRST_ACCOUNT_NUMBER = 1000000000L;
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+    private final int blockSize;
+    private final long reseedGap;
+
+    // 구간 예약 중에는 Redis 를 기다리므로 monitor 가 아닌 lock 으로 감싼다.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 현재 구간에서 다음에 발급할 번호와 구간의 마지막 번호
+    private long next = 1;
+    private long last = 0;
+
+    public AccountNumberAllocator(RedissonClient redissonClient,
+                                  AccountRepository accountRepository,
+                                  @Value("${account.number.block-size:100}") int blockSize,
+                                  @Value("${account.number.reseed-gap:10000}") long reseedGap) {
+        this.redissonClient = redissonClient;
+        this.accountRepository = accountRepository;
+        this.blockSize = blockSize;
+        this.reseedGap = reseedGap;
+    }
+
+    public String next() {
+        lock.lock();
+        try {
+            if (next > last) {
+                reserveBlock();
+            }
+            return String.valueOf(next++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserveBlock() {
+        RAtomicLong counter = redissonClient.getAtomicLong(COUNTER_KEY);
+        if (!counter.isExists()) {
+            long seed = accountRepository.findMaxAccountNumber()
+                    .map(max -> max + reseedGap)
+                    .orElse(FIRST_ACCOUNT_NUMBER - 1);
+            if (counter.compareAndSet(0, seed)) {
+                log.info("Seeded account number counter : {}", seed);
+            }
+        }
+
+        last = counter.addAndGet(blockSize);
+        next = last - blockSize + 1;
+    }
+}
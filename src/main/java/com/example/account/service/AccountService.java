@@ -2,13 +2,18 @@ package com.example.account.service;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountChangedEvent;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountInfo;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +30,10 @@ import static com.example.account.type.ErrorCode.*;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountListCache accountListCache;
+    private final AccountShardRepository accountShardRepository;
 
     /**
      * 사용자가 존재하는지 조회
@@ -42,21 +51,19 @@ public class AccountService {
         // validation
         validateCreateAccount(accountUser);
 
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+        String newAccountNumber = accountNumberAllocator.next();
 
-
-        return AccountDto.fromEntity(
-                accountRepository.save(Account.builder()
-                        .accountUser(accountUser)
-                        .accountStatus(IN_USE)
-                        .accountNumber(newAccountNumber)
-                        .balance(initialBalance)
-                        .registeredAt(LocalDateTime.now())
-                        .build()
-                )
+        Account account = accountRepository.save(Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(IN_USE)
+                .accountNumber(newAccountNumber)
+                .balance(initialBalance)
+                .registeredAt(LocalDateTime.now())
+                .build()
         );
+        eventPublisher.publishEvent(AccountChangedEvent.from(account));
+
+        return AccountDto.fromEntity(account);
 
     }
 
@@ -66,13 +73,14 @@ public class AccountService {
         }
     }
 
-    @Transactional
-    public Account getAccount(Long id){
+    @Transactional(readOnly = true)
+    public AccountDetail getAccount(Long id){
         if (id < 0){
             throw new RuntimeException("Minus");
         }
 
-        return accountRepository.findById(id).get();
+        return accountRepository.findDetailById(id)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
     }
 
     @Transactional
@@ -82,11 +90,15 @@ public class AccountService {
                 .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
 
         validateDeleteAccount(accountUser, account);
+        if (account.isSharded() && accountShardRepository.sumBalanceByAccount(account) > 0) {
+            throw new AccountException(BALANCE_NOT_EMPTY);
+        }
 
         account.setAccountStatus(UNREGISTERED);
         account.setUnRegisteredAt(LocalDateTime.now());
 
         accountRepository.save(account);
+        eventPublisher.publishEvent(AccountChangedEvent.from(account));
 
         return AccountDto.fromEntity(account);
     }
@@ -105,17 +117,34 @@ public class AccountService {
         }
     }
 
-    @Transactional
+    /**
+     * 사용자 확인과 계좌 목록 조회를 한 번의 조회로 한다.
+     */
+    @Transactional(readOnly = true)
     public List<AccountDto> getAccountsByUserId(Long userId) {
-        AccountUser accountUser = getAccountUser(userId);
-
-        List<Account> accounts = accountRepository.findByAccountUser(accountUser);
+        List<AccountDto> accounts = accountRepository.findDtosByUserId(userId);
+        if (accounts.isEmpty()){
+            throw new AccountException(USER_NOT_FOUND);
+        }
 
         return accounts.stream()
-                .map(AccountDto::fromEntity)
+                .filter(accountDto -> accountDto.getAccountNumber() != null)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * GET /account 응답용 사용자별 계좌 목록
+     * AccountListCache 에 있으면 DB 를 조회하지 않는다. (트랜잭션도 시작하지 않는다)
+     */
+    public List<AccountInfo> getAccountInfosByUserId(Long userId) {
+        return accountListCache.get(userId, () -> getAccountsByUserId(userId).stream()
+                .map(accountDto -> AccountInfo.builder()
+                        .accountNumber(accountDto.getAccountNumber())
+                        .balance(accountDto.getBalance())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
     private AccountUser getAccountUser(Long userId) {
         return accountUserRepository.findById(userId)
                 .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
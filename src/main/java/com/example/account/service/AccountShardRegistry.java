@@ -0,0 +1,50 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 계좌별 shard 수의 노드 내부 캐시 (0 이면 나뉘지 않은 계좌)
+ * 잔액 사용마다 확인하므로 expire-after-write-seconds 동안 보관한다.
+ * 다른 노드에서 나눈 계좌는 그 시간 동안 계좌 lock 으로 처리되지만, 그 경로는 나뉘고 남은 Account.balance 만 쓰므로 잔액이 틀어지지 않는다.
+ * account.shard.enabled=false 면 DB 를 조회하지 않고 항상 0 이다.
+ */
+@Component
+public class AccountShardRegistry {
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final Cache<String, Integer> shardCounts;
+
+    public AccountShardRegistry(AccountRepository accountRepository,
+                                @Value("${account.shard.enabled:false}") boolean enabled,
+                                @Value("${account.shard.cache.maximum-size:100000}") long maximumSize,
+                                @Value("${account.shard.cache.expire-after-write-seconds:10}") long expireAfterWriteSeconds) {
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.shardCounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    public int getShardCount(String accountNumber) {
+        if (!enabled) {
+            return 0;
+        }
+        return shardCounts.get(accountNumber,
+                key -> accountRepository.findShardCountByAccountNumber(key).orElse(0));
+    }
+
+    public boolean isSharded(String accountNumber) {
+        return getShardCount(accountNumber) > 0;
+    }
+
+    public void invalidate(String accountNumber) {
+        shardCounts.invalidate(accountNumber);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountShard;
+import com.example.account.dto.ShardAccount;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.ErrorCode.*;
+
+/**
+ * 계좌 잔액을 shard 로 나누고 shard 잔액을 고르게 맞춘다.
+ * 나뉜 계좌의 전체 잔액은 Account.balance 와 shard 잔액의 합이며,
+ * 잔액 사용은 shard 에서, 취소/입금은 Account.balance 에서 일어나고 rebalance 가 Account.balance 를 다시 shard 로 옮긴다.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountShardService {
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final AccountShardRegistry accountShardRegistry;
+    private final AccountListCache accountListCache;
+
+    @Value("${account.lock.type:redis}")
+    private String lockType;
+
+    /**
+     * 계좌 잔액을 shardCount 개의 shard 로 고르게 나눈다. 호출한 쪽이 계좌 lock 을 잡고 있어야 한다.
+     */
+    @Transactional
+    public ShardAccount.Response shardAccount(Long userId, String accountNumber, int shardCount) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        if (!Objects.equals(userId, account.getAccountUser().getId())) {
+            throw new AccountException(USER_ACCOUNT_UN_MATCH);
+        }
+        if (account.getAccountStatus() != IN_USE) {
+            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        if (account.isSharded()) {
+            throw new AccountException(ACCOUNT_ALREADY_SHARDED);
+        }
+
+        long balance = account.getBalance();
+        List<AccountShard> shards = IntStream.range(0, shardCount)
+                .mapToObj(shardIndex -> AccountShard.builder()
+                        .account(account)
+                        .shardIndex(shardIndex)
+                        .balance(0L)
+                        .build())
+                .collect(Collectors.toList());
+        distribute(account, shards);
+        account.setShardCount(shardCount);
+        accountShardRepository.saveAll(shards);
+
+        invalidateAfterCommit(accountNumber);
+        return ShardAccount.Response.builder()
+                .userId(userId)
+                .accountNumber(accountNumber)
+                .shardCount(shardCount)
+                .balance(balance)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getShardedAccountNumbers() {
+        return accountRepository.findShardedAccountNumbers();
+    }
+
+    /**
+     * shard 번호 순의 shard 잔액 (나뉘지 않았거나 없는 계좌는 빈 배열)
+     */
+    @Transactional(readOnly = true)
+    public long[] getShardBalances(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .filter(Account::isSharded)
+                .map(account -> accountShardRepository.findByAccountOrderByShardIndex(account).stream()
+                        .mapToLong(AccountShard::getBalance)
+                        .toArray())
+                .orElseGet(() -> new long[0]);
+    }
+
+    /**
+     * 나뉘고 남은 Account.balance 가 있거나, 공평한 몫의 절반보다 적은 shard 가 있으면 다시 나눈다.
+     */
+    @Transactional(readOnly = true)
+    public boolean needsRebalance(String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+        if (account == null || !account.isSharded()) {
+            return false;
+        }
+
+        List<AccountShard> shards = accountShardRepository.findByAccountOrderByShardIndex(account);
+        long total = account.getBalance() + shards.stream().mapToLong(AccountShard::getBalance).sum();
+        long half = total / shards.size() / 2;
+        return account.getBalance() > 0
+                || shards.stream().anyMatch(shard -> shard.getBalance() < half);
+    }
+
+    /**
+     * 전체 잔액을 shard 에 고르게 다시 나눈다. 호출한 쪽이 계좌 lock 과 모든 shard lock 을 잡고 있어야 한다.
+     * pessimistic 모드에서는 계좌 row 와 shard row 에 차례로 row lock 을 건다.
+     */
+    @Transactional
+    public void rebalance(String accountNumber) {
+        boolean pessimistic = "pessimistic".equals(lockType);
+        Account account = (pessimistic
+                ? accountRepository.findLockedByAccountNumberIn(List.of(accountNumber)).stream().findFirst()
+                : accountRepository.findByAccountNumber(accountNumber))
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        if (!account.isSharded()) {
+            return;
+        }
+
+        List<Integer> shardIndexes = IntStream.range(0, account.getShardCount()).boxed().collect(Collectors.toList());
+        distribute(account, pessimistic
+                ? accountShardRepository.findLockedByAccountAndShardIndexIn(account, shardIndexes)
+                : accountShardRepository.findByAccountOrderByShardIndex(account));
+        accountListCache.evictAfterCommit(account.getAccountUser().getId());
+    }
+
+    /**
+     * 나머지는 앞 shard 부터 1 씩 더한다.
+     */
+    private static void distribute(Account account, List<AccountShard> shards) {
+        long total = account.getBalance() + shards.stream().mapToLong(AccountShard::getBalance).sum();
+        long share = total / shards.size();
+        long rest = total % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setBalance(share + (i < rest ? 1 : 0));
+        }
+        account.setBalance(0L);
+    }
+
+    private void invalidateAfterCommit(String accountNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accountShardRegistry.invalidate(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountShardRegistry.invalidate(accountNumber);
+            }
+        });
+    }
+}
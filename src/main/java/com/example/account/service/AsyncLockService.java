@@ -0,0 +1,60 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConditionalOnRedisLock;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redisson 의 tryLockAsync / unlockAsync 로 스레드를 막지 않고 ACLK: lock 을 다룬다.
+ * lock 을 획득한 스레드와 해제하는 스레드가 다를 수 있으므로 요청마다 owner id 를 발급하고,
+ * 획득에 성공하면 그 owner id 로 future 를 완료한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnRedisLock
+public class AsyncLockService {
+    private final RedissonClient redissonClient;
+
+    public CompletableFuture<Long> lock(String accountNumber, LockPolicy policy) {
+        long ownerId = LockOwnerIds.next();
+        log.debug("Trying async lock for accountNumber : {}", accountNumber);
+
+        return redissonClient.getLock(getLockKey(accountNumber))
+                .tryLockAsync(policy.getWaitTime(), policy.getLeaseTime(), TimeUnit.MILLISECONDS, ownerId)
+                .toCompletableFuture()
+                .thenApply(isLock -> {
+                    if (!isLock) {
+                        log.error("================= Lock acquisition failed ===============");
+                        throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                    }
+                    return ownerId;
+                });
+    }
+
+    /**
+     * 해제 결과를 기다리지 않는다. 해제에 실패해도 lease 가 지나면 lock 은 풀린다.
+     */
+    public void unlock(String accountNumber, long ownerId) {
+        log.debug("Async unlock for accountNumber : {}", accountNumber);
+        redissonClient.getLock(getLockKey(accountNumber))
+                .unlockAsync(ownerId)
+                .onComplete((result, e) -> {
+                    if (e != null) {
+                        log.error("Redis unlock failed", e);
+                    }
+                });
+    }
+
+    private static String getLockKey(String accountNumber) {
+        return "ACLK:" + accountNumber;
+    }
+}
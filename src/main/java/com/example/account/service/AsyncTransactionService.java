@@ -0,0 +1,110 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConditionalOnRedisLock;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 잔액 사용/취소의 비동기 버전
+ * lock 을 기다리는 동안에는 어떤 스레드도 점유하지 않고, lock 을 얻으면 DB 작업은 전용 스레드 풀에서 수행한다.
+ * lock 해제는 응답을 기다리지 않고 비동기로 보낸다.
+ *
+ * lock 을 얻은 뒤 작업이 스레드 풀 대기열에서 기다리는 동안 lock 이 풀리지 않도록 watchdog 으로 갱신하고,
+ * 대기열이 가득 차면 lock 을 바로 해제하고 ACCOUNT_TRANSACTION_LOCK 으로 실패시킨다.
+ */
+@Slf4j
+@Service
+@ConditionalOnRedisLock
+public class AsyncTransactionService {
+    private static final LockPolicy LOCK_POLICY = LockPolicy.builder()
+            .waitTime(LockPolicy.DEFAULT.getWaitTime())
+            .leaseTime(LockPolicy.WATCHDOG_LEASE_TIME)
+            .build();
+
+    private final AsyncLockService asyncLockService;
+    private final BalanceService transactionService;
+    private final Executor transactionExecutor;
+
+    @Autowired
+    public AsyncTransactionService(AsyncLockService asyncLockService,
+                                   BalanceService transactionService,
+                                   @Value("${account.transaction.async.pool-size:10}") int poolSize,
+                                   @Value("${account.transaction.async.queue-capacity:100}") int queueCapacity) {
+        this(asyncLockService, transactionService, new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity)));
+    }
+
+    AsyncTransactionService(AsyncLockService asyncLockService,
+                            BalanceService transactionService,
+                            Executor transactionExecutor) {
+        this.asyncLockService = asyncLockService;
+        this.transactionService = transactionService;
+        this.transactionExecutor = transactionExecutor;
+    }
+
+    public CompletableFuture<TransactionDto> useBalance(Long userId, String accountNumber, Long amount) {
+        return withLock(accountNumber, () -> {
+            try {
+                return transactionService.useBalance(userId, accountNumber, amount);
+            } catch (AccountException e) {
+                log.error("Failed to use balance");
+                transactionService.saveFailedUseTransactions(accountNumber, amount);
+                throw e;
+            }
+        });
+    }
+
+    public CompletableFuture<TransactionDto> cancelBalance(String transactionId, String accountNumber, Long amount) {
+        return withLock(accountNumber, () -> {
+            try {
+                return transactionService.cancelBalance(transactionId, accountNumber, amount);
+            } catch (AccountException e) {
+                log.error("Failed to cancel balance");
+                transactionService.saveFailedCancelTransactions(accountNumber, amount);
+                throw e;
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> withLock(String accountNumber, Supplier<T> task) {
+        return asyncLockService.lock(accountNumber, LOCK_POLICY)
+                .thenCompose(ownerId -> {
+                    try {
+                        return CompletableFuture.supplyAsync(() -> {
+                            try {
+                                return task.get();
+                            } finally {
+                                asyncLockService.unlock(accountNumber, ownerId);
+                            }
+                        }, transactionExecutor);
+                    } catch (RejectedExecutionException e) {
+                        log.error("Async transaction queue is full : {}", accountNumber);
+                        asyncLockService.unlock(accountNumber, ownerId);
+                        throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (transactionExecutor instanceof ExecutorService) {
+            ((ExecutorService) transactionExecutor).shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 잔액 사용/취소/거래 확인
+ *  - TransactionService : DB 의 Account.balance 를 직접 갱신 (기본)
+ *  - RedisBalanceService : Redis 의 잔액을 Lua 스크립트로 갱신하고 거래 내역은 나중에 DB 에 반영
+ *    (account.balance.store=redis)
+ */
+public interface BalanceService {
+    TransactionDto useBalance(Long userId, String accountNumber, Long amount);
+
+    void saveFailedUseTransactions(String accountNumber, Long amount);
+
+    TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount);
+
+    void saveFailedCancelTransactions(String accountNumber, Long amount);
+
+    TransactionDto queryTransaction(String transactionId);
+
+    /**
+     * 같은 계좌의 잔액 사용 여러 건을 요청 순서대로 처리한다.
+     * 건별 실패는 결과에 담고 다음 건을 계속 처리한다. (실패 기록은 호출한 쪽에서 남긴다)
+     */
+    default List<UseBalanceBatch.Item> useBalances(String accountNumber, List<UseBalance.Request> requests) {
+        List<UseBalanceBatch.Item> items = new ArrayList<>(requests.size());
+        for (UseBalance.Request request : requests) {
+            try {
+                items.add(UseBalanceBatch.Item.from(
+                        useBalance(request.getUserId(), accountNumber, request.getAmount())));
+            } catch (AccountException e) {
+                items.add(UseBalanceBatch.Item.failure(accountNumber, request.getAmount(), e.getErrorCode()));
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 실패 거래 대기열의 로컬 파일 기록 (FailedTransactionRecorder 에서만 사용)
+ * 대기열에 넣는 거래를 현재 segment 파일에 한 줄씩 추가하고,
+ * flush 할 때 새 segment 로 바꾼 뒤 이전 segment 는 그 segment 의 거래가 모두 DB 에 반영되면 지운다.
+ * 프로세스가 죽으면 남아 있는 segment 를 다음 기동 때 다시 읽는다.
+ * (이미 반영된 거래가 다시 읽힐 수 있으므로 저장할 때 거래 번호로 중복을 거른다)
+ */
+@Slf4j
+class FailedTransactionJournal {
+    private static final String SEGMENT_PREFIX = "failed-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private Path segment;
+    private BufferedWriter writer;
+    private long segmentNumber;
+
+    FailedTransactionJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 이전 실행에서 남은 segment 목록. 새 segment 를 열기 전에 한 번만 호출한다.
+     */
+    List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            log.error("Failed to list failed transaction journal : {}", directory, e);
+        }
+        return segments;
+    }
+
+    List<FailedTransactionRecorder.FailedTransaction> read(Path segment) throws IOException {
+        List<FailedTransactionRecorder.FailedTransaction> records = new ArrayList<>();
+        for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                records.add(parse(line));
+            }
+        }
+        return records;
+    }
+
+    void append(FailedTransactionRecorder.FailedTransaction record) {
+        try {
+            if (writer == null) {
+                segment = directory.resolve(SEGMENT_PREFIX + System.currentTimeMillis()
+                        + "-" + (segmentNumber++) + SEGMENT_SUFFIX);
+                writer = Files.newBufferedWriter(segment, StandardCharsets.UTF_8);
+            }
+            writer.write(format(record));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Failed to append failed transaction journal", e);
+        }
+    }
+
+    /**
+     * 현재 segment 를 닫고 반환한다. 이후 append 는 새 segment 에 기록된다.
+     */
+    Path rotate() {
+        Path closed = segment;
+        close();
+        return closed;
+    }
+
+    void delete(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Failed to delete failed transaction journal : {}", path, e);
+        }
+    }
+
+    void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.error("Failed to close failed transaction journal", e);
+            }
+        }
+        writer = null;
+        segment = null;
+    }
+
+    private static String format(FailedTransactionRecorder.FailedTransaction record) {
+        return String.join("\t",
+                record.getTransactionType().name(),
+                record.getAccountNumber(),
+                String.valueOf(record.getAmount()),
+                String.valueOf(record.getTransactedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()),
+                record.getTransactionId());
+    }
+
+    private static FailedTransactionRecorder.FailedTransaction parse(String line) {
+        String[] fields = line.split("\t");
+        return new FailedTransactionRecorder.FailedTransaction(
+                fields[1],
+                TransactionType.valueOf(fields[0]),
+                Long.valueOf(fields[2]),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(fields[3])), ZoneId.systemDefault()),
+                fields[4]);
+    }
+}
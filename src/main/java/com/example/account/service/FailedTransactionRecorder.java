@@ -0,0 +1,316 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.TransactionResultType.F;
+
+/**
+ * 실패한 잔액 사용/취소 기록
+ * buffer.enabled 이면 실패 거래를 메모리 대기열에 넣고 바로 반환하며,
+ * 백그라운드 스레드가 flush-interval-millis 마다 batch-size 단위로 모아서 저장한다.
+ * 대기열이 가득 차면 기록을 버리고 account.transaction.failed.dropped 를 올린다.
+ * 저장 시점의 계좌 잔액을 balanceSnapshot 으로 남긴다.
+ *
+ * journal-dir 을 지정하면 대기열에 넣는 기록을 로컬 파일에도 남겨서 프로세스가 죽어도 다음 기동 때 저장한다.
+ * journal 은 같은 기록을 두 번 저장할 수 있으므로 이미 저장된 거래 번호는 건너뛴다.
+ * buffer.enabled 가 false 면 기존처럼 호출한 스레드에서 바로 저장한다.
+ */
+@Slf4j
+@Component
+public class FailedTransactionRecorder implements SmartInitializingSingleton {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final boolean bufferEnabled;
+    private final int batchSize;
+    private final FailedTransactionJournal journal;
+
+    private final BlockingDeque<FailedTransaction> queue;
+    // journal 파일 쓰기와 DB 저장을 감싸는 lock (가상 스레드가 monitor 안에서 I/O 로 막히면 carrier 스레드까지 묶인다)
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    // segment 별로 아직 저장하지 못한 기록 수, 0 이 되면 segment 를 지운다. (flushLock 안에서만 사용)
+    private final Map<Path, Integer> unwrittenBySegment = new HashMap<>();
+
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    @Autowired
+    public FailedTransactionRecorder(AccountRepository accountRepository,
+                                     TransactionRepository transactionRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     TransactionIdGenerator transactionIdGenerator,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${account.transaction.failed.buffer.enabled:true}") boolean bufferEnabled,
+                                     @Value("${account.transaction.failed.buffer.capacity:10000}") int capacity,
+                                     @Value("${account.transaction.failed.buffer.batch-size:200}") int batchSize,
+                                     @Value("${account.transaction.failed.buffer.flush-interval-millis:200}") long flushIntervalMillis,
+                                     @Value("${account.transaction.failed.buffer.journal-dir:}") String journalDir) {
+        this(accountRepository, transactionRepository, new TransactionTemplate(transactionManager),
+                transactionIdGenerator, meterRegistry, bufferEnabled, capacity, batchSize,
+                journalDir.isEmpty() ? null : new FailedTransactionJournal(Paths.get(journalDir)));
+        if (bufferEnabled) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly,
+                    flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    FailedTransactionRecorder(AccountRepository accountRepository,
+                              TransactionRepository transactionRepository,
+                              TransactionOperations transactionOperations,
+                              TransactionIdGenerator transactionIdGenerator,
+                              MeterRegistry meterRegistry,
+                              boolean bufferEnabled, int capacity, int batchSize,
+                              FailedTransactionJournal journal) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.bufferEnabled = bufferEnabled;
+        this.batchSize = batchSize;
+        this.journal = journal;
+        this.queue = new LinkedBlockingDeque<>(capacity);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "failed-transaction-writer"));
+
+        meterRegistry.gauge("account.transaction.failed.queue", queue, BlockingDeque::size);
+        this.droppedCounter = meterRegistry.counter("account.transaction.failed.dropped");
+        this.writtenCounter = meterRegistry.counter("account.transaction.failed.written");
+    }
+
+    /**
+     * 이전 실행에서 journal 에 남은 기록을 segment 단위로 바로 저장한다.
+     * 저장하지 못한 segment 는 지우지 않고 다음 기동 때 다시 시도한다.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (journal == null) {
+            return;
+        }
+        for (Path segment : journal.segments()) {
+            try {
+                List<FailedTransaction> records = journal.read(segment);
+                for (int from = 0; from < records.size(); from += batchSize) {
+                    List<FailedTransaction> batch = records.subList(from, Math.min(from + batchSize, records.size()));
+                    Integer saved = transactionOperations.execute(status -> write(batch, false));
+                    writtenCounter.increment(saved == null ? 0 : saved);
+                }
+                journal.delete(segment);
+                log.info("Recovered {} failed transactions from journal : {}", records.size(), segment);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to recover failed transaction journal, keep : {}", segment, e);
+            }
+        }
+    }
+
+    public void record(String accountNumber, Long amount, TransactionType transactionType) {
+        FailedTransaction record = new FailedTransaction(accountNumber, transactionType, amount,
+                LocalDateTime.now(), transactionIdGenerator.generate());
+        if (!bufferEnabled) {
+            transactionOperations.execute(status -> write(List.of(record), true));
+            writtenCounter.increment();
+            return;
+        }
+        enqueue(record);
+    }
+
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    private void enqueue(FailedTransaction record) {
+        journalLock.lock();
+        try {
+            if (!queue.offerLast(record)) {
+                droppedCounter.increment();
+                log.error("Failed transaction buffer is full, drop accountNumber : {}", record.getAccountNumber());
+                return;
+            }
+            if (journal != null) {
+                journal.append(record);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushBatches();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatches() {
+        List<FailedTransaction> records = new ArrayList<>();
+        journalLock.lock();
+        try {
+            queue.drainTo(records);
+            Path segment = journal == null ? null : journal.rotate();
+            if (segment != null) {
+                // 지난 flush 에서 되돌린 기록은 이미 이전 segment 에 속해 있다.
+                for (FailedTransaction record : records) {
+                    if (record.getSegment() == null) {
+                        record.setSegment(segment);
+                        unwrittenBySegment.merge(segment, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            journalLock.unlock();
+        }
+
+        int written = 0;
+        try {
+            while (written < records.size()) {
+                List<FailedTransaction> batch = records.subList(written, Math.min(written + batchSize, records.size()));
+                Integer saved = transactionOperations.execute(status -> write(batch, false));
+                written += batch.size();
+                writtenCounter.increment(saved == null ? 0 : saved);
+                batch.forEach(this::markWritten);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to write failed transactions, {} left", records.size() - written, e);
+            requeue(records.subList(written, records.size()));
+            throw e;
+        }
+    }
+
+    private void markWritten(FailedTransaction record) {
+        Path segment = record.getSegment();
+        if (segment != null && unwrittenBySegment.merge(segment, -1, Integer::sum) == 0) {
+            unwrittenBySegment.remove(segment);
+            journal.delete(segment);
+        }
+    }
+
+    /**
+     * 저장하지 못한 기록을 대기열 앞에 되돌린다.
+     * journal 의 segment 는 남겨 두므로, 대기열에 넣지 못한 기록도 다음 기동 때 저장된다.
+     */
+    private void requeue(List<FailedTransaction> records) {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            FailedTransaction record = records.get(i);
+            if (queue.offerFirst(record)) {
+                continue;
+            }
+            if (record.getSegment() == null) {
+                droppedCounter.increment();
+            } else {
+                log.warn("Failed transaction buffer is full, keep in journal : {}", record.getSegment());
+            }
+        }
+    }
+
+    private int write(List<FailedTransaction> records, boolean failOnUnknownAccount) {
+        Set<String> saved = failOnUnknownAccount ? Set.of() : new HashSet<>(transactionRepository.findTransactionIdsIn(
+                records.stream().map(FailedTransaction::getTransactionId).collect(Collectors.toList())));
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(
+                        records.stream().map(FailedTransaction::getAccountNumber).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(records.size());
+        for (FailedTransaction record : records) {
+            if (saved.contains(record.getTransactionId())) {
+                // journal 에서 다시 읽은 이미 저장된 기록
+                continue;
+            }
+            Account account = accounts.get(record.getAccountNumber());
+            if (account == null) {
+                if (failOnUnknownAccount) {
+                    throw new AccountException(ACCOUNT_NOT_FOUND);
+                }
+                // 계좌가 없어서 실패한 거래는 기록할 계좌가 없다.
+                continue;
+            }
+            transactions.add(Transaction.builder()
+                    .transactionType(record.getTransactionType())
+                    .transactionResultType(F)
+                    .account(account)
+                    .amount(record.getAmount())
+                    .balanceSnapshot(account.getBalance())
+                    .transactionId(record.getTransactionId())
+                    .transactedAt(record.getTransactedAt())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+        return transactions.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 다음 주기에 재시도
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Getter
+    static class FailedTransaction {
+        private final String accountNumber;
+        private final TransactionType transactionType;
+        private final Long amount;
+        private final LocalDateTime transactedAt;
+        private final String transactionId;
+        // 이 기록이 남아 있는 journal segment (flushLock 안에서만 변경)
+        @Setter
+        private Path segment;
+
+        FailedTransaction(String accountNumber, TransactionType transactionType, Long amount,
+                          LocalDateTime transactedAt, String transactionId) {
+            this.accountNumber = accountNumber;
+            this.transactionType = transactionType;
+            this.amount = amount;
+            this.transactedAt = transactedAt;
+            this.transactionId = transactionId;
+        }
+    }
+}
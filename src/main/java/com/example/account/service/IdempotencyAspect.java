@@ -0,0 +1,87 @@
+package com.example.account.service;
+
+import com.example.account.aop.Idempotent;
+import com.example.account.exception.AccountException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+
+/**
+ * @Idempotent 메소드의 Idempotency-Key 헤더를 확인해서 저장된 응답이 있으면 메소드를 실행하지 않고 반환한다.
+ * 없으면 키 단위로 기다린 뒤 (앞선 요청이 끝나면 그 응답을) 실행하고 성공한 응답을 저장한다.
+ *
+ * 재요청이 계좌 lock 을 잡지 않도록 LockAopAspect, SerialCommandAspect (LOWEST_PRECEDENCE) 보다 바깥에서 실행한다.
+ * 인자를 바인딩하므로 ExposeInvocationInterceptor 보다 앞설 수 없어서 HIGHEST_PRECEDENCE 는 쓰지 않는다.
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class IdempotencyAspect {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Around("@annotation(idempotent) && args(request)")
+    public Object aroundMethod(ProceedingJoinPoint pjp, Idempotent idempotent, Object request) throws Throwable {
+        String idempotencyKey = getIdempotencyKey();
+        if (idempotencyKey == null) {
+            return pjp.proceed();
+        }
+
+        String key = idempotent.value() + ":" + idempotencyKey;
+        Class<?> responseType = ((MethodSignature) pjp.getSignature()).getReturnType();
+
+        Optional<?> stored = idempotencyStore.find(key, request, responseType);
+        if (stored.isPresent()) {
+            log.debug("Replay idempotent response : {}", key);
+            return stored.get();
+        }
+
+        idempotencyStore.lock(key);
+        try {
+            // 기다리는 동안 앞선 요청이 끝났으면 그 응답을 돌려준다.
+            stored = idempotencyStore.find(key, request, responseType);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+
+            Object response = pjp.proceed();
+            idempotencyStore.save(key, request, response);
+            return response;
+        } finally {
+            idempotencyStore.unlock(key);
+        }
+    }
+
+    private static String getIdempotencyKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+
+        String idempotencyKey = ((ServletRequestAttributes) attributes).getRequest().getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.IDEMPOTENCY_KEY_REUSED;
+import static com.example.account.type.ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS;
+import static com.example.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
+
+/**
+ * Idempotency-Key 별 응답의 Redis 저장소
+ * IDEMPOTENCY:{key} 에 요청과 응답을 JSON 으로 ttl-seconds 동안 두고,
+ * 처리 중인 키는 IDEMPOTENCY-LOCK:{key} 를 잡고 있어서 같은 키의 요청은 첫 요청이 끝날 때까지 기다린다.
+ *
+ * 실패 응답은 저장하지 않으므로 재요청하면 다시 처리한다. (lock 대기 초과 같은 일시적인 실패도 재시도할 수 있다)
+ * 저장된 응답을 읽지 못하면 이미 처리된 요청을 다시 처리할 수 있으므로 INTERNAL_SERVER_ERROR 로 실패시킨다.
+ * 응답 저장에 실패하면 남기기만 한다. (재요청이 다시 처리될 수 있다)
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private static final String KEY_PREFIX = "IDEMPOTENCY:";
+    private static final String LOCK_KEY_PREFIX = "IDEMPOTENCY-LOCK:";
+    private static final TypeReference<Map<String, String>> ENTRY_TYPE = new TypeReference<>() {
+    };
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    public IdempotencyStore(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            @Value("${account.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${account.idempotency.wait-millis:5000}") long waitMillis) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * 저장된 응답이 있으면 반환한다. 같은 키로 다른 요청을 보냈으면 IDEMPOTENCY_KEY_REUSED 로 실패한다.
+     * Redis 오류나 저장된 값을 읽을 수 없으면 INTERNAL_SERVER_ERROR 로 실패한다.
+     */
+    public <T> Optional<T> find(String key, Object request, Class<T> responseType) {
+        try {
+            String stored = redissonClient.<String>getBucket(KEY_PREFIX + "{" + key + "}", StringCodec.INSTANCE).get();
+            if (stored == null) {
+                return Optional.empty();
+            }
+
+            Map<String, String> entry = objectMapper.readValue(stored, ENTRY_TYPE);
+            if (!Objects.equals(entry.get("request"), objectMapper.writeValueAsString(request))) {
+                throw new AccountException(IDEMPOTENCY_KEY_REUSED);
+            }
+            return Optional.of(objectMapper.readValue(entry.get("response"), responseType));
+        } catch (RedisException | JsonProcessingException e) {
+            log.error("Failed to read idempotent response : {}", key, e);
+            throw new AccountException(INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public void save(String key, Object request, Object response) {
+        try {
+            String entry = objectMapper.writeValueAsString(Map.of(
+                    "request", objectMapper.writeValueAsString(request),
+                    "response", objectMapper.writeValueAsString(response)));
+            redissonClient.getBucket(KEY_PREFIX + "{" + key + "}", StringCodec.INSTANCE)
+                    .set(entry, ttlMillis, TimeUnit.MILLISECONDS);
+        } catch (RedisException | JsonProcessingException e) {
+            log.warn("Failed to save idempotent response : {}", key, e);
+        }
+    }
+
+    /**
+     * 같은 키를 처리 중인 요청이 있으면 끝날 때까지 기다린다.
+     * 처리 시간과 상관없이 처리하는 동안 lock 을 유지하도록 watchdog 을 사용한다.
+     */
+    public void lock(String key) {
+        try {
+            if (!getLock(key).tryLock(waitMillis, -1L, TimeUnit.MILLISECONDS)) {
+                throw new AccountException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(IDEMPOTENT_REQUEST_IN_PROGRESS);
+        }
+    }
+
+    public void unlock(String key) {
+        getLock(key).unlock();
+    }
+
+    private RLock getLock(String key) {
+        return redissonClient.getLock(LOCK_KEY_PREFIX + "{" + key + "}");
+    }
+}
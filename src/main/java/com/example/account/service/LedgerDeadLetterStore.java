@@ -0,0 +1,43 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+/**
+ * LedgerWriteBehind 가 여러 번 시도해도 DB 에 반영하지 못한 거래를 보관한다.
+ * Redis 잔액에는 이미 반영된 거래이므로 버리지 않고 LEDGER-DLQ 리스트에 한 줄씩 남겨
+ * 원인을 해결한 뒤 수동으로 다시 반영할 수 있게 한다.
+ * (계좌번호, 거래번호, 거래 종류, 결과, 금액, 잔액, 잔액 변화량, 거래 시각(epoch ms) 을 tab 으로 구분)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.balance.store", havingValue = "redis")
+public class LedgerDeadLetterStore {
+    private static final String DEAD_LETTER_KEY = "LEDGER-DLQ";
+
+    private final RedissonClient redissonClient;
+
+    public void add(String accountNumber, Transaction transaction, long balanceDelta) {
+        log.error("Move ledger entry to dead letter, accountNumber : {}, transactionId : {}",
+                accountNumber, transaction.getTransactionId());
+        redissonClient.<String>getList(DEAD_LETTER_KEY, StringCodec.INSTANCE)
+                .add(String.join("\t",
+                        accountNumber,
+                        transaction.getTransactionId(),
+                        String.valueOf(transaction.getTransactionType()),
+                        String.valueOf(transaction.getTransactionResultType()),
+                        String.valueOf(transaction.getAmount()),
+                        String.valueOf(transaction.getBalanceSnapshot()),
+                        String.valueOf(balanceDelta),
+                        String.valueOf(transaction.getTransactedAt()
+                                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())));
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Redis 잔액 모드(account.balance.store=redis)에서 거래 내역과 Account.balance 를 DB 에 모아서 반영한다.
+ * 거래는 대기열에 쌓였다가 flush-interval-millis 마다, 혹은 batch-size 만큼 모이면
+ * 하나의 DB 트랜잭션으로 Transaction 을 저장하고 계좌별 잔액 변화량을 한 번에 반영한다.
+ *
+ * 대기열이 capacity 만큼 쌓이면 다음 주기를 기다리지 않고 백그라운드 스레드에 flush 를 요청한다.
+ * 출금은 이미 Redis 에 반영되었으므로 append 는 DB 상태와 관계없이 예외를 던지지 않는다.
+ *
+ * 묶음 반영에 실패하면 거래를 하나씩 다시 반영하여 실패한 거래만 대기열 앞에 되돌리고 다음 주기에 재시도한다.
+ * max-attempts 번 실패한 거래는 LedgerDeadLetterStore 로 옮겨 뒤의 거래가 막히지 않게 한다.
+ * 계좌를 찾지 못한 거래도 Redis 잔액은 이미 바뀌었으므로 버리지 않고 commit 후에 LedgerDeadLetterStore 로 옮긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.balance.store", havingValue = "redis")
+public class LedgerWriteBehind {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final AccountListCache accountListCache;
+    private final LedgerDeadLetterStore deadLetterStore;
+    private final int batchSize;
+    private final int capacity;
+    private final int maxAttempts;
+
+    private final BlockingDeque<LedgerEntry> queue = new LinkedBlockingDeque<>();
+    private final ConcurrentHashMap<String, LedgerEntry> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // flushIfPending 은 요청 스레드(가상 스레드일 수 있다)에서 실행되므로 synchronized 대신 ReentrantLock 을 쓴다.
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public LedgerWriteBehind(AccountRepository accountRepository,
+                             TransactionRepository transactionRepository,
+                             PlatformTransactionManager transactionManager,
+                             AccountListCache accountListCache,
+                             LedgerDeadLetterStore deadLetterStore,
+                             @Value("${account.balance.redis.batch-size:500}") int batchSize,
+                             @Value("${account.balance.redis.capacity:100000}") int capacity,
+                             @Value("${account.balance.redis.max-attempts:10}") int maxAttempts,
+                             @Value("${account.balance.redis.flush-interval-millis:100}") long flushIntervalMillis) {
+        this(accountRepository, transactionRepository, new TransactionTemplate(transactionManager),
+                accountListCache, deadLetterStore, batchSize, capacity, maxAttempts);
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    LedgerWriteBehind(AccountRepository accountRepository,
+                      TransactionRepository transactionRepository,
+                      TransactionOperations transactionOperations,
+                      AccountListCache accountListCache,
+                      LedgerDeadLetterStore deadLetterStore,
+                      int batchSize, int capacity, int maxAttempts) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.accountListCache = accountListCache;
+        this.deadLetterStore = deadLetterStore;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.maxAttempts = maxAttempts;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "ledger-write-behind"));
+    }
+
+    /**
+     * 거래를 대기열에 넣는다.
+     *
+     * @param transaction : account 를 비운 거래 (flush 할 때 계좌번호로 채운다)
+     * @param balanceDelta : 이 거래로 바뀐 잔액 (사용은 음수, 취소는 양수, 실패는 0)
+     */
+    public void append(String accountNumber, Transaction transaction, long balanceDelta) {
+        LedgerEntry entry = new LedgerEntry(accountNumber, transaction, balanceDelta);
+        pending.put(transaction.getTransactionId(), entry);
+        queue.addLast(entry);
+        if (queue.size() >= capacity && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // 종료 중이면 shutdown 의 마지막 flush 가 반영한다.
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * 해당 거래가 아직 DB 에 반영되지 않았다면 바로 반영한다. (취소/조회 전에 사용)
+     */
+    public void flushIfPending(String transactionId) {
+        if (pending.containsKey(transactionId)) {
+            flush();
+        }
+    }
+
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushBatches();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatches() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<LedgerEntry> retries = List.of();
+            try {
+                List<LedgerEntry> unknown = transactionOperations.execute(status -> write(batch));
+                retries = batch.stream()
+                        .filter(entry -> !complete(entry, unknown))
+                        .collect(Collectors.toList());
+            } catch (RuntimeException e) {
+                log.error("Failed to write ledger batch of {} entries", batch.size(), e);
+                RuntimeException failure = writeEach(batch);
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            batch.clear();
+            if (!retries.isEmpty()) {
+                requeue(retries);
+                throw new IllegalStateException(
+                        "Failed to move " + retries.size() + " ledger entries of unknown accounts to dead letter");
+            }
+        }
+    }
+
+    /**
+     * 묶음 반영에 실패한 거래를 하나씩 반영한다.
+     * 실패한 거래는 시도 횟수가 남아 있으면 대기열 앞에 되돌리고, 아니면 dead letter 로 옮긴다.
+     *
+     * @return 대기열에 되돌린 거래가 있으면 마지막 실패 원인
+     */
+    private RuntimeException writeEach(List<LedgerEntry> batch) {
+        List<LedgerEntry> retries = new ArrayList<>();
+        RuntimeException failure = null;
+        for (LedgerEntry entry : batch) {
+            // rollback 된 insert 의 id 가 남아 있으면 재시도 때 merge 로 처리되므로 비운다.
+            entry.transaction.setId(null);
+            try {
+                List<LedgerEntry> unknown = transactionOperations.execute(status -> write(List.of(entry)));
+                if (!complete(entry, unknown)) {
+                    retries.add(entry);
+                    failure = new IllegalStateException(
+                            "Failed to move ledger entry to dead letter : " + entry.transaction.getTransactionId());
+                }
+            } catch (RuntimeException e) {
+                entry.transaction.setId(null);
+                entry.transaction.setAccount(null);
+                if (++entry.attempts < maxAttempts || !moveToDeadLetter(entry)) {
+                    retries.add(entry);
+                    failure = e;
+                }
+            }
+        }
+        requeue(retries);
+        return failure;
+    }
+
+    /**
+     * 반영한 거래는 pending 에서 지우고, 계좌를 찾지 못한 거래는 dead letter 로 옮긴다.
+     *
+     * @return dead letter 로 옮기지 못해 대기열에 되돌려야 하면 false
+     */
+    private boolean complete(LedgerEntry entry, List<LedgerEntry> unknown) {
+        if (unknown.contains(entry)) {
+            log.error("Move ledger entry of unknown accountNumber to dead letter : {}", entry.accountNumber);
+            return moveToDeadLetter(entry);
+        }
+        pending.remove(entry.transaction.getTransactionId());
+        return true;
+    }
+
+    private void requeue(List<LedgerEntry> retries) {
+        for (int i = retries.size() - 1; i >= 0; i--) {
+            queue.addFirst(retries.get(i));
+        }
+    }
+
+    private boolean moveToDeadLetter(LedgerEntry entry) {
+        try {
+            deadLetterStore.add(entry.accountNumber, entry.transaction, entry.balanceDelta);
+        } catch (RuntimeException e) {
+            log.error("Failed to move ledger entry to dead letter : {}", entry.transaction.getTransactionId(), e);
+            return false;
+        }
+        pending.remove(entry.transaction.getTransactionId());
+        return true;
+    }
+
+    /**
+     * @return 계좌를 찾지 못해 반영하지 않은 거래
+     */
+    private List<LedgerEntry> write(List<LedgerEntry> batch) {
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(
+                        batch.stream().map(entry -> entry.accountNumber).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(batch.size());
+        List<LedgerEntry> unknown = new ArrayList<>();
+        Set<Long> balanceChangedUsers = new HashSet<>();
+        for (LedgerEntry entry : batch) {
+            Account account = accounts.get(entry.accountNumber);
+            if (account == null) {
+                unknown.add(entry);
+                continue;
+            }
+            if (entry.balanceDelta != 0) {
+                account.setBalance(account.getBalance() + entry.balanceDelta);
+                balanceChangedUsers.add(account.getAccountUser().getId());
+            }
+            entry.transaction.setAccount(account);
+            transactions.add(entry.transaction);
+        }
+        transactionRepository.saveAll(transactions);
+        // 계좌 목록 캐시는 DB 잔액을 담고 있으므로 DB 에 반영된 뒤에 지운다.
+        balanceChangedUsers.forEach(accountListCache::evictAfterCommit);
+        return unknown;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 다음 주기에 재시도
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static class LedgerEntry {
+        private final String accountNumber;
+        private final Transaction transaction;
+        private final long balanceDelta;
+        // flush 하는 스레드만 변경한다.
+        private int attempts;
+
+        private LedgerEntry(String accountNumber, Transaction transaction, long balanceDelta) {
+            this.accountNumber = accountNumber;
+            this.transaction = transaction;
+            this.balanceDelta = balanceDelta;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 단일 노드 배포용 JVM 내부 lock
+ * 계좌 번호의 hash 로 고정 크기 lock 배열(stripe)을 선택하므로
+ * 계좌 수와 상관없이 메모리 사용량이 일정하고, 경합이 없을 때는 CAS 한 번으로 획득된다.
+ * 다른 계좌가 같은 stripe 에 걸리면 서로 대기할 수 있으므로 stripe 수는 넉넉하게 잡는다.
+ *
+ * 여러 계좌는 계좌 번호가 아니라 stripe 번호 순으로 잡는다.
+ * 계좌 번호 순서와 stripe 순서가 다르면 서로 다른 계좌 쌍이 같은 stripe 들을 반대 순서로 잡을 수 있기 때문이다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "local")
+public class LocalLockService implements LockProvider {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public LocalLockService(@Value("${account.lock.local.stripes:1024}") int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void lock(String accountNumber, LockPolicy policy) {
+        ReentrantLock lock = getStripe(accountNumber);
+        log.debug("Trying local lock for accountNumber : {}", accountNumber);
+
+        try {
+            boolean isLock = lock.tryLock(policy.getWaitTime(), TimeUnit.MILLISECONDS);
+
+            if (!isLock) {
+                log.error("================= Lock acquisition failed ===============");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    @Override
+    public void lockAll(Collection<String> accountNumbers, LockPolicy policy) {
+        List<ReentrantLock> locked = new ArrayList<>();
+        try {
+            for (int index : getStripeIndexes(accountNumbers)) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(policy.getWaitTime(), TimeUnit.MILLISECONDS)) {
+                    log.error("================= Lock acquisition failed ===============");
+                    throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                }
+                locked.add(0, lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            locked.forEach(ReentrantLock::unlock);
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } catch (RuntimeException e) {
+            locked.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlockAll(Collection<String> accountNumbers) {
+        for (int index : getStripeIndexes(accountNumbers).descendingSet()) {
+            stripes[index].unlock();
+        }
+    }
+
+    @Override
+    public void unlock(String accountNumber) {
+        log.debug("Local unlock for accountNumber : {}", accountNumber);
+        getStripe(accountNumber).unlock();
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    private ReentrantLock getStripe(String accountNumber) {
+        return stripes[getStripeIndex(accountNumber)];
+    }
+
+    private int getStripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * 같은 stripe 에 걸린 계좌는 한 번만 잡는다.
+     */
+    private TreeSet<Integer> getStripeIndexes(Collection<String> accountNumbers) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String accountNumber : accountNumbers) {
+            indexes.add(getStripeIndex(accountNumber));
+        }
+        return indexes;
+    }
+}
@@ -1,29 +1,81 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
 import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.aop.AccountLockIdsInterface;
+import com.example.account.aop.LockPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnExpression("'${account.lock.type:redis}' != 'serial'")
 public class LockAopAspect {
-    private final LockService lockService;
+    private final LockProvider lockService;
+    private final LockContentionTracker contentionTracker;
+    private final AccountShardRegistry accountShardRegistry;
+
+    @Around("@annotation(accountLock) && args(request)")
+    public Object aroundMethod(ProceedingJoinPoint pjp, AccountLock accountLock,
+                               AccountLockIdInterface request) throws Throwable{
+        String accountNumber = request.getAccountNumber();
+        if (accountLock.shardable() && accountShardRegistry.isSharded(accountNumber)) {
+            return pjp.proceed();
+        }
+        LockPolicy policy = LockPolicy.from(accountLock);
+        if (accountLock.adaptive()){
+            policy = policy.withWaitTime(
+                    contentionTracker.adjustWaitTime(accountNumber, policy.getWaitTime()));
+        }
+
+        long holdNanos = -1L;
+        contentionTracker.enter(accountNumber);
+        try {
+            // lock 취득 시도
+            lockService.lock(accountNumber, policy);
+            long lockedAt = System.nanoTime();
+            try{
+                return pjp.proceed();
+            } finally {
+                // lock 해제
+                lockService.unlock(accountNumber);
+                holdNanos = System.nanoTime() - lockedAt;
+            }
+        } finally {
+            contentionTracker.exit(accountNumber, holdNanos);
+        }
+    }
+
+    /**
+     * 여러 계좌는 LockProvider.lockAll 로 정해진 순서에 따라 한 번에 잡는다.
+     * shard 로 나뉜 출금 계좌는 shard 잔액에서도 빼므로 모든 shard lock 을 같은 순서 안에서 함께 잡는다.
+     */
+    @Around("@annotation(accountLock) && args(request)")
+    public Object aroundAccountsMethod(ProceedingJoinPoint pjp, AccountLock accountLock,
+                               AccountLockIdsInterface request) throws Throwable{
+        List<String> lockIds = new ArrayList<>(request.getAccountNumbers());
+        for (String accountNumber : request.getShardLockAccountNumbers()) {
+            int shardCount = accountShardRegistry.getShardCount(accountNumber);
+            for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+                lockIds.add(ShardedBalanceService.getShardLockId(accountNumber, shardIndex));
+            }
+        }
 
-    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
-    public Object aroundMethod(ProceedingJoinPoint pjp, AccountLockIdInterface request) throws Throwable{
-        // lock 취득 시도
-        lockService.lock(request.getAccountNumber());
-        try{
+        lockService.lockAll(lockIds, LockPolicy.from(accountLock));
+        try {
             return pjp.proceed();
         } finally {
-            // lock 해제
-            lockService.unlock(request.getAccountNumber());
+            lockService.unlockAll(lockIds);
         }
     }
 }
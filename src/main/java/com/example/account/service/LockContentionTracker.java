@@ -0,0 +1,112 @@
+package com.example.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌별로 lock 을 기다리거나 잡고 있는 요청 수와 최근 lock 점유 시간(EWMA)을 기록한다.
+ * 앞선 요청들이 모두 끝나는 데 걸릴 예상 시간이 대기 시간보다 길면
+ * 어차피 lock 을 얻지 못하므로 대기 시간을 0 으로 줄여 바로 실패하게 한다.
+ *
+ * 요청이 모두 끝난 계좌도 점유 시간은 남겨 두어 다음 요청이 몰릴 때 처음부터 적용하고,
+ * 마지막 요청이 끝나고 idle-seconds 동안 새 요청이 없으면 제거하여 계좌 수만큼 메모리가 늘어나지 않게 한다.
+ */
+@Component
+public class LockContentionTracker {
+    private final Cache<String, Contention> contentions;
+
+    @Autowired
+    public LockContentionTracker(@Value("${account.lock.adaptive.idle-seconds:60}") long idleSeconds,
+                                 @Value("${account.lock.adaptive.maximum-size:100000}") long maximumSize) {
+        this(idleSeconds, maximumSize, Ticker.systemTicker());
+    }
+
+    LockContentionTracker(long idleSeconds, long maximumSize, Ticker ticker) {
+        this.contentions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new IdleExpiry(TimeUnit.SECONDS.toNanos(idleSeconds)))
+                .ticker(ticker)
+                .build();
+    }
+
+    public long adjustWaitTime(String accountNumber, long waitTime) {
+        Contention contention = contentions.getIfPresent(accountNumber);
+        if (contention == null) {
+            return waitTime;
+        }
+
+        long expectedWaitNanos = contention.inFlight * contention.averageHoldNanos;
+        return expectedWaitNanos > TimeUnit.MILLISECONDS.toNanos(waitTime) ? 0L : waitTime;
+    }
+
+    public void enter(String accountNumber) {
+        contentions.asMap().compute(accountNumber, (key, current) -> {
+            Contention contention = current == null ? new Contention() : current;
+            contention.inFlight++;
+            return contention;
+        });
+    }
+
+    /**
+     * @param holdNanos : lock 점유 시간, lock 을 얻지 못했으면 음수
+     */
+    public void exit(String accountNumber, long holdNanos) {
+        contentions.asMap().computeIfPresent(accountNumber, (key, contention) -> {
+            if (holdNanos >= 0) {
+                contention.averageHoldNanos = contention.averageHoldNanos == 0
+                        ? holdNanos
+                        : contention.averageHoldNanos + (holdNanos - contention.averageHoldNanos) / 8;
+            }
+            contention.inFlight--;
+            return contention;
+        });
+    }
+
+    void cleanUp() {
+        contentions.cleanUp();
+    }
+
+    /**
+     * 요청이 남아 있는 동안은 만료하지 않고, 마지막 요청이 끝난 뒤부터 idle 시간을 센다.
+     */
+    private static class IdleExpiry implements Expiry<String, Contention> {
+        private final long idleNanos;
+
+        private IdleExpiry(long idleNanos) {
+            this.idleNanos = idleNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Contention contention, long currentTime) {
+            return expireAfter(contention);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Contention contention, long currentTime,
+                                      long currentDuration) {
+            return expireAfter(contention);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Contention contention, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+
+        private long expireAfter(Contention contention) {
+            return contention.inFlight > 0 ? Long.MAX_VALUE : idleNanos;
+        }
+    }
+
+    private static class Contention {
+        private volatile int inFlight;
+        private volatile long averageHoldNanos;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 계좌 단위 lock 의 구현체를 교체할 수 있도록 분리한 인터페이스
+ * account.lock.type 설정에 따라 하나의 구현체만 bean 으로 등록된다.
+ *  - redis : Redisson 분산 lock (LockService, 기본값)
+ *  - local : JVM 내부 striped lock (LocalLockService, 단일 노드 배포용)
+ *  - two-tier : 노드 내부 대기열 뒤에 Redisson 분산 lock (TwoTierLockService)
+ *  - optimistic : lock 없이 Account version 충돌 시 재시도 (NoOpLockService)
+ *  - pessimistic : lock 없이 DB row lock 사용 (NoOpLockService)
+ *  - serial : lock 없이 계좌별 단일 실행 대기열 사용 (NoOpLockService)
+ *
+ * lock 획득 실패 시 구현체와 상관없이 ACCOUNT_TRANSACTION_LOCK 으로 실패해야 한다.
+ * JVM 내부 lock 은 lease 개념이 없으므로 policy 의 대기 시간만 사용한다.
+ *
+ * 여러 계좌를 함께 잡을 때(이체)는 lockAll 로 모든 요청이 같은 전역 순서로 잡아서 서로를 기다리며 멈추지 않게 한다.
+ */
+public interface LockProvider {
+    void lock(String accountNumber, LockPolicy policy);
+
+    void unlock(String accountNumber);
+
+    default void lock(String accountNumber) {
+        lock(accountNumber, LockPolicy.DEFAULT);
+    }
+
+    /**
+     * 계좌 번호 순으로 하나씩 잡고, 중간에 실패하면 이미 잡은 lock 을 풀고 실패한다.
+     */
+    default void lockAll(Collection<String> accountNumbers, LockPolicy policy) {
+        List<String> locked = new ArrayList<>();
+        try {
+            for (String accountNumber : new TreeSet<>(accountNumbers)) {
+                lock(accountNumber, policy);
+                locked.add(0, accountNumber);
+            }
+        } catch (RuntimeException e) {
+            locked.forEach(this::unlock);
+            throw e;
+        }
+    }
+
+    default void unlockAll(Collection<String> accountNumbers) {
+        for (String accountNumber : new TreeSet<>(accountNumbers).descendingSet()) {
+            unlock(accountNumber);
+        }
+    }
+}
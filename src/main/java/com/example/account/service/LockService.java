@@ -1,27 +1,33 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockPolicy;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class LockService {
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "redis", matchIfMissing = true)
+public class LockService implements LockProvider {
     private final RedissonClient redissonClient;
 
-    public void lock(String accountNumber){
+    @Override
+    public void lock(String accountNumber, LockPolicy policy){
         RLock lock = redissonClient.getLock(getLockKey(accountNumber));
         log.debug("Trying lock for accountNumber : {}", accountNumber);
 
         try{
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
+            boolean isLock = lock.tryLock(policy.getWaitTime(), policy.getLeaseTime(), TimeUnit.MILLISECONDS);
 
             if (!isLock){
                 log.error("================= Lock acquisition failed ===============");
@@ -34,11 +40,46 @@ public class LockService {
         }
     }
 
+    @Override
     public void unlock(String accountNumber){
         log.debug("Unlock for accountNumber : {}", accountNumber);
         redissonClient.getLock(getLockKey(accountNumber)).unlock();
     }
 
+    /**
+     * Redisson MultiLock 으로 여러 계좌를 함께 잡는다.
+     * 하나라도 실패하면 잡은 lock 을 모두 풀고 대기 시간 안에서 처음부터 다시 시도하므로 서로를 기다리며 멈추지 않는다.
+     */
+    @Override
+    public void lockAll(Collection<String> accountNumbers, LockPolicy policy) {
+        log.debug("Trying multi lock for accountNumbers : {}", accountNumbers);
+
+        try {
+            boolean isLock = getMultiLock(accountNumbers)
+                    .tryLock(policy.getWaitTime(), policy.getLeaseTime(), TimeUnit.MILLISECONDS);
+
+            if (!isLock) {
+                log.error("================= Lock acquisition failed ===============");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    @Override
+    public void unlockAll(Collection<String> accountNumbers) {
+        log.debug("Unlock for accountNumbers : {}", accountNumbers);
+        getMultiLock(accountNumbers).unlock();
+    }
+
+    private RLock getMultiLock(Collection<String> accountNumbers) {
+        return redissonClient.getMultiLock(new TreeSet<>(accountNumbers).stream()
+                .map(accountNumber -> redissonClient.getLock(getLockKey(accountNumber)))
+                .toArray(RLock[]::new));
+    }
+
     private static String getLockKey(String accountNumber) {
         return "ACLK:" + accountNumber;
     }
@@ -0,0 +1,28 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+/**
+ * 분산 lock 없이 DB 에서 동시성을 보장하는 방식에서 사용하는 lock
+ *  - optimistic : Account 의 version 으로 충돌을 감지하고 재시도 (OptimisticRetryAspect)
+ *  - pessimistic : 계좌 조회 시 select ... for update 로 row lock (TransactionService)
+ *  - serial : 계좌별 대기열에서 순서대로 실행 (SerialCommandAspect, LockAopAspect 미사용)
+ *  - none : lock 없음, 잔액 변경 자체가 원자적인 경우에 사용 (account.balance.store=redis)
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("'${account.lock.type:redis}' == 'optimistic' or '${account.lock.type:redis}' == 'pessimistic'"
+        + " or '${account.lock.type:redis}' == 'serial' or '${account.lock.type:redis}' == 'none'")
+public class NoOpLockService implements LockProvider {
+    @Override
+    public void lock(String accountNumber, LockPolicy policy) {
+        log.debug("Skip lock for accountNumber : {}", accountNumber);
+    }
+
+    @Override
+    public void unlock(String accountNumber) {
+    }
+}
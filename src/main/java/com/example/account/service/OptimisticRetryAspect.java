@@ -0,0 +1,82 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * version 충돌(OptimisticLockingFailureException)이 나면 backoff 후 트랜잭션을 다시 수행한다.
+ * 트랜잭션 interceptor 보다 바깥에서 동작해야 commit 시점의 충돌까지 잡을 수 있으므로 가장 높은 우선순위를 준다.
+ * 최대 횟수만큼 실패하면 lock 방식과 같이 ACCOUNT_TRANSACTION_LOCK 으로 실패한다.
+ */
+@Aspect
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "optimistic")
+public class OptimisticRetryAspect {
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public OptimisticRetryAspect(MeterRegistry meterRegistry,
+                                 @Value("${account.lock.optimistic.max-attempts:3}") int maxAttempts,
+                                 @Value("${account.lock.optimistic.backoff-millis:10}") long backoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.conflictCounter = meterRegistry.counter("account.lock.optimistic.conflicts");
+        this.retryCounter = meterRegistry.counter("account.lock.optimistic.retries");
+        this.exhaustedCounter = meterRegistry.counter("account.lock.optimistic.exhausted");
+    }
+
+    @Around("@annotation(com.example.account.aop.OptimisticRetry)")
+    public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return pjp.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter.increment();
+
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    log.error("Optimistic lock conflict retry exhausted : {}", pjp.getSignature().getName());
+                    throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                }
+
+                log.debug("Optimistic lock conflict, retry {} : {}", attempt, pjp.getSignature().getName());
+                retryCounter.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long maxDelay = backoffMillis << (attempt - 1);
+        if (maxDelay <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+}
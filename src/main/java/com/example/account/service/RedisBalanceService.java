@@ -0,0 +1,115 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionResultType.*;
+import static com.example.account.type.TransactionType.*;
+
+/**
+ * Redis 잔액 모드의 잔액 사용/취소 (account.balance.store=redis)
+ * 잔액 사용은 RedisBalanceStore 의 Lua 스크립트 한 번으로 검증과 출금을 끝내고,
+ * 거래 내역과 DB 의 잔액은 LedgerWriteBehind 가 나중에 모아서 반영한다.
+ * 잔액 사용은 원자적이므로 account.lock.type=none 과 함께 사용한다.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.balance.store", havingValue = "redis")
+public class RedisBalanceService implements BalanceService {
+    private final RedisBalanceStore redisBalanceStore;
+    private final LedgerWriteBehind ledgerWriteBehind;
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    @Override
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        long balance = redisBalanceStore.debit(userId, accountNumber, amount);
+
+        return record(accountNumber, amount, balance, -amount, S, USE);
+    }
+
+    @Override
+    public void saveFailedUseTransactions(String accountNumber, Long amount) {
+        long balance = redisBalanceStore.getBalance(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        record(accountNumber, amount, balance, 0, F, USE);
+    }
+
+    /**
+     * 취소할 거래가 아직 DB 에 반영되지 않았다면 먼저 반영한 뒤 검증한다.
+     * 검증은 TransactionService 와 같이 TransactionValidator 로 하고, 입금은 Redis 잔액에 한다.
+     */
+    @Override
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        ledgerWriteBehind.flushIfPending(transactionId);
+        Transaction transaction = transactionRepository.findWithAccountByTransactionId(transactionId)
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+        Account account = TransactionService.getCancelAccount(transaction, accountNumber, accountRepository);
+
+        TransactionValidator.validateCancelBalance(amount, transaction, account);
+        if (amount < 0) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+
+        long balance = redisBalanceStore.credit(accountNumber, amount);
+
+        return record(accountNumber, amount, balance, amount, S, CANCEL);
+    }
+
+    @Override
+    public void saveFailedCancelTransactions(String accountNumber, Long amount) {
+        long balance = redisBalanceStore.getBalance(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        record(accountNumber, amount, balance, 0, F, CANCEL);
+    }
+
+    @Override
+    public TransactionDto queryTransaction(String transactionId) {
+        ledgerWriteBehind.flushIfPending(transactionId);
+
+        return transactionService.queryTransaction(transactionId);
+    }
+
+    private TransactionDto record(String accountNumber, Long amount, long balance, long balanceDelta,
+                                  TransactionResultType resultType, TransactionType transactionType) {
+        Transaction transaction = Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(resultType)
+                .amount(amount)
+                .balanceSnapshot(balance)
+                .transactionId(transactionIdGenerator.generate())
+                .transactedAt(LocalDateTime.now())
+                .build();
+        ledgerWriteBehind.append(accountNumber, transaction, balanceDelta);
+
+        return TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(resultType)
+                .amount(amount)
+                .balanceSnapshot(balance)
+                .transactionId(transaction.getTransactionId())
+                .transactedAt(transaction.getTransactedAt())
+                .build();
+    }
+}
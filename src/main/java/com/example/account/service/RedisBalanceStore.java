@@ -0,0 +1,221 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.*;
+
+/**
+ * Redis 에 보관하는 계좌 잔액 (account.balance.store=redis)
+ * 계좌마다 ACBAL:{계좌번호} 해시에 소유자, 상태, 잔액을 두고
+ * 검증과 출금을 Lua 스크립트 한 번으로 원자적으로 처리한다. (lock 불필요, 1 RTT)
+ *
+ * 기동 시 Redis 에 상태가 없으면(처음 기동, Redis 유실) DB 의 계좌/사용자로 다시 만든다.
+ * 이때 DB 에 아직 반영되지 않았던 거래(LedgerWriteBehind)는 잔액에서도 사라진다.
+ * force-rebuild 를 켜면 Redis 상태가 있어도 DB 기준으로 덮어쓴다. (다른 노드가 동작 중일 때는 사용 금지)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.balance.store", havingValue = "redis")
+public class RedisBalanceStore implements SmartInitializingSingleton {
+    private static final String ACCOUNT_KEY_PREFIX = "ACBAL:";
+    private static final String USERS_KEY = "ACBAL-USERS";
+    private static final String REBUILT_KEY = "ACBAL-REBUILT";
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    // 음수 반환값은 실패 사유, 0 이상은 출금 후 잔액
+    private static final String DEBIT_SCRIPT =
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 0 then return -1 end " +
+            "local account = redis.call('HMGET', KEYS[1], 'userId', 'status', 'balance') " +
+            "if not account[3] then return -2 end " +
+            "if account[1] ~= ARGV[1] then return -3 end " +
+            "if account[2] ~= 'IN_USE' then return -4 end " +
+            "local amount = tonumber(ARGV[2]) " +
+            "if tonumber(account[3]) < amount then return -5 end " +
+            "return redis.call('HINCRBY', KEYS[1], 'balance', -amount)";
+
+    private static final String CREDIT_SCRIPT =
+            "if redis.call('HEXISTS', KEYS[1], 'balance') == 0 then return -2 end " +
+            "return redis.call('HINCRBY', KEYS[1], 'balance', ARGV[1])";
+
+    private static final ErrorCode[] DEBIT_ERRORS = {
+            USER_NOT_FOUND, ACCOUNT_NOT_FOUND, USER_ACCOUNT_UN_MATCH,
+            ACCOUNT_ALREADY_UNREGISTERED, AMOUNT_EXCEED_BALANCE
+    };
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+
+    @Value("${account.balance.redis.force-rebuild:false}")
+    private boolean forceRebuild;
+
+    private volatile String debitSha;
+    private volatile String creditSha;
+
+    /**
+     * 출금 후 잔액을 반환한다.
+     * 사용자 없음, 계좌 없음, 소유주 불일치, 해지된 계좌, 잔액 부족은 TransactionService 와 같은 순서로 검사한다.
+     */
+    public long debit(Long userId, String accountNumber, Long amount) {
+        long result = eval(DEBIT_SCRIPT, true, List.of(accountKey(accountNumber), USERS_KEY),
+                String.valueOf(userId), String.valueOf(amount));
+        if (result < 0) {
+            throw new AccountException(DEBIT_ERRORS[(int) -result - 1]);
+        }
+        return result;
+    }
+
+    /**
+     * 입금(사용 취소) 후 잔액을 반환한다.
+     */
+    public long credit(String accountNumber, Long amount) {
+        long result = eval(CREDIT_SCRIPT, false, List.of(accountKey(accountNumber)),
+                String.valueOf(amount));
+        if (result < 0) {
+            throw new AccountException(ACCOUNT_NOT_FOUND);
+        }
+        return result;
+    }
+
+    public Optional<Long> getBalance(String accountNumber) {
+        String balance = accountMap(accountNumber).get("balance");
+        return Optional.ofNullable(balance).map(Long::valueOf);
+    }
+
+    /**
+     * 계좌 생성/해지가 commit 되면 Redis 에도 반영한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        RMap<String, String> account = accountMap(event.getAccountNumber());
+        if (event.getAccountStatus() == AccountStatus.IN_USE) {
+            account.putAll(toHash(event));
+        } else {
+            // 해지 시점의 잔액은 DB 가 아니라 Redis 가 정확하므로 상태만 바꾼다.
+            account.fastPut("status", event.getAccountStatus().name());
+        }
+    }
+
+    /**
+     * 해지하려는 계좌의 Redis 잔액이 남아 있으면 해지를 되돌린다.
+     * DB 의 잔액은 아직 반영되지 않은 거래가 있을 수 있어 Redis 잔액으로 한 번 더 확인한다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void validateUnregister(AccountChangedEvent event) {
+        if (event.getAccountStatus() == AccountStatus.UNREGISTERED
+                && getBalance(event.getAccountNumber()).orElse(0L) > 0) {
+            throw new AccountException(BALANCE_NOT_EMPTY);
+        }
+    }
+
+    /**
+     * data.sql 까지 반영된 뒤, 요청을 받기 전에 실행된다.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (forceRebuild || !redissonClient.getBucket(REBUILT_KEY).isExists()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * DB 의 사용자/계좌로 Redis 상태를 다시 만든다.
+     */
+    public void rebuild() {
+        List<String> userIds = accountUserRepository.findAll().stream()
+                .map(AccountUser::getId)
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+        redissonClient.getKeys().delete(USERS_KEY);
+        if (!userIds.isEmpty()) {
+            redissonClient.<String>getSet(USERS_KEY, StringCodec.INSTANCE).addAll(userIds);
+        }
+
+        long accounts = 0;
+        Page<Account> page = accountRepository.findAll(
+                PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+        while (true) {
+            for (Account account : page) {
+                accountMap(account.getAccountNumber()).putAll(toHash(AccountChangedEvent.from(account)));
+            }
+            accounts += page.getNumberOfElements();
+            if (!page.hasNext()) {
+                break;
+            }
+            page = accountRepository.findAll(page.nextPageable());
+        }
+
+        redissonClient.getBucket(REBUILT_KEY, StringCodec.INSTANCE).set(String.valueOf(System.currentTimeMillis()));
+        log.info("Rebuilt redis balances : {} users, {} accounts", userIds.size(), accounts);
+    }
+
+    private long eval(String script, boolean debit, List<Object> keys, Object... values) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        String sha = debit ? debitSha : creditSha;
+        if (sha != null) {
+            try {
+                return rScript.evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, keys, values);
+            } catch (RedisException e) {
+                // Redis 재시작 등으로 스크립트 캐시가 비면 다시 올린다.
+                if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                    throw e;
+                }
+            }
+        }
+
+        sha = rScript.scriptLoad(script);
+        if (debit) {
+            debitSha = sha;
+        } else {
+            creditSha = sha;
+        }
+        return rScript.evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, keys, values);
+    }
+
+    private RMap<String, String> accountMap(String accountNumber) {
+        return redissonClient.getMap(accountKey(accountNumber), StringCodec.INSTANCE);
+    }
+
+    private static String accountKey(String accountNumber) {
+        return ACCOUNT_KEY_PREFIX + accountNumber;
+    }
+
+    private static Map<String, String> toHash(AccountChangedEvent event) {
+        Map<String, String> hash = new HashMap<>();
+        hash.put("userId", String.valueOf(event.getUserId()));
+        hash.put("status", event.getAccountStatus().name());
+        hash.put("balance", String.valueOf(event.getBalance()));
+        return Collections.unmodifiableMap(hash);
+    }
+}
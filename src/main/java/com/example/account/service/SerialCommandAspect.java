@@ -0,0 +1,48 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * account.lock.type=serial 일 때 @AccountLock 메소드를 계좌별 대기열에서 실행하고 결과를 기다린다.
+ * lock 획득 실패 대신 대기열 순서대로 처리되며, 대기열이 가득 차면 ACCOUNT_COMMAND_QUEUE_FULL 로 실패한다.
+ *
+ * 다른 스레드에서 proceed 하므로 뒤에 다른 AspectJ advice 가 있으면 현재 MethodInvocation 을 찾지 못한다.
+ * 그래서 가장 안쪽 advice 로 두고, 이 모드에서는 LockAopAspect 를 등록하지 않는다.
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "serial")
+public class SerialCommandAspect {
+    private final AccountCommandQueue accountCommandQueue;
+
+    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    public Object aroundMethod(ProceedingJoinPoint pjp, AccountLockIdInterface request) throws Throwable {
+        try {
+            return accountCommandQueue.submit(request.getAccountNumber(), () -> {
+                try {
+                    return pjp.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+}
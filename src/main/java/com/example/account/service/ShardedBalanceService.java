@@ -0,0 +1,242 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+
+/**
+ * 잔액이 shard 로 나뉜 계좌의 잔액 사용 (account.shard.enabled=true)
+ * 나뉜 계좌는 계좌 lock 대신 잔액이 충분한 shard 중 임의의 하나의 lock("계좌번호#shard") 만 잡고 그 shard 에서 출금하므로
+ * 한 계좌의 잔액 사용이 shard 수만큼 동시에 처리된다.
+ * shard 잔액은 노드 안에 힌트로 들고 출금마다 줄이며, 다른 노드의 출금은 반영되지 않으므로
+ * expire-after-write-seconds 마다, 그리고 힌트와 실제 잔액이 다를 때(출금 실패, 여러 shard 출금, rebalance) DB 에서 다시 읽는다.
+ * 한 shard 로는 모자란 금액만 모든 shard lock 을 잡고 여러 shard 에서 나눠서 출금한다.
+ *
+ * 취소는 계좌 lock 을 잡고 Account.balance 에 입금하며,
+ * 백그라운드 rebalancer 가 rebalance-interval-millis 마다 계좌 lock 과 모든 shard lock 을 잡고 잔액을 다시 고르게 나눈다.
+ * 나뉘지 않은 계좌와 나머지 기능은 TransactionService 에 그대로 맡긴다.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnExpression("${account.shard.enabled:false} and '${account.balance.store:db}' == 'db' and '${account.lock.type:redis}' != 'serial'")
+public class ShardedBalanceService implements BalanceService {
+    private static final LockPolicy REBALANCE_LOCK_POLICY = LockPolicy.DEFAULT.withWaitTime(100L);
+
+    private final TransactionService transactionService;
+    private final AccountShardService accountShardService;
+    private final AccountShardRegistry accountShardRegistry;
+    private final LockProvider lockProvider;
+    private final ScheduledExecutorService rebalancer;
+    // 계좌번호 -> shard 번호별로 알고 있는 잔액
+    private final Cache<String, AtomicLongArray> shardBalanceHints;
+
+    @Autowired
+    public ShardedBalanceService(TransactionService transactionService,
+                                 AccountShardService accountShardService,
+                                 AccountShardRegistry accountShardRegistry,
+                                 LockProvider lockProvider,
+                                 @Value("${account.shard.rebalance-interval-millis:1000}") long rebalanceIntervalMillis,
+                                 @Value("${account.shard.cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${account.shard.cache.expire-after-write-seconds:10}") long expireAfterWriteSeconds) {
+        this(transactionService, accountShardService, accountShardRegistry, lockProvider,
+                maximumSize, expireAfterWriteSeconds);
+        rebalancer.scheduleWithFixedDelay(this::rebalanceQuietly,
+                rebalanceIntervalMillis, rebalanceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    ShardedBalanceService(TransactionService transactionService,
+                          AccountShardService accountShardService,
+                          AccountShardRegistry accountShardRegistry,
+                          LockProvider lockProvider,
+                          long maximumSize,
+                          long expireAfterWriteSeconds) {
+        this.transactionService = transactionService;
+        this.accountShardService = accountShardService;
+        this.accountShardRegistry = accountShardRegistry;
+        this.lockProvider = lockProvider;
+        this.rebalancer = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "account-shard-rebalancer"));
+        this.shardBalanceHints = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    @Override
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        int shardCount = accountShardRegistry.getShardCount(accountNumber);
+        if (shardCount == 0) {
+            return transactionService.useBalance(userId, accountNumber, amount);
+        }
+
+        AtomicLongArray hints = shardBalanceHints.get(accountNumber,
+                key -> new AtomicLongArray(accountShardService.getShardBalances(key)));
+        int shardIndex = pickShard(hints, shardCount, amount);
+        if (shardIndex >= 0) {
+            String shardLockId = getShardLockId(accountNumber, shardIndex);
+            lockProvider.lock(shardLockId, LockPolicy.DEFAULT);
+            try {
+                TransactionDto transactionDto = transactionService.useShardBalance(
+                        userId, accountNumber, List.of(shardIndex), amount);
+                hints.addAndGet(shardIndex, -amount);
+                return transactionDto;
+            } catch (AccountException e) {
+                if (e.getErrorCode() != AMOUNT_EXCEED_BALANCE) {
+                    throw e;
+                }
+                shardBalanceHints.invalidate(accountNumber);
+            } finally {
+                lockProvider.unlock(shardLockId);
+            }
+        }
+
+        return useAllShardBalance(userId, accountNumber, shardCount, amount);
+    }
+
+    /**
+     * 알고 있는 잔액이 amount 이상인 shard 중 하나를 고른다. 없으면 -1
+     */
+    private static int pickShard(AtomicLongArray hints, int shardCount, long amount) {
+        int[] candidates = IntStream.range(0, Math.min(hints.length(), shardCount))
+                .filter(shardIndex -> hints.get(shardIndex) >= amount)
+                .toArray();
+        if (candidates.length == 0) {
+            return -1;
+        }
+        return candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+    }
+
+    /**
+     * 나뉜 계좌가 섞여 있으면 건별로 useBalance 를 호출한다.
+     */
+    @Override
+    public List<UseBalanceBatch.Item> useBalances(String accountNumber, List<UseBalance.Request> requests) {
+        if (!accountShardRegistry.isSharded(accountNumber)) {
+            return transactionService.useBalances(accountNumber, requests);
+        }
+        return BalanceService.super.useBalances(accountNumber, requests);
+    }
+
+    @Override
+    public void saveFailedUseTransactions(String accountNumber, Long amount) {
+        transactionService.saveFailedUseTransactions(accountNumber, amount);
+    }
+
+    @Override
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        return transactionService.cancelBalance(transactionId, accountNumber, amount);
+    }
+
+    @Override
+    public void saveFailedCancelTransactions(String accountNumber, Long amount) {
+        transactionService.saveFailedCancelTransactions(accountNumber, amount);
+    }
+
+    @Override
+    public TransactionDto queryTransaction(String transactionId) {
+        return transactionService.queryTransaction(transactionId);
+    }
+
+    /**
+     * 모든 shard lock 을 shard 순서대로 잡고 여러 shard 에서 나눠서 출금한다.
+     * 취소로 Account.balance 에 쌓인 잔액은 rebalance 전까지 쓰지 않는다.
+     * 어느 shard 에서 얼마나 빠졌는지 모르므로 잔액 힌트는 다시 읽는다.
+     */
+    private TransactionDto useAllShardBalance(Long userId, String accountNumber, int shardCount, Long amount) {
+        List<Integer> shardIndexes = IntStream.range(0, shardCount).boxed().collect(Collectors.toList());
+        List<String> shardLockIds = shardIndexes.stream()
+                .map(shardIndex -> getShardLockId(accountNumber, shardIndex))
+                .collect(Collectors.toList());
+
+        lockProvider.lockAll(shardLockIds, LockPolicy.DEFAULT);
+        try {
+            return transactionService.useShardBalance(userId, accountNumber, shardIndexes, amount);
+        } finally {
+            shardBalanceHints.invalidate(accountNumber);
+            lockProvider.unlockAll(shardLockIds);
+        }
+    }
+
+    void rebalanceQuietly() {
+        try {
+            for (String accountNumber : accountShardService.getShardedAccountNumbers()) {
+                rebalance(accountNumber);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to rebalance account shards", e);
+        }
+    }
+
+    /**
+     * 계좌 lock 과 모든 shard lock 을 잡지 못하면 다음 주기로 넘긴다.
+     */
+    private void rebalance(String accountNumber) {
+        if (!accountShardService.needsRebalance(accountNumber)) {
+            return;
+        }
+
+        int shardCount = accountShardRegistry.getShardCount(accountNumber);
+        if (shardCount == 0) {
+            return;
+        }
+        List<String> lockIds = new ArrayList<>(shardCount + 1);
+        lockIds.add(accountNumber);
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            lockIds.add(getShardLockId(accountNumber, shardIndex));
+        }
+
+        try {
+            lockProvider.lockAll(lockIds, REBALANCE_LOCK_POLICY);
+        } catch (AccountException e) {
+            log.debug("Skip rebalancing busy account, accountNumber : {}", accountNumber);
+            return;
+        }
+        try {
+            accountShardService.rebalance(accountNumber);
+            shardBalanceHints.invalidate(accountNumber);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebalance account, accountNumber : {}", accountNumber, e);
+        } finally {
+            lockProvider.unlockAll(lockIds);
+        }
+    }
+
+    static String getShardLockId(String accountNumber, int shardIndex) {
+        return accountNumber + "#" + shardIndex;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalancer.shutdown();
+        try {
+            rebalancer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
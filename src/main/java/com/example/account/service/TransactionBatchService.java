@@ -0,0 +1,105 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 잔액 사용 일괄 처리 (POST /transaction/use/batch)
+ * 요청을 계좌별로 묶어서 계좌마다 lock 을 한 번만 잡고, 같은 계좌의 요청은 요청 순서대로 하나의 트랜잭션에서 처리한다.
+ * 서로 다른 계좌의 묶음은 전용 스레드 풀에서 동시에 처리하므로 lock 대기와 DB 작업이 계좌 사이에서 겹친다.
+ * 결과는 요청과 같은 순서로 돌려준다.
+ */
+@Slf4j
+@Service
+public class TransactionBatchService {
+    private final AccountBatchProcessor accountBatchProcessor;
+    private final Executor batchExecutor;
+
+    @Autowired
+    public TransactionBatchService(AccountBatchProcessor accountBatchProcessor,
+                                   @Value("${account.transaction.batch.pool-size:8}") int poolSize) {
+        this(accountBatchProcessor, newBatchExecutor(poolSize));
+    }
+
+    TransactionBatchService(AccountBatchProcessor accountBatchProcessor, Executor batchExecutor) {
+        this.accountBatchProcessor = accountBatchProcessor;
+        this.batchExecutor = batchExecutor;
+    }
+
+    public List<UseBalanceBatch.Item> useBalances(List<UseBalance.Request> requests) {
+        Map<String, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByAccount.computeIfAbsent(requests.get(i).getAccountNumber(), key -> new ArrayList<>()).add(i);
+        }
+
+        UseBalanceBatch.Item[] items = new UseBalanceBatch.Item[requests.size()];
+        CompletableFuture<?>[] futures = indexesByAccount.entrySet().stream()
+                .map(entry -> {
+                    List<Integer> indexes = entry.getValue();
+                    List<UseBalance.Request> accountRequests = indexes.stream()
+                            .map(requests::get)
+                            .collect(Collectors.toList());
+                    return CompletableFuture
+                            .supplyAsync(() -> useBalances(entry.getKey(), accountRequests), batchExecutor)
+                            .thenAccept(results -> {
+                                for (int i = 0; i < indexes.size(); i++) {
+                                    items[indexes.get(i)] = results.get(i);
+                                }
+                            });
+                })
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        return Arrays.asList(items);
+    }
+
+    /**
+     * lock 을 얻지 못하는 등 묶음 전체가 실패하면 해당 계좌의 요청은 모두 같은 이유로 실패한다.
+     * AccountException 이 아닌 오류(DB/Redis 장애 등)는 INTERNAL_SERVER_ERROR 로 돌려준다.
+     */
+    private List<UseBalanceBatch.Item> useBalances(String accountNumber, List<UseBalance.Request> requests) {
+        ErrorCode errorCode;
+        try {
+            return accountBatchProcessor.useBalances(new UseBalanceBatch.AccountRequests(accountNumber, requests));
+        } catch (AccountException e) {
+            errorCode = e.getErrorCode();
+        } catch (RuntimeException e) {
+            log.error("Failed to use balance batch, accountNumber : {}", accountNumber, e);
+            errorCode = ErrorCode.INTERNAL_SERVER_ERROR;
+        }
+
+        List<UseBalanceBatch.Item> items = new ArrayList<>(requests.size());
+        for (UseBalance.Request request : requests) {
+            items.add(UseBalanceBatch.Item.failure(accountNumber, request.getAmount(), errorCode));
+        }
+        return items;
+    }
+
+    private static ExecutorService newBatchExecutor(int poolSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize,
+                runnable -> new Thread(runnable, "transaction-batch-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchExecutor instanceof ExecutorService) {
+            ((ExecutorService) batchExecutor).shutdown();
+        }
+    }
+}
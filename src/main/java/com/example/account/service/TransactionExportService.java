@@ -0,0 +1,88 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.TransactionSummary;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+
+/**
+ * 계좌의 전체 거래 내역 내보내기 (감사용)
+ * 거래를 DB 에서 한 건씩 읽으면서 바로 출력하므로 거래 수와 관계없이 메모리 사용량이 일정하다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "transactionId,transactionType,transactionResultType,amount,balanceSnapshot,transactedAt";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public Long getAccountId(String accountNumber) {
+        return accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+    }
+
+    /**
+     * 최신 거래부터 format 형식으로 out 에 쓴다. out 은 닫지 않는다.
+     * NDJSON : 한 줄에 거래 하나 (/account/{accountNumber}/transactions 의 거래 항목과 같은 형식)
+     * CSV : 첫 줄은 헤더
+     *
+     * @return 내보낸 거래 수
+     */
+    @Transactional(readOnly = true)
+    public long export(Long accountId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<TransactionSummary> summaries = transactionRepository.streamByAccountId(accountId)) {
+            Iterator<TransactionSummary> iterator = summaries.iterator();
+            while (iterator.hasNext()) {
+                TransactionSummary summary = iterator.next();
+                writer.write(format == ExportFormat.CSV ? toCsv(summary) : toJson(summary));
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String toJson(TransactionSummary summary) throws IOException {
+        return objectMapper.writeValueAsString(TransactionHistory.Item.from(summary));
+    }
+
+    // 모든 값이 숫자, enum, 날짜, 영숫자 거래 번호라서 따옴표 처리가 필요 없다.
+    private static String toCsv(TransactionSummary summary) {
+        return String.join(",",
+                summary.getTransactionId(),
+                summary.getTransactionType().name(),
+                summary.getTransactionResultType().name(),
+                String.valueOf(summary.getAmount()),
+                String.valueOf(summary.getBalanceSnapshot()),
+                String.valueOf(summary.getTransactedAt()));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.TransactionSummary;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+
+/**
+ * 계좌별 거래 내역 조회
+ * 최신 거래부터 size 개씩 조회하고, 다음 페이지는 마지막 거래의 (transactedAt, id) 를 담은 커서로 이어서 조회한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionHistoryService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final String CURSOR_DELIMITER = "|";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * @param cursor : 이전 응답의 nextCursor (첫 페이지는 null)
+     * @param from : 이 시각 이후 거래만 (포함)
+     * @param to : 이 시각 이전 거래만 (포함)
+     */
+    public TransactionHistory.Response getTransactions(String accountNumber, String cursor, int size,
+                                                       TransactionType transactionType,
+                                                       TransactionResultType resultType,
+                                                       LocalDateTime from, LocalDateTime to) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+        Long accountId = accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        // 커서가 없으면 to 를 포함하도록 id 는 가장 큰 값으로 시작한다.
+        LocalDateTime cursorAt = to == null ? MAX_TIME : to;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] decoded = decodeCursor(cursor);
+            LocalDateTime decodedAt = LocalDateTime.parse(decoded[0]);
+            if (!decodedAt.isAfter(cursorAt)) {
+                cursorAt = decodedAt;
+                cursorId = Long.parseLong(decoded[1]);
+            }
+        }
+
+        // 다음 페이지가 있는지 알기 위해 하나 더 조회한다.
+        List<TransactionSummary> summaries = transactionRepository.findHistory(accountId,
+                from == null ? MIN_TIME : from, cursorAt, cursorId, transactionType, resultType,
+                PageRequest.of(0, size + 1));
+
+        boolean hasNext = summaries.size() > size;
+        List<TransactionSummary> page = hasNext ? summaries.subList(0, size) : summaries;
+
+        return TransactionHistory.Response.builder()
+                .transactions(page.stream()
+                        .map(TransactionHistory.Item::from)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext ? encodeCursor(page.get(page.size() - 1)) : null)
+                .build();
+    }
+
+    private static String encodeCursor(TransactionSummary last) {
+        String cursor = last.getTransactedAt() + CURSOR_DELIMITER + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + CURSOR_DELIMITER);
+            if (parts.length != 2) {
+                throw new AccountException(INVALID_REQUEST);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.account.service;
 
+import com.example.account.aop.OptimisticRetry;
 import com.example.account.domain.Account;
-import com.example.account.domain.AccountUser;
+import com.example.account.domain.AccountShard;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountOwnership;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
@@ -13,13 +19,25 @@ import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.example.account.service.TransactionValidator.*;
 import static com.example.account.type.ErrorCode.*;
 import static com.example.account.type.TransactionResultType.*;
 import static com.example.account.type.TransactionType.*;
@@ -27,10 +45,18 @@ import static com.example.account.type.TransactionType.*;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TransactionService {
+public class TransactionService implements BalanceService {
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final TransactionCache transactionCache;
+    private final AccountListCache accountListCache;
+    private final AccountShardRepository accountShardRepository;
+
+    @Value("${account.lock.type:redis}")
+    private String lockType;
 
     /**
      * 사용자 없는 경우, 사용자 아이디와 계좌 소유주가 다른 경우,
@@ -42,103 +68,337 @@ public class TransactionService {
      * @param amount : 거래량
      * @return : dto
      */
+    @Override
+    @OptimisticRetry
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount){
-        AccountUser user = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        Account account = getOwnedAccountForUpdate(userId, accountNumber);
 
-        validateUseBalance(amount, user, account);
+        validateUseBalance(amount, userId, account);
 
         account.useBalance(amount);
+        accountListCache.evictAfterCommit(userId);
 
         return TransactionDto.fromEntity(
                 saveAndGetTransaction(amount, account, S, USE)
         );
     }
 
-    private static void validateUseBalance(Long amount, AccountUser user, Account account) {
-        if (!Objects.equals(user.getId(), account.getAccountUser().getId())){
-            throw new AccountException(USER_ACCOUNT_UN_MATCH);
+    /**
+     * 같은 계좌의 잔액 사용 여러 건을 요청 순서대로 하나의 트랜잭션에서 처리한다.
+     * 계좌는 처음 한 번만 조회하고 (소유주가 아닌 사용자만 따로 확인), 잔액 변경은 commit 때 한 번 반영된다.
+     * 건별 검증 실패는 결과에 담고 다음 건을 계속 처리한다. 검증은 잔액을 바꾸기 전에 하므로 앞선 건에 영향이 없다.
+     * row lock 대기 시간 초과는 나머지 건도 같은 lock 을 기다려야 하므로 전체를 실패시킨다.
+     */
+    @Override
+    @OptimisticRetry
+    @Transactional
+    public List<UseBalanceBatch.Item> useBalances(String accountNumber, List<UseBalance.Request> requests) {
+        List<UseBalanceBatch.Item> items = new ArrayList<>(requests.size());
+        Account account = null;
+        for (UseBalance.Request request : requests) {
+            Long userId = request.getUserId();
+            try {
+                if (account == null) {
+                    account = getOwnedAccountForUpdate(userId, accountNumber);
+                } else if (!Objects.equals(userId, account.getAccountUser().getId())
+                        && !accountUserRepository.existsById(userId)) {
+                    throw new AccountException(USER_NOT_FOUND);
+                }
+
+                validateUseBalance(request.getAmount(), userId, account);
+
+                account.useBalance(request.getAmount());
+                items.add(UseBalanceBatch.Item.from(TransactionDto.fromEntity(
+                        saveAndGetTransaction(request.getAmount(), account, S, USE))));
+            } catch (AccountException e) {
+                if (e.getErrorCode() == ACCOUNT_TRANSACTION_LOCK) {
+                    throw e;
+                }
+                items.add(UseBalanceBatch.Item.failure(accountNumber, request.getAmount(), e.getErrorCode()));
+            }
         }
 
-        if (account.getAccountStatus() != AccountStatus.IN_USE){
-            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+        if (account != null) {
+            accountListCache.evictAfterCommit(account.getAccountUser().getId());
         }
+        return items;
+    }
+
+    /**
+     * shard 로 나뉜 계좌의 잔액 사용, 호출한 쪽이 shardIndexes 의 shard lock 을 잡고 있어야 한다.
+     * 계좌 row 는 읽기만 하므로 다른 shard 의 잔액 사용과 겹치지 않는다.
+     * 여러 shard 가 주어지면 잔액이 많은 shard 부터 나눠서 빼고, 모두 합쳐도 부족하면 AMOUNT_EXCEED_BALANCE 로 실패한다.
+     * 거래의 balanceSnapshot 은 전체 잔액이지만 다른 shard 의 commit 되지 않은 거래는 반영되지 않는다.
+     */
+    @OptimisticRetry
+    @Transactional
+    public TransactionDto useShardBalance(Long userId, String accountNumber,
+                                          Collection<Integer> shardIndexes, Long amount) {
+        Account account = getOwnedAccount(userId, accountNumber, false);
+        validateUsableAccount(userId, account);
 
-        if (account.getBalance() < amount){
+        List<AccountShard> shards = new ArrayList<>(withRowLockTimeout(() -> isPessimistic()
+                ? accountShardRepository.findLockedByAccountAndShardIndexIn(account, shardIndexes)
+                : accountShardRepository.findByAccountAndShardIndexInOrderByShardIndex(account, shardIndexes)));
+        if (sumBalance(shards) < amount) {
             throw new AccountException(AMOUNT_EXCEED_BALANCE);
         }
+
+        useShardsBalance(shards, amount);
+        accountListCache.evictAfterCommit(userId);
+
+        return TransactionDto.fromEntity(saveAndGetTransaction(amount, account, S, USE,
+                transactionIdGenerator.generate(), null, now(), getTotalBalance(account)));
+    }
+
+    /**
+     * 잔액이 많은 shard 부터 나눠서 뺀다. 호출한 쪽이 shard 잔액의 합이 amount 이상인지 확인해야 한다.
+     */
+    private static void useShardsBalance(List<AccountShard> shards, long amount) {
+        long remaining = amount;
+        List<AccountShard> sorted = new ArrayList<>(shards);
+        sorted.sort(Comparator.comparing(AccountShard::getBalance).reversed());
+        for (AccountShard shard : sorted) {
+            if (remaining == 0) {
+                break;
+            }
+            long used = Math.min(shard.getBalance(), remaining);
+            shard.useBalance(used);
+            remaining -= used;
+        }
+    }
+
+    private static long sumBalance(List<AccountShard> shards) {
+        return shards.stream().mapToLong(AccountShard::getBalance).sum();
+    }
+
+    /**
+     * 거래의 balanceSnapshot 으로 남길 계좌의 전체 잔액 (shard 로 나뉜 계좌는 Account.balance + shard 잔액 합)
+     * 합계 조회 전에 변경한 shard 가 flush 된다.
+     */
+    private long getTotalBalance(Account account) {
+        if (!account.isSharded()) {
+            return account.getBalance();
+        }
+        return account.getBalance() + accountShardRepository.sumBalanceByAccount(account);
     }
 
+    /**
+     * 같은 계좌로 이체하는 경우, 출금 계좌가 없거나 사용자와 소유주가 다른 경우,
+     * 출금/입금 계좌가 해지 상태인 경우, 이체 금액이 출금 계좌 잔액보다 큰 경우 실패 응답
+     *
+     * 두 계좌는 한 번에 조회하고 (pessimistic 모드는 계좌 번호 순으로 row lock),
+     * 출금/입금과 서로를 가리키는 거래 두 건을 하나의 트랜잭션에서 반영한다.
+     *
+     * shard 로 나뉜 출금 계좌는 Account.balance 에서 먼저 빼고 모자란 만큼 잔액이 많은 shard 부터 뺀다.
+     * 호출한 쪽이 두 계좌의 lock 과 출금 계좌의 모든 shard lock 을 잡고 있어야 한다. (LockAopAspect)
+     * 입금은 나뉜 계좌도 Account.balance 에 하고 rebalance 때 shard 로 나눈다.
+     */
+    @OptimisticRetry
     @Transactional
-    public void saveFailedUseTransactions(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+    public TransferDto transfer(Long userId, String fromAccountNumber, String toAccountNumber, Long amount) {
+        if (Objects.equals(fromAccountNumber, toAccountNumber)) {
+            throw new AccountException(TRANSFER_SAME_ACCOUNT);
+        }
+
+        List<String> accountNumbers = List.of(fromAccountNumber, toAccountNumber);
+        Map<String, Account> accounts = withRowLockTimeout(() -> isPessimistic()
+                ? accountRepository.findLockedByAccountNumberIn(accountNumbers)
+                : accountRepository.findByAccountNumberIn(accountNumbers))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        Account fromAccount = accounts.get(fromAccountNumber);
+        if (fromAccount == null) {
+            throw new AccountException(
+                    accountUserRepository.existsById(userId) ? ACCOUNT_NOT_FOUND : USER_NOT_FOUND);
+        }
+        if (!Objects.equals(userId, fromAccount.getAccountUser().getId())
+                && !accountUserRepository.existsById(userId)) {
+            throw new AccountException(USER_NOT_FOUND);
+        }
+        validateUsableAccount(userId, fromAccount);
+        List<AccountShard> fromShards = getAllShards(fromAccount);
+        if (fromAccount.getBalance() + sumBalance(fromShards) < amount) {
+            throw new AccountException(AMOUNT_EXCEED_BALANCE);
+        }
+
+        Account toAccount = accounts.get(toAccountNumber);
+        if (toAccount == null) {
+            throw new AccountException(ACCOUNT_NOT_FOUND);
+        }
+        if (toAccount.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        long usedFromAccount = Math.min(fromAccount.getBalance(), amount);
+        fromAccount.useBalance(usedFromAccount);
+        useShardsBalance(fromShards, amount - usedFromAccount);
+        toAccount.depositBalance(amount);
+        accountListCache.evictAfterCommit(fromAccount.getAccountUser().getId());
+        accountListCache.evictAfterCommit(toAccount.getAccountUser().getId());
+
+        String withdrawalId = transactionIdGenerator.generate();
+        String depositId = transactionIdGenerator.generate();
+        LocalDateTime transactedAt = now();
+        return TransferDto.builder()
+                .withdrawal(TransactionDto.fromEntity(saveAndGetTransaction(amount, fromAccount, S,
+                        TRANSFER_OUT, withdrawalId, depositId, transactedAt, getTotalBalance(fromAccount))))
+                .deposit(TransactionDto.fromEntity(saveAndGetTransaction(amount, toAccount, S,
+                        TRANSFER_IN, depositId, withdrawalId, transactedAt, getTotalBalance(toAccount))))
+                .build();
+    }
+
+    /**
+     * 나뉘지 않은 계좌는 빈 목록, pessimistic 모드는 모든 shard row 에 lock 을 건다.
+     */
+    private List<AccountShard> getAllShards(Account account) {
+        if (!account.isSharded()) {
+            return List.of();
+        }
+        List<Integer> shardIndexes = IntStream.range(0, account.getShardCount()).boxed()
+                .collect(Collectors.toList());
+        return withRowLockTimeout(() -> isPessimistic()
+                ? accountShardRepository.findLockedByAccountAndShardIndexIn(account, shardIndexes)
+                : accountShardRepository.findByAccountAndShardIndexInOrderByShardIndex(account, shardIndexes));
+    }
+
+    /**
+     * 실패한 이체는 출금 계좌의 TRANSFER_OUT 실패 거래로 남긴다.
+     */
+    public void saveFailedTransferTransactions(String fromAccountNumber, Long amount) {
+        failedTransactionRecorder.record(fromAccountNumber, amount, TRANSFER_OUT);
+    }
 
-        saveAndGetTransaction(amount, account, F, USE);
+    /**
+     * 계좌와 사용자 존재 여부를 한 번에 조회한다.
+     * 계좌가 없을 때만 사용자가 있는지 다시 확인해서 USER_NOT_FOUND 를 먼저 응답한다.
+     *
+     * pessimistic 모드에서는 계좌 조회와 동시에 row lock 을 잡아 분산 lock 을 대신한다.
+     * lock 대기 시간 초과는 다른 lock 방식과 같이 ACCOUNT_TRANSACTION_LOCK 으로 실패한다.
+     */
+    private Account getOwnedAccountForUpdate(Long userId, String accountNumber) {
+        return getOwnedAccount(userId, accountNumber, isPessimistic());
+    }
+
+    private Account getOwnedAccount(Long userId, String accountNumber, boolean forUpdate) {
+        AccountOwnership ownership = withRowLockTimeout(() -> forUpdate
+                ? accountRepository.findLockedOwnershipByAccountNumber(accountNumber, userId)
+                : accountRepository.findOwnershipByAccountNumber(accountNumber, userId))
+                .orElseThrow(() -> new AccountException(
+                        accountUserRepository.existsById(userId) ? ACCOUNT_NOT_FOUND : USER_NOT_FOUND));
+
+        if (!ownership.isUserExists()) {
+            throw new AccountException(USER_NOT_FOUND);
+        }
+        return ownership.getAccount();
+    }
+
+    private boolean isPessimistic() {
+        return "pessimistic".equals(lockType);
+    }
+
+    private <T> T withRowLockTimeout(Supplier<T> query) {
+        try {
+            return query.get();
+        } catch (PessimisticLockingFailureException e) {
+            log.error("Account row lock failed", e);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    /**
+     * 실패 거래는 FailedTransactionRecorder 가 모아서 저장한다. (lock 을 잡은 요청 스레드에서 DB 작업 없음)
+     */
+    @Override
+    public void saveFailedUseTransactions(String accountNumber, Long amount) {
+        failedTransactionRecorder.record(accountNumber, amount, USE);
     }
 
+    /**
+     * 저장한 거래는 commit 후 TransactionCache 에 넣어 바로 이어지는 조회가 DB 를 거치지 않게 한다.
+     */
     private Transaction saveAndGetTransaction(Long amount, Account account,
                                                  TransactionResultType resultType,
                                                  TransactionType transactionType) {
-        return transactionRepository.save(
+        return saveAndGetTransaction(amount, account, resultType, transactionType,
+                transactionIdGenerator.generate(), null, now(), account.getBalance());
+    }
+
+    private Transaction saveAndGetTransaction(Long amount, Account account,
+                                              TransactionResultType resultType,
+                                              TransactionType transactionType,
+                                              String transactionId, String pairTransactionId,
+                                              LocalDateTime transactedAt, Long balanceSnapshot) {
+        Transaction transaction = transactionRepository.save(
                 Transaction.builder()
                         .transactionType(transactionType)
                         .transactionResultType(resultType)
                         .account(account)
                         .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                        .transactedAt(LocalDateTime.now())
+                        .balanceSnapshot(balanceSnapshot)
+                        .transactionId(transactionId)
+                        .pairTransactionId(pairTransactionId)
+                        .transactedAt(transactedAt)
                         .build()
         );
+        transactionCache.putAfterCommit(TransactionDto.fromEntity(transaction));
+        return transaction;
+    }
+
+    /**
+     * DB 컬럼 정밀도(마이크로초)에 맞춰야 캐시의 값과 DB 에서 다시 읽은 값이 같다.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
+    @Override
+    @OptimisticRetry
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+        Transaction transaction = withRowLockTimeout(() -> isPessimistic()
+                ? transactionRepository.findLockedWithAccountByTransactionId(transactionId)
+                : transactionRepository.findWithAccountByTransactionId(transactionId))
                 .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        Account account = getCancelAccount(transaction, accountNumber, accountRepository);
 
         validateCancelBalance(amount, transaction, account);
 
         account.cancelBalance(amount);
+        accountListCache.evictAfterCommit(account.getAccountUser().getId());
 
-       return TransactionDto.fromEntity(
-               saveAndGetTransaction(amount, account, S, CANCEL)
-       );
+       return TransactionDto.fromEntity(saveAndGetTransaction(amount, account, S, CANCEL,
+               transactionIdGenerator.generate(), null, now(), getTotalBalance(account)));
     }
 
-    private static void validateCancelBalance(Long amount, Transaction transaction, Account account) {
-        if (!Objects.equals(transaction.getAccount().getId(), account.getId())){
-            throw new AccountException(TRANSACTION_ACCOUNT_UN_MATCH);
-        }
-
-        if (!Objects.equals(transaction.getAmount(), amount)){
-            throw new AccountException(CANCEL_MUST_FULLY);
-        }
-
-        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))){
-            throw new AccountException(TOO_OLD_TRANSACTION_TO_CANCEL);
+    /**
+     * 거래와 함께 조회한 계좌가 요청한 계좌인지 확인한다.
+     * 다른 경우에만 요청한 계좌가 있는지 조회해서 ACCOUNT_NOT_FOUND 와 TRANSACTION_ACCOUNT_UN_MATCH 를 구분한다.
+     */
+    static Account getCancelAccount(Transaction transaction, String accountNumber,
+                                    AccountRepository accountRepository) {
+        Account account = transaction.getAccount();
+        if (!Objects.equals(account.getAccountNumber(), accountNumber)) {
+            throw new AccountException(accountRepository.findIdByAccountNumber(accountNumber).isPresent()
+                    ? TRANSACTION_ACCOUNT_UN_MATCH : ACCOUNT_NOT_FOUND);
         }
+        return account;
     }
 
-    @Transactional
+    @Override
     public void saveFailedCancelTransactions(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
-
-        saveAndGetTransaction(amount, account, F, CANCEL);
+        failedTransactionRecorder.record(accountNumber, amount, CANCEL);
     }
 
+    /**
+     * 저장된 거래는 바뀌지 않으므로 TransactionCache 에 있으면 DB 를 조회하지 않는다.
+     */
+    @Override
     public TransactionDto queryTransaction(String transactionId) {
-        return TransactionDto.fromEntity(
-                transactionRepository.findByTransactionId(transactionId)
-                        .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND))
-        );
+        return transactionCache.get(transactionId, id -> transactionRepository.findDtoByTransactionId(id)
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND)));
     }
 }
@@ -0,0 +1,205 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 같은 노드의 요청은 계좌별 local 대기열(fair lock)에서 먼저 줄을 서고,
+ * 대기열의 맨 앞 요청만 Redis 의 ACLK: lock 을 두고 경합한다.
+ * 뒤에 대기 중인 요청이 있으면 Redis lock 을 해제하지 않고 다음 요청에게 넘겨주며(hand-off),
+ * 다른 노드가 굶지 않도록 hand-off 횟수와 처음 획득한 lease 시간의 절반으로 넘겨주는 범위를 제한한다.
+ *
+ * Redis lock 의 소유자는 스레드가 아니라 계좌 대기열이므로 별도의 owner id 를 사용하여
+ * 다른 스레드가 획득한 lock 도 해제할 수 있게 한다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "account.lock.type", havingValue = "two-tier")
+public class TwoTierLockService implements LockProvider {
+    private static final long WATCHDOG_HAND_OFF_WINDOW_MILLIS = 15000L;
+
+    private final RedissonClient redissonClient;
+    private final int maxHandOffs;
+
+    private final ConcurrentHashMap<String, LocalQueue> queues = new ConcurrentHashMap<>();
+
+    public TwoTierLockService(RedissonClient redissonClient,
+                              @Value("${account.lock.two-tier.max-hand-offs:16}") int maxHandOffs) {
+        this.redissonClient = redissonClient;
+        this.maxHandOffs = maxHandOffs;
+    }
+
+    @Override
+    public void lock(String accountNumber, LockPolicy policy) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getWaitTime());
+        LocalQueue queue = queues.compute(accountNumber, (key, current) -> {
+            LocalQueue q = current == null ? new LocalQueue(LockOwnerIds.next()) : current;
+            q.users++;
+            return q;
+        });
+        log.debug("Trying two-tier lock for accountNumber : {}", accountNumber);
+
+        boolean acquired = false;
+        try {
+            if (!queue.lock.tryLock(policy.getWaitTime(), TimeUnit.MILLISECONDS)) {
+                releaseAbandonedHandOff(accountNumber, queue);
+                throw lockFailed();
+            }
+
+            try {
+                if (!queue.distributedHeld) {
+                    long remaining = Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                    boolean isLock = awaitDistributedLock(accountNumber, queue.ownerId, getDistributedLock(accountNumber)
+                            .tryLockAsync(remaining, policy.getLeaseTime(), TimeUnit.MILLISECONDS, queue.ownerId));
+
+                    if (!isLock) {
+                        throw lockFailed();
+                    }
+                    queue.distributedHeld = true;
+                    queue.acquiredAt = System.nanoTime();
+                    queue.handOffWindow = TimeUnit.MILLISECONDS.toNanos(policy.isWatchdog()
+                            ? WATCHDOG_HAND_OFF_WINDOW_MILLIS : policy.getLeaseTime()) / 2;
+                    queue.handOffs = 0;
+                }
+                acquired = true;
+            } finally {
+                if (!acquired) {
+                    queue.lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lockFailed();
+        } catch (ExecutionException e) {
+            log.error("Redis lock failed", e);
+            throw lockFailed();
+        } finally {
+            if (!acquired) {
+                leave(accountNumber);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(String accountNumber) {
+        log.debug("Two-tier unlock for accountNumber : {}", accountNumber);
+        LocalQueue queue = queues.get(accountNumber);
+        if (queue == null || !queue.lock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("lock is not held by current thread : " + accountNumber);
+        }
+
+        try {
+            if (canHandOff(queue)) {
+                queue.handOffs++;
+                log.debug("Hand off lock for accountNumber : {} ({})", accountNumber, queue.handOffs);
+            } else {
+                releaseDistributed(accountNumber, queue);
+            }
+        } finally {
+            queue.lock.unlock();
+            leave(accountNumber);
+        }
+    }
+
+    int getQueueLength(String accountNumber) {
+        LocalQueue queue = queues.get(accountNumber);
+        return queue == null ? 0 : queue.lock.getQueueLength();
+    }
+
+    private boolean canHandOff(LocalQueue queue) {
+        return queue.lock.hasQueuedThreads()
+                && queue.handOffs < maxHandOffs
+                && System.nanoTime() - queue.acquiredAt < queue.handOffWindow;
+    }
+
+    /**
+     * hand-off 를 받기로 한 대기자가 시간 초과로 떠나면 Redis lock 이 lease 만료 전까지 남으므로
+     * local lock 이 비어 있고 다른 대기자가 없으면 대신 해제한다.
+     */
+    private void releaseAbandonedHandOff(String accountNumber, LocalQueue queue) {
+        if (!queue.lock.tryLock()) {
+            return;
+        }
+        try {
+            if (queue.distributedHeld && !queue.lock.hasQueuedThreads()) {
+                releaseDistributed(accountNumber, queue);
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    /**
+     * 기다리는 중에 interrupt 되면 획득 요청을 취소한다.
+     * 이미 Redis 에서 획득이 진행 중이어서 취소되지 않으면 나중에 획득에 성공하는 즉시 해제하여
+     * 호출자가 포기한 lock 이 lease 만료까지 남지 않게 한다.
+     */
+    private boolean awaitDistributedLock(String accountNumber, long ownerId, RFuture<Boolean> future)
+            throws InterruptedException, ExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            future.whenComplete((isLock, error) -> {
+                if (Boolean.TRUE.equals(isLock)) {
+                    log.debug("Release abandoned lock for accountNumber : {}", accountNumber);
+                    getDistributedLock(accountNumber).unlockAsync(ownerId);
+                }
+            });
+            throw e;
+        }
+    }
+
+    private void releaseDistributed(String accountNumber, LocalQueue queue) {
+        queue.distributedHeld = false;
+        getDistributedLock(accountNumber).unlockAsync(queue.ownerId).syncUninterruptibly();
+    }
+
+    private void leave(String accountNumber) {
+        queues.computeIfPresent(accountNumber, (key, queue) -> --queue.users == 0 ? null : queue);
+    }
+
+    private RLock getDistributedLock(String accountNumber) {
+        return redissonClient.getLock(getLockKey(accountNumber));
+    }
+
+    private static AccountException lockFailed() {
+        log.error("================= Lock acquisition failed ===============");
+        return new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+    }
+
+    private static String getLockKey(String accountNumber) {
+        return "ACLK:" + accountNumber;
+    }
+
+    /**
+     * users 는 queues.compute 안에서만, 나머지 필드는 lock 을 잡은 스레드만 변경한다.
+     */
+    private static class LocalQueue {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final long ownerId;
+
+        private int users;
+        private boolean distributedHeld;
+        private long acquiredAt;
+        private long handOffWindow;
+        private int handOffs;
+
+        private LocalQueue(long ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+}
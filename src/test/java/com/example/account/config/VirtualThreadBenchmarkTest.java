@@ -0,0 +1,298 @@
+package com.example.account.config;
+
+import com.example.account.AccountApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tomcat 기본 스레드 풀(200)과 요청마다 만드는 가상 스레드(account.threads.virtual=true)의 비교
+ * 애플리케이션을 모드별로 띄워서 ACCOUNTS 개 계좌에 돌아가며 CONCURRENCY 개씩 동시에 POST /transaction/use 를 보내므로
+ * 요청은 Tomcat, LockAopAspect 의 Redis lock, JDBC 를 모두 거치지만 한 계좌의 lock 에 줄 서지는 않는다.
+ * 모드별로 처리량, lock 획득 실패 수, 응답 시간(p50/p99), 서버에서 동시에 처리 중이던 요청 수의 최대값,
+ * 힙/RSS 최대값과 처리 중인 요청 하나당 힙 증가량을 출력하고, 성공한 출금만큼 잔액이 줄었는지 확인한다.
+ * 애플리케이션과 HTTP client 가 같은 JVM 에 있으므로 힙/RSS 에는 client 몫도 들어 있다.
+ * 가상 스레드는 Java 21 이상에서만 측정하고, 그보다 낮으면 스레드 풀 결과만 출력한다.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmarkTest {
+    private static final int REQUESTS = 4_000;
+    private static final int CONCURRENCY = 400;
+    // 사용자당 계좌는 10 개까지이므로 ACCOUNTS / 10 명의 사용자를 만든다.
+    private static final int ACCOUNTS = 400;
+    private static final long FIRST_USER_ID = 1_000L;
+    private static final long SAMPLE_INTERVAL_MILLIS = 10L;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final long INITIAL_BALANCE = 1_000_000_000L;
+    private static final long AMOUNT = 10L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("스레드 풀 vs 가상 스레드 - 여러 계좌에 나눠 보낸 잔액 사용 요청")
+    void compareUnderConcurrentRequests() throws Exception {
+        Result pool = measure(false);
+        assertThat(pool.completed()).isEqualTo(REQUESTS);
+
+        assumeTrue(VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor().isPresent(),
+                "virtual threads need Java 21+, running on " + Runtime.version());
+        Result virtual = measure(true);
+        assertThat(virtual.completed()).isEqualTo(REQUESTS);
+    }
+
+    private Result measure(boolean virtualThreads) throws Exception {
+        String name = virtualThreads ? "virtual" : "platform pool";
+        InFlightFilter inFlightFilter = new InFlightFilter();
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(AccountApplication.class)
+                        .initializers(applicationContext -> ((GenericApplicationContext) applicationContext)
+                                .registerBean(InFlightFilter.class, () -> inFlightFilter))
+                        .properties(
+                                "server.port=0",
+                                "account.threads.virtual=" + virtualThreads,
+                                "spring.jpa.properties.hibernate.show_sql=false",
+                                "logging.level.root=warn")
+                        .run()) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+            List<BenchmarkAccount> accounts = createAccounts(baseUrl, context.getBean(JdbcTemplate.class));
+
+            Result result = runRequests(baseUrl, accounts, inFlightFilter);
+            long[] latencies = Arrays.stream(result.latencyNanos).sorted().toArray();
+            System.out.printf("%-13s : %d requests on %d accounts in %d ms (%.0f req/s), succeeded %d,"
+                            + " lock failed %d, other errors %d, p50 %d ms, p99 %d ms%n",
+                    name, REQUESTS, ACCOUNTS, result.elapsedMillis, REQUESTS * 1000.0 / result.elapsedMillis,
+                    result.succeeded.get(), result.lockFailed.get(), result.otherErrors.get(),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length * 99 / 100]));
+            System.out.printf("%-13s : peak in-flight %d, heap %d MB -> peak %d MB (%d KB per in-flight request),"
+                            + " peak RSS %s%n",
+                    name, result.peakInFlight.get(), toMegaBytes(result.baselineHeapBytes),
+                    toMegaBytes(result.peakHeapBytes.get()), result.heapBytesPerInFlight() / 1024,
+                    result.peakRssBytes.get() < 0 ? "n/a" : toMegaBytes(result.peakRssBytes.get()) + " MB");
+
+            for (BenchmarkAccount account : accounts) {
+                JsonNode found = get(baseUrl + "/account?user_id=" + account.userId)
+                        .findParents("accountNumber").stream()
+                        .filter(node -> node.get("accountNumber").asText().equals(account.accountNumber))
+                        .findFirst()
+                        .orElseThrow();
+                assertThat(found.get("balance").asLong())
+                        .isEqualTo(INITIAL_BALANCE - AMOUNT * account.succeeded.get());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 사용자를 DB 에 직접 넣고 사용자마다 계좌를 10 개씩 만든다.
+     */
+    private List<BenchmarkAccount> createAccounts(String baseUrl, JdbcTemplate jdbcTemplate) throws Exception {
+        List<BenchmarkAccount> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long userId = FIRST_USER_ID + i / 10;
+            if (i % 10 == 0) {
+                jdbcTemplate.update("insert into account_user(id, name, created_at, updated_at)"
+                        + " values (?, ?, now(), now())", userId, "benchmark-" + userId);
+            }
+            String accountNumber = post(baseUrl + "/account",
+                    "{\"userId\":" + userId + ",\"initialBalance\":" + INITIAL_BALANCE + "}")
+                    .get("accountNumber").asText();
+            accounts.add(new BenchmarkAccount(userId, accountNumber));
+        }
+        return accounts;
+    }
+
+    /**
+     * REQUESTS 건을 계좌에 돌아가며 최대 CONCURRENCY 개씩 동시에 보내고 모두 응답받을 때까지 걸린 시간을 잰다.
+     * 보내는 동안 SAMPLE_INTERVAL_MILLIS 마다 서버에서 처리 중인 요청 수와 힙/RSS 를 잰다.
+     */
+    private Result runRequests(String baseUrl, List<BenchmarkAccount> accounts, InFlightFilter inFlightFilter)
+            throws Exception {
+        Result result = new Result();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CompletableFuture<?>[] responses = new CompletableFuture[REQUESTS];
+
+        System.gc();
+        result.baselineHeapBytes = MEMORY.getHeapMemoryUsage().getUsed();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> result.sample(inFlightFilter.inFlight.get()),
+                0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                BenchmarkAccount account = accounts.get(i % accounts.size());
+                String body = "{\"userId\":" + account.userId + ",\"accountNumber\":\"" + account.accountNumber
+                        + "\",\"amount\":" + AMOUNT + "}";
+                inFlight.acquire();
+                long sentAt = System.nanoTime();
+                responses[i] = httpClient.sendAsync(jsonRequest(baseUrl + "/transaction/use", body),
+                                HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, e) -> {
+                            result.latencyNanos[index] = System.nanoTime() - sentAt;
+                            inFlight.release();
+                            if (result.count(response, e)) {
+                                account.succeeded.incrementAndGet();
+                            }
+                        });
+            }
+            CompletableFuture.allOf(responses).exceptionally(e -> null).get(5, TimeUnit.MINUTES);
+            result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            sampler.shutdownNow();
+        }
+        result.peakInFlight.accumulateAndGet(inFlightFilter.peakInFlight.get(), Math::max);
+        return result;
+    }
+
+    private JsonNode post(String url, String body) throws Exception {
+        return objectMapper.readTree(httpClient.send(jsonRequest(url, body),
+                HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private JsonNode get(String url) throws Exception {
+        return objectMapper.readTree(httpClient.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private static long toMegaBytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /**
+     * /proc/self/status 의 VmRSS, Linux 가 아니면 -1
+     */
+    private static long readRssBytes() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static HttpRequest jsonRequest(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * 서버에서 처리 중인 요청 수와 그 최대값
+     */
+    private static class InFlightFilter extends OncePerRequestFilter {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static class BenchmarkAccount {
+        private final long userId;
+        private final String accountNumber;
+        private final AtomicInteger succeeded = new AtomicInteger();
+
+        private BenchmarkAccount(long userId, String accountNumber) {
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+        }
+    }
+
+    private static class Result {
+        private final long[] latencyNanos = new long[REQUESTS];
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger lockFailed = new AtomicInteger();
+        private final AtomicInteger otherErrors = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+        private final AtomicLong peakRssBytes = new AtomicLong(-1);
+        // 처리 중인 요청 하나당 힙 증가량 ((힙 - baseline) / 처리 중인 요청 수) 의 최대값
+        private final AtomicLong peakHeapBytesPerInFlight = new AtomicLong();
+        private long baselineHeapBytes;
+        private long elapsedMillis;
+
+        /**
+         * @return 출금에 성공했으면 true
+         */
+        private boolean count(HttpResponse<String> response, Throwable e) {
+            if (e != null || response.statusCode() != 200) {
+                otherErrors.incrementAndGet();
+            } else if (response.body().contains("ACCOUNT_TRANSACTION_LOCK")) {
+                lockFailed.incrementAndGet();
+            } else if (response.body().contains("\"transactionResultType\":\"S\"")) {
+                succeeded.incrementAndGet();
+                return true;
+            } else {
+                otherErrors.incrementAndGet();
+            }
+            return false;
+        }
+
+        private void sample(int inFlight) {
+            long heap = MEMORY.getHeapMemoryUsage().getUsed();
+            peakInFlight.accumulateAndGet(inFlight, Math::max);
+            peakHeapBytes.accumulateAndGet(heap, Math::max);
+            peakRssBytes.accumulateAndGet(readRssBytes(), Math::max);
+            if (inFlight > 0) {
+                peakHeapBytesPerInFlight.accumulateAndGet(
+                        Math.max(0, heap - baselineHeapBytes) / inFlight, Math::max);
+            }
+        }
+
+        private long heapBytesPerInFlight() {
+            return peakHeapBytesPerInFlight.get();
+        }
+
+        private int completed() {
+            return succeeded.get() + lockFailed.get() + otherErrors.get();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.account.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Java 21 이상에서 실행해야 가상 스레드 쪽을 검증한다. (./gradlew virtualThreadTest)
+ * 그보다 낮은 JVM 에서는 기동에 실패하는지만 확인한다.
+ */
+class VirtualThreadConfigurationTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfiguration.class);
+
+    @Test
+    @DisplayName("account.threads.virtual 이 없으면 Tomcat 스레드 풀을 그대로 씀")
+    void disabledByDefault() {
+        contextRunner.run(context -> assertThat(context)
+                .hasNotFailed()
+                .doesNotHaveBean(VirtualThreadConfiguration.class));
+    }
+
+    @Test
+    @DisplayName("Java 21 미만에서 account.threads.virtual=true 이면 기동에 실패")
+    void failOnJavaBelow21() {
+        assumeTrue(Runtime.version().feature() < 21, "running on " + Runtime.version());
+
+        contextRunner.withPropertyValues("account.threads.virtual=true")
+                .run(context -> {
+                    assertThat(context).hasFailed();
+                    assertThat(context.getStartupFailure())
+                            .hasRootCauseInstanceOf(IllegalStateException.class)
+                            .hasStackTraceContaining("account.threads.virtual=true requires Java 21 or later");
+                });
+    }
+
+    @Test
+    @DisplayName("Java 21 이상이면 요청을 가상 스레드에서 처리")
+    @SuppressWarnings("unchecked")
+    void handleRequestsOnVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "running on " + Runtime.version());
+
+        contextRunner.withPropertyValues("account.threads.virtual=true")
+                .run(context -> {
+                    ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+                    context.getBean(TomcatProtocolHandlerCustomizer.class).customize(protocolHandler);
+
+                    ArgumentCaptor<Executor> executor = ArgumentCaptor.forClass(Executor.class);
+                    verify(protocolHandler).setExecutor(executor.capture());
+                    Future<Object> isVirtual = ((ExecutorService) executor.getValue())
+                            .submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+                    assertThat(isVirtual.get()).isEqualTo(true);
+                });
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.account.controller;
 
-import com.example.account.domain.Account;
+import com.example.account.dto.AccountDetail;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountInfo;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
 import com.example.account.exception.AccountException;
@@ -99,7 +100,9 @@ class AccountControllerTest {
     void successGetAccount() throws Exception {
         //given
         given(accountService.getAccount(anyLong()))
-                .willReturn(Account.builder()
+                .willReturn(AccountDetail.builder()
+                        .id(876L)
+                        .userId(1L)
                         .accountNumber("3456")
                         .accountStatus(AccountStatus.IN_USE)
                         .build());
@@ -111,6 +114,8 @@ class AccountControllerTest {
                 .andDo(print()) // 요청과 응답 HTTP 메시지를 출력해줌
                 .andExpect(jsonPath("$.accountNumber").value("3456"))
                 .andExpect(jsonPath("$.accountStatus").value("IN_USE"))
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.accountUser").doesNotExist())
                 .andExpect(status().isOk());
     }
 
@@ -118,20 +123,20 @@ class AccountControllerTest {
     @DisplayName("유저 ID로 계좌 리스트 가져오기 성공")
     void successGetAccountsByUserId() throws Exception {
         //given
-        List<AccountDto> accountDtos = Arrays.asList(
-                AccountDto.builder()
+        List<AccountInfo> accountInfos = Arrays.asList(
+                AccountInfo.builder()
                         .accountNumber("1234567890")
                         .balance(1000L).build(),
-                AccountDto.builder()
+                AccountInfo.builder()
                         .accountNumber("1111111111")
                         .balance(2000L).build(),
-                AccountDto.builder()
+                AccountInfo.builder()
                         .accountNumber("2222222222")
                         .balance(3000L).build()
         );
 
-        given(accountService.getAccountsByUserId(anyLong()))
-                .willReturn(accountDtos);
+        given(accountService.getAccountInfosByUserId(anyLong()))
+                .willReturn(accountInfos);
 
         //when
         //then
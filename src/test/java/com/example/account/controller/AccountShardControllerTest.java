@@ -0,0 +1,72 @@
+package com.example.account.controller;
+
+import com.example.account.dto.ShardAccount;
+import com.example.account.service.AccountShardService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AccountShardController.class, properties = "account.shard.enabled=true")
+class AccountShardControllerTest {
+    @MockBean
+    private AccountShardService accountShardService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shardAccountSuccess() throws Exception {
+        //given
+        given(accountShardService.shardAccount(anyLong(), anyString(), anyInt()))
+                .willReturn(ShardAccount.Response.builder()
+                        .userId(1L)
+                        .accountNumber("1000000000")
+                        .shardCount(8)
+                        .balance(100000L)
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(post("/account/shard")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ShardAccount.Request(1L, "1000000000", 8)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.shardCount").value(8))
+                .andExpect(jsonPath("$.balance").value(100000));
+    }
+
+    @Test
+    void shardAccount_invalidShardCount() throws Exception {
+        //given
+        //when
+        //then
+        mockMvc.perform(post("/account/shard")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ShardAccount.Request(1L, "1000000000", 1)
+                        ))
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.account.controller;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.service.TransactionBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+import static com.example.account.type.TransactionResultType.S;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionBatchController.class)
+class TransactionBatchControllerTest {
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void useBalancesSuccess() throws Exception {
+        //given
+        given(transactionBatchService.useBalances(anyList()))
+                .willReturn(List.of(
+                        UseBalanceBatch.Item.builder()
+                                .accountNumber("1000000000")
+                                .transactionResultType(S)
+                                .transactionId("transactionId")
+                                .amount(1000L)
+                                .transactedAt(LocalDateTime.now())
+                                .build(),
+                        UseBalanceBatch.Item.failure("1000000000", 20000L, AMOUNT_EXCEED_BALANCE)));
+
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UseBalanceBatch.Request(List.of(
+                                new UseBalance.Request(1L, "1000000000", 1000L),
+                                new UseBalance.Request(1L, "1000000000", 20000L))))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].transactionResultType").value("S"))
+                .andExpect(jsonPath("$.results[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.results[1].transactionResultType").value("F"))
+                .andExpect(jsonPath("$.results[1].errorCode").value("AMOUNT_EXCEED_BALANCE"));
+    }
+
+    @Test
+    void useBalances_invalidItem() throws Exception {
+        //given
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UseBalanceBatch.Request(List.of(
+                                new UseBalance.Request(1L, "1000000000", 1000L),
+                                new UseBalance.Request(1L, "123", 1000L))))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_REQUEST"));
+        verifyNoInteractions(transactionBatchService);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.account.controller;
+
+import com.example.account.exception.AccountException;
+import com.example.account.service.TransactionExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ExportFormat.CSV;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionExportController.class)
+class TransactionExportControllerTest {
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("거래 내역 내보내기 - gzip")
+    void exportTransactionsGzip() throws Exception {
+        //given
+        given(transactionExportService.getAccountId("1000000000"))
+                .willReturn(1L);
+        given(transactionExportService.export(eq(1L), eq(CSV), any()))
+                .willAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(2);
+                    out.write("header\nrow\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        //when
+        MvcResult result = mockMvc.perform(get("/account/1000000000/transactions/export")
+                        .param("format", "CSV")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"transactions-1000000000.csv\""))
+                .andReturn();
+
+        //then
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(
+                result.getResponse().getContentAsByteArray())).readAllBytes();
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("header\nrow\n");
+    }
+
+    @Test
+    @DisplayName("해당 계좌 없음 - 거래 내역 내보내기 실패")
+    void exportTransactionsAccountNotFound() throws Exception {
+        //given
+        given(transactionExportService.getAccountId("1000000000"))
+                .willThrow(new AccountException(ACCOUNT_NOT_FOUND));
+
+        //when
+        //then
+        mockMvc.perform(get("/account/1000000000/transactions/export"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.errorCode").value("ACCOUNT_NOT_FOUND"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.account.controller;
+
+import com.example.account.dto.TransactionHistory;
+import com.example.account.service.TransactionHistoryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionHistoryController.class)
+class TransactionHistoryControllerTest {
+    @MockBean
+    private TransactionHistoryService transactionHistoryService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("거래 내역 조회 성공")
+    void getTransactionsSuccess() throws Exception {
+        //given
+        given(transactionHistoryService.getTransactions(eq("1000000000"), eq("cursor"), eq(2),
+                eq(USE), eq(S), eq(LocalDateTime.of(2022, 6, 1, 0, 0)), isNull()))
+                .willReturn(TransactionHistory.Response.builder()
+                        .transactions(List.of(TransactionHistory.Item.builder()
+                                .transactionId("transactionId")
+                                .transactionType(USE)
+                                .transactionResultType(S)
+                                .amount(1000L)
+                                .balanceSnapshot(9000L)
+                                .transactedAt(LocalDateTime.now())
+                                .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(get("/account/1000000000/transactions")
+                        .param("cursor", "cursor")
+                        .param("size", "2")
+                        .param("transaction_type", "USE")
+                        .param("result_type", "S")
+                        .param("from", "2022-06-01T00:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactions[0].balanceSnapshot").value(9000))
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
+}
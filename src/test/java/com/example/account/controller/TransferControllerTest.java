@@ -0,0 +1,97 @@
+package com.example.account.controller;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferBalance;
+import com.example.account.dto.TransferDto;
+import com.example.account.exception.AccountException;
+import com.example.account.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+import static com.example.account.type.TransactionResultType.S;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransferController.class)
+class TransferControllerTest {
+    @MockBean
+    private TransactionService transactionService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void transferSuccess() throws Exception {
+        //given
+        LocalDateTime transactedAt = LocalDateTime.now();
+        given(transactionService.transfer(anyLong(), anyString(), anyString(), anyLong()))
+                .willReturn(TransferDto.builder()
+                        .withdrawal(TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactionResultType(S)
+                                .transactionId("transactionId1")
+                                .amount(1000L)
+                                .transactedAt(transactedAt)
+                                .build())
+                        .deposit(TransactionDto.builder()
+                                .accountNumber("1000000001")
+                                .transactionResultType(S)
+                                .transactionId("transactionId2")
+                                .amount(1000L)
+                                .transactedAt(transactedAt)
+                                .build())
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferBalance.Request(1L, "1000000000", "1000000001", 1000L)
+                        )))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromAccountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.toAccountNumber").value("1000000001"))
+                .andExpect(jsonPath("$.withdrawalTransactionId").value("transactionId1"))
+                .andExpect(jsonPath("$.depositTransactionId").value("transactionId2"))
+                .andExpect(jsonPath("$.amount").value(1000));
+    }
+
+    @Test
+    void transferFail_savesFailedTransaction() throws Exception {
+        //given
+        given(transactionService.transfer(anyLong(), anyString(), anyString(), anyLong()))
+                .willThrow(new AccountException(AMOUNT_EXCEED_BALANCE));
+
+        //when
+        //then
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferBalance.Request(1L, "1000000000", "1000000001", 1000L)
+                        )))
+                .andDo(print())
+                .andExpect(jsonPath("$.errorCode").value("AMOUNT_EXCEED_BALANCE"));
+
+        verify(transactionService).saveFailedTransferTransactions(eq("1000000000"), eq(1000L));
+    }
+}
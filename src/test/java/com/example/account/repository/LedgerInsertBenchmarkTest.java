@@ -0,0 +1,130 @@
+package com.example.account.repository;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.type.AccountStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 거래 내역 1건을 commit 하는 데 필요한 SQL 문 수
+ * 기본 @GeneratedValue 는 1건마다 시퀀스 조회 + insert 로 2개였다.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerInsertBenchmarkTest {
+    private static final int ROWS = 5000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        account = accountRepository.save(Account.builder()
+                .accountUser(accountUserRepository.findById(1L).get())
+                .accountNumber(UUID.randomUUID().toString().substring(0, 10))
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(0L)
+                .build());
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("모아서 저장 - batch insert")
+    void batchInsert() {
+        //given
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(transaction());
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //when
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.saveAll(transactions));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //then
+        double statementsPerRow = report("batch insert", elapsedMillis);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        assertThat(statementsPerRow).isLessThan(0.1);
+    }
+
+    @Test
+    @DisplayName("거래마다 commit - 시퀀스 조회 없이 insert 만")
+    void insertPerTransaction() {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //when
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.save(transaction()));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //then
+        double statementsPerRow = report("insert per transaction", elapsedMillis);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        assertThat(statementsPerRow).isLessThan(1.1);
+    }
+
+    private double report(String name, long elapsedMillis) {
+        double statementsPerRow = (double) statistics.getPrepareStatementCount() / ROWS;
+        System.out.printf("%s : rows=%d, statements=%d (%.3f / row), %d ms%n",
+                name, ROWS, statistics.getPrepareStatementCount(), statementsPerRow, elapsedMillis);
+        return statementsPerRow;
+    }
+
+    private Transaction transaction() {
+        return Transaction.builder()
+                .transactionType(USE)
+                .transactionResultType(S)
+                .account(account)
+                .amount(1000L)
+                .balanceSnapshot(0L)
+                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.account.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 데이터가 늘어나도 계좌 번호 / 거래 번호 조회 시간이 일정한지 확인
+ * 계좌 1 : 거래 10 비율로 거래 200만 건까지 늘려 가며 단계마다 조회 시간을 잰다.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LookupScaleBenchmarkTest {
+    private static final int[] TRANSACTION_SCALES = {10_000, 100_000, 1_000_000, 2_000_000};
+    private static final int LOOKUPS = 2_000;
+    // 시퀀스로 발급되는 id 와 겹치지 않도록
+    private static final long ID_OFFSET = 100_000_000L;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("계좌 번호 / 거래 번호 조회 - 데이터 규모별")
+    void lookupLatency() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Random random = new Random(1);
+        List<double[]> results = new ArrayList<>();
+
+        int transactions = 0;
+        for (int scale : TRANSACTION_SCALES) {
+            insertRows(jdbcTemplate, transactions, scale);
+            transactions = scale;
+
+            List<String> accountNumbers = new ArrayList<>();
+            List<String> transactionIds = new ArrayList<>();
+            for (int i = 0; i < LOOKUPS; i++) {
+                long row = random.nextInt(scale);
+                transactionIds.add(jdbcTemplate.queryForObject(
+                        "select transaction_id from transaction where id = ?", String.class, ID_OFFSET + row));
+                accountNumbers.add(jdbcTemplate.queryForObject(
+                        "select account_number from account where id = ?", String.class, ID_OFFSET + row / 10));
+            }
+
+            double accountMicros = measure(accountNumbers,
+                    accountNumber -> assertThat(accountRepository.findByAccountNumber(accountNumber)).isPresent());
+            double transactionMicros = measure(transactionIds,
+                    transactionId -> assertThat(transactionRepository.findByTransactionId(transactionId)).isPresent());
+            results.add(new double[]{accountMicros, transactionMicros});
+            System.out.printf("transactions=%d, accounts=%d : findByAccountNumber %.1f us, findByTransactionId %.1f us%n",
+                    scale, scale / 10, accountMicros, transactionMicros);
+        }
+
+        double[] smallest = results.get(0);
+        double[] largest = results.get(results.size() - 1);
+        assertThat(largest[0]).isLessThan(smallest[0] * 5);
+        assertThat(largest[1]).isLessThan(smallest[1] * 5);
+    }
+
+    private static void insertRows(JdbcTemplate jdbcTemplate, int from, int to) {
+        jdbcTemplate.update("insert into account (id, account_number, account_status, balance, version,"
+                        + " account_user_id, registered_at, created_at, updated_at)"
+                        + " select ? + x, cast(5000000000 + x as varchar), 'IN_USE', 0, 0, 1, now(), now(), now()"
+                        + " from system_range(?, ?)",
+                ID_OFFSET, from / 10, to / 10 - 1);
+        jdbcTemplate.update("insert into transaction (id, account_id, amount, balance_snapshot, transacted_at,"
+                        + " transaction_id, transaction_result_type, transaction_type, created_at, updated_at)"
+                        + " select ? + x, ? + x / 10, 1000, 0, now(), replace(cast(random_uuid() as varchar), '-', ''),"
+                        + " 'S', 'USE', now(), now()"
+                        + " from system_range(?, ?)",
+                ID_OFFSET, ID_OFFSET, from, to - 1);
+    }
+
+    private static double measure(List<String> keys, Consumer<String> lookup) {
+        // JIT / 캐시 준비
+        keys.subList(0, keys.size() / 4).forEach(lookup);
+
+        long start = System.nanoTime();
+        keys.forEach(lookup);
+        return (System.nanoTime() - start) / 1000.0 / keys.size();
+    }
+}
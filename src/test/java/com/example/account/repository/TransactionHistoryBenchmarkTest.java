@@ -0,0 +1,95 @@
+package com.example.account.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 계좌의 거래 50만 건에서 페이지 깊이에 따른 조회 시간
+ * keyset(커서) 방식과 offset 방식을 같은 쿼리로 비교한다.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionHistoryBenchmarkTest {
+    private static final int ROWS = 500_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] PAGES = {0, 1_000, 10_000, 24_000};
+    private static final long ACCOUNT_ID = 100_000_000L;
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("거래 내역 페이지 조회 - keyset / offset")
+    void pageLatencyByDepth() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into account (id, account_number, account_status, balance, version,"
+                + " account_user_id, registered_at, created_at, updated_at)"
+                + " values (?, '9000000000', 'IN_USE', 0, 0, 1, now(), now(), now())", ACCOUNT_ID);
+        jdbcTemplate.update("insert into transaction (id, account_id, amount, balance_snapshot, transacted_at,"
+                        + " transaction_id, transaction_result_type, transaction_type, created_at, updated_at)"
+                        + " select ? + x, ?, 1000, 0, dateadd('SECOND', x, timestamp '2022-01-01 00:00:00'),"
+                        + " 'T' || x, 'S', 'USE', now(), now()"
+                        + " from system_range(0, ?)",
+                ACCOUNT_ID, ACCOUNT_ID, ROWS - 1);
+
+        double firstKeyset = 0;
+        double deepestKeyset = 0;
+        for (int page : PAGES) {
+            // 이전 페이지의 마지막 거래 = 커서
+            LocalDateTime cursorAt = MAX_TIME;
+            long cursorId = Long.MAX_VALUE;
+            if (page > 0) {
+                Map<String, Object> last = jdbcTemplate.queryForMap("select transacted_at, id from transaction"
+                        + " where account_id = ? order by transacted_at desc, id desc limit 1 offset ?",
+                        ACCOUNT_ID, page * PAGE_SIZE - 1);
+                cursorAt = ((Timestamp) last.get("TRANSACTED_AT")).toLocalDateTime();
+                cursorId = ((Number) last.get("ID")).longValue();
+            }
+            LocalDateTime keysetAt = cursorAt;
+            long keysetId = cursorId;
+
+            double keyset = measure(20, () -> assertThat(transactionRepository.findHistory(ACCOUNT_ID, MIN_TIME,
+                    keysetAt, keysetId, null, null, PageRequest.of(0, PAGE_SIZE))).hasSize(PAGE_SIZE));
+            double offset = measure(3, () -> assertThat(transactionRepository.findHistory(ACCOUNT_ID, MIN_TIME,
+                    MAX_TIME, Long.MAX_VALUE, null, null, PageRequest.of(page, PAGE_SIZE))).hasSize(PAGE_SIZE));
+            System.out.printf("page %d (offset %d) : keyset %.2f ms, offset %.2f ms%n",
+                    page, page * PAGE_SIZE, keyset, offset);
+
+            if (page == 0) {
+                firstKeyset = keyset;
+            }
+            deepestKeyset = keyset;
+        }
+
+        assertThat(deepestKeyset).isLessThan(Math.max(firstKeyset, 1.0) * 5);
+    }
+
+    private static double measure(int repeat, Runnable query) {
+        query.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / repeat;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionResultType.S;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBatchProcessorTest {
+    @Mock
+    private BalanceService balanceService;
+
+    @InjectMocks
+    private AccountBatchProcessor accountBatchProcessor;
+
+    @Test
+    @DisplayName("계좌 묶음 처리 - 실패한 건만 실패 거래로 기록")
+    void useBalances_recordFailedItems() {
+        //given
+        List<UseBalance.Request> requests = List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(1L, "1000000000", 200L));
+        given(balanceService.useBalances("1000000000", requests))
+                .willReturn(List.of(
+                        UseBalanceBatch.Item.builder()
+                                .accountNumber("1000000000")
+                                .transactionResultType(S)
+                                .amount(100L)
+                                .build(),
+                        UseBalanceBatch.Item.failure("1000000000", 200L, AMOUNT_EXCEED_BALANCE)));
+
+        //when
+        List<UseBalanceBatch.Item> items = accountBatchProcessor.useBalances(
+                new UseBalanceBatch.AccountRequests("1000000000", requests));
+
+        //then
+        assertThat(items).hasSize(2);
+        verify(balanceService, times(1)).saveFailedUseTransactions("1000000000", 200L);
+        verify(balanceService, never()).saveFailedUseTransactions("1000000000", 100L);
+    }
+
+    @Test
+    @DisplayName("계좌 묶음 처리 실패 - 모든 건을 실패 거래로 기록")
+    void useBalances_allFailed() {
+        //given
+        List<UseBalance.Request> requests = List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(1L, "1000000000", 200L));
+        given(balanceService.useBalances(anyString(), anyList()))
+                .willThrow(new AccountException(ACCOUNT_TRANSACTION_LOCK));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountBatchProcessor.useBalances(
+                        new UseBalanceBatch.AccountRequests("1000000000", requests)));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verify(balanceService, times(2)).saveFailedUseTransactions(eq("1000000000"), anyLong());
+    }
+}
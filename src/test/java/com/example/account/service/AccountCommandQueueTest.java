@@ -0,0 +1,99 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_COMMAND_QUEUE_FULL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountCommandQueueTest {
+    private final AccountCommandQueue accountCommandQueue = new AccountCommandQueue(4, 100);
+
+    @AfterEach
+    void tearDown() {
+        accountCommandQueue.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 계좌의 명령은 들어온 순서대로 하나씩 실행된다")
+    void runInOrderWithoutOverlap() throws Exception {
+        //given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 50; i++) {
+            int order = i;
+            futures.add(accountCommandQueue.submit("1000000000", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                executed.add(order);
+                running.decrementAndGet();
+                return order;
+            }));
+        }
+        for (CompletableFuture<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        //then
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(executed).isSorted().hasSize(50);
+        assertThat(accountCommandQueue.getQueueDepth("1000000000")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 바로 거절한다")
+    void rejectWhenQueueFull() throws Exception {
+        //given
+        AccountCommandQueue smallQueue = new AccountCommandQueue(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = smallQueue.submit("1000000000", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        started.await();
+        CompletableFuture<Boolean> waiting = smallQueue.submit("1000000000", () -> true);
+
+        //when
+        CompletableFuture<Boolean> rejected = smallQueue.submit("1000000000", () -> true);
+
+        //then
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(((AccountException) exception.getCause()).getErrorCode())
+                .isEqualTo(ACCOUNT_COMMAND_QUEUE_FULL);
+
+        release.countDown();
+        assertThat(running.get()).isTrue();
+        assertThat(waiting.get()).isTrue();
+        smallQueue.shutdown();
+    }
+
+    @Test
+    @DisplayName("명령의 예외는 future 로 전달된다")
+    void propagateException() {
+        //when
+        CompletableFuture<Object> future = accountCommandQueue.submit("1000000000", () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        //then
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+    }
+}
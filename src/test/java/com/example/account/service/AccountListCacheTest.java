@@ -0,0 +1,234 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountChangedEvent;
+import com.example.account.dto.AccountInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBuckets;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.client.RedisException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountListCacheTest {
+    private static final String LIST_KEY = "ACCOUNT-LIST:{1}";
+    private static final String VERSION_KEY = "ACCOUNT-LIST-VERSION:{1}";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBuckets buckets;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RBucket<String> bucket;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AccountListCache accountListCache;
+
+    @BeforeEach
+    void setUp() {
+        accountListCache = new AccountListCache(redissonClient, objectMapper, true, 300, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("캐시에 있으면 loader 호출 없음")
+    void get_hit() throws Exception {
+        //given
+        given(redissonClient.getBuckets(any())).willReturn(buckets);
+        given(buckets.<String>get(LIST_KEY, VERSION_KEY))
+                .willReturn(Map.of(LIST_KEY, objectMapper.writeValueAsString(List.of(accountInfo()))));
+
+        //when
+        List<AccountInfo> accountInfos = accountListCache.get(1L, () -> {
+            throw new AssertionError("loader called");
+        });
+
+        //then
+        assertThat(accountInfos).hasSize(1);
+        assertThat(accountInfos.get(0).getAccountNumber()).isEqualTo("1000000000");
+        assertThat(accountInfos.get(0).getBalance()).isEqualTo(1000L);
+        verifyNoInteractions(script);
+    }
+
+    @Test
+    @DisplayName("캐시에 없으면 loader 로 읽고 읽기 시작할 때의 버전으로 넣음")
+    void get_miss() {
+        //given
+        given(redissonClient.getBuckets(any())).willReturn(buckets);
+        given(redissonClient.getScript(any())).willReturn(script);
+        given(buckets.<String>get(LIST_KEY, VERSION_KEY))
+                .willReturn(Map.of(VERSION_KEY, "3"));
+
+        //when
+        List<AccountInfo> accountInfos = accountListCache.get(1L, () -> List.of(accountInfo()));
+
+        //then
+        assertThat(accountInfos).hasSize(1);
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(LIST_KEY, VERSION_KEY)),
+                eq("3"), eq("[{\"accountNumber\":\"1000000000\",\"balance\":1000}]"), eq("300000"));
+    }
+
+    @Test
+    @DisplayName("Redis 오류 - DB 에서 읽고 넣지 않음")
+    void get_redisFailure() {
+        //given
+        given(redissonClient.getBuckets(any())).willReturn(buckets);
+        given(buckets.<String>get(LIST_KEY, VERSION_KEY))
+                .willThrow(new RedisConnectionException("connection refused"));
+
+        //when
+        List<AccountInfo> accountInfos = accountListCache.get(1L, () -> List.of(accountInfo()));
+
+        //then
+        assertThat(accountInfos).hasSize(1);
+        verifyNoInteractions(script);
+    }
+
+    @Test
+    @DisplayName("잔액 변경 - commit 후에 지움")
+    void evictAfterCommit() {
+        //given
+        givenScriptLoaded();
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        accountListCache.evictAfterCommit(1L);
+        verifyNoInteractions(script);
+        TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+        synchronization.afterCommit();
+
+        //then
+        verify(script).evalSha(eq(RScript.Mode.READ_WRITE), eq("sha"), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(LIST_KEY, VERSION_KEY)), eq("300000"));
+    }
+
+    @Test
+    @DisplayName("계좌 생성/해지 - 해당 사용자의 목록을 지움")
+    void onAccountChanged() {
+        //given
+        givenScriptLoaded();
+
+        //when
+        accountListCache.onAccountChanged(AccountChangedEvent.builder()
+                .userId(1L)
+                .accountNumber("1000000000")
+                .build());
+
+        //then
+        verify(script).evalSha(eq(RScript.Mode.READ_WRITE), eq("sha"), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(LIST_KEY, VERSION_KEY)), eq("300000"));
+    }
+
+    @Test
+    @DisplayName("지우기 스크립트는 한 번만 올리고 이후에는 EVALSHA 만 보냄")
+    void evict_loadScriptOnce() {
+        //given
+        givenScriptLoaded();
+
+        //when
+        accountListCache.evict(1L);
+        accountListCache.evict(1L);
+
+        //then
+        verify(script, times(1)).scriptLoad(anyString());
+        verify(script, times(2)).evalSha(eq(RScript.Mode.READ_WRITE), eq("sha"), eq(RScript.ReturnType.INTEGER),
+                anyList(), any());
+    }
+
+    @Test
+    @DisplayName("Redis 의 스크립트 캐시가 비면 다시 올림")
+    void evict_reloadOnNoScript() {
+        //given
+        givenScriptLoaded();
+        accountListCache.evict(1L);
+        given(script.<Long>evalSha(any(), anyString(), any(), anyList(), any()))
+                .willThrow(new RedisException("NOSCRIPT No matching script"))
+                .willReturn(1L);
+
+        //when
+        accountListCache.evict(1L);
+
+        //then
+        verify(script, times(2)).scriptLoad(anyString());
+        verify(script, times(3)).evalSha(any(), anyString(), any(), anyList(), any());
+        verify(redissonClient, never()).getBucket(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("지우기가 실패하면 한 번 더 보냄")
+    void evict_retryOnFailure() {
+        //given
+        givenScriptLoaded();
+        given(script.<Long>evalSha(any(), anyString(), any(), anyList(), any()))
+                .willThrow(new RedisConnectionException("timeout"))
+                .willReturn(1L);
+
+        //when
+        accountListCache.evict(1L);
+
+        //then
+        verify(script, times(2)).evalSha(any(), anyString(), any(), anyList(), any());
+        verify(redissonClient, never()).getBucket(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("다시 보내도 실패하면 목록 키를 DEL 로 지움")
+    void evict_deleteListKeyOnFailure() {
+        //given
+        givenScriptLoaded();
+        given(script.<Long>evalSha(any(), anyString(), any(), anyList(), any()))
+                .willThrow(new RedisConnectionException("timeout"));
+        given(redissonClient.<String>getBucket(eq(LIST_KEY), any())).willReturn(bucket);
+
+        //when
+        accountListCache.evict(1L);
+
+        //then
+        verify(script, times(2)).evalSha(any(), anyString(), any(), anyList(), any());
+        verify(bucket).delete();
+    }
+
+    private void givenScriptLoaded() {
+        given(redissonClient.getScript(any())).willReturn(script);
+        given(script.scriptLoad(anyString())).willReturn("sha");
+        given(script.<Long>evalSha(any(), anyString(), any(), anyList(), any())).willReturn(1L);
+    }
+
+    private static AccountInfo accountInfo() {
+        return AccountInfo.builder()
+                .accountNumber("1000000000")
+                .balance(1000L)
+                .build();
+    }
+}
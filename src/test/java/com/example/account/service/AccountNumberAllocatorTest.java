@@ -0,0 +1,95 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private RAtomicLong counter;
+
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @BeforeEach
+    void setUp() {
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        accountNumberAllocator = new AccountNumberAllocator(redissonClient, accountRepository, 3, 10000);
+    }
+
+    @Test
+    @DisplayName("첫 계좌 - 1000000000 부터 구간 단위로 예약")
+    void firstBlock() {
+        //given
+        given(counter.isExists()).willReturn(false, true);
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.empty());
+        given(counter.compareAndSet(0, 999999999L)).willReturn(true);
+        given(counter.addAndGet(3)).willReturn(1000000002L, 1000000005L);
+
+        //when
+        String first = accountNumberAllocator.next();
+        accountNumberAllocator.next();
+        String third = accountNumberAllocator.next();
+        String fourth = accountNumberAllocator.next();
+
+        //then
+        assertThat(first).isEqualTo("1000000000");
+        assertThat(third).isEqualTo("1000000002");
+        assertThat(fourth).isEqualTo("1000000003");
+        verify(counter, times(2)).addAndGet(3);
+    }
+
+    @Test
+    @DisplayName("카운터 유실 - DB 최대 번호에서 간격을 두고 시작")
+    void reseedAfterCounterLost() {
+        //given
+        given(counter.isExists()).willReturn(false);
+        given(accountRepository.findMaxAccountNumber())
+                .willReturn(Optional.of(1000000500L));
+        given(counter.compareAndSet(0, 1000010500L)).willReturn(true);
+        given(counter.addAndGet(3)).willReturn(1000010503L);
+
+        //when
+        String accountNumber = accountNumberAllocator.next();
+
+        //then
+        assertThat(accountNumber).isEqualTo("1000010501");
+    }
+
+    @Test
+    @DisplayName("int 범위를 넘는 계좌 번호 발급")
+    void beyondIntRange() {
+        //given
+        given(counter.isExists()).willReturn(true);
+        given(counter.addAndGet(3)).willReturn(2147483649L);
+
+        //when
+        String accountNumber = accountNumberAllocator.next();
+
+        //then
+        assertThat(accountNumber).isEqualTo("2147483647");
+        verify(counter, never()).compareAndSet(anyLong(), anyLong());
+    }
+}
@@ -3,9 +3,11 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountInfo;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
 import com.example.account.type.AccountStatus;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,18 +16,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.example.account.type.ErrorCode.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class AccountServiceTest {
@@ -36,6 +42,18 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Mock
+    private AccountListCache accountListCache;
+
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -49,11 +67,8 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                                .accountUser(user)
-                                .accountNumber("1000000012")
-                        .build()));
+        given(accountNumberAllocator.next())
+                .willReturn("1000000013");
 
         // 어떤 계좌번호를 넣어도 통과된다 이를 검증할 수 있는 방법을 고려
         given(accountRepository.save(any()))
@@ -72,7 +87,7 @@ class AccountServiceTest {
         verify(accountRepository, times(1)).save(accountArgumentCaptor.capture());
         assertThat(accountDto.getUserId()).isEqualTo(12L);
 
-        // 반드시 가장 최근에 만든 계좌번호의 다음 번호가 되어야 한다.
+        // 발급기에서 받은 번호로 저장되어야 한다.
         assertThat(accountArgumentCaptor.getValue().getAccountNumber()).isEqualTo("1000000013");
     }
 
@@ -86,8 +101,8 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty());
+        given(accountNumberAllocator.next())
+                .willReturn("1000000000");
 
         // 어떤 계좌번호를 넣어도 통과된다 이를 검증할 수 있는 방법을 고려
         given(accountRepository.save(any()))
@@ -106,7 +121,7 @@ class AccountServiceTest {
         verify(accountRepository, times(1)).save(accountArgumentCaptor.capture());
         assertThat(accountDto.getUserId()).isEqualTo(15L);
 
-        // 반드시 가장 최근에 만든 계좌번호의 다음 번호가 되어야 한다.
+        // 발급기에서 받은 번호로 저장되어야 한다.
         assertThat(accountArgumentCaptor.getValue().getAccountNumber()).isEqualTo("1000000000");
     }
 
@@ -155,6 +170,37 @@ class AccountServiceTest {
         assertThat(accountArgumentCaptor.getValue().getAccountStatus()).isEqualTo(AccountStatus.UNREGISTERED);
     }
 
+    @Test
+    @DisplayName("계좌 혜지 실패 - shard 에 잔액이 남아 있음")
+    void deleteAccountFailed_shardBalanceNotEmpty(){
+        //given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("pobi")
+                .build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(0L)
+                .shardCount(4)
+                .accountNumber("1000000012")
+                .build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountShardRepository.sumBalanceByAccount(account))
+                .willReturn(100L);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountService.deleteAccount(1L, "1000000012"));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(BALANCE_NOT_EMPTY);
+        verify(accountRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("계좌 혜지 실패 - 해당 유저 없음")
     void deleteAccount_UserNotFound(){
@@ -279,32 +325,25 @@ class AccountServiceTest {
     @Test
     @DisplayName("유저 아이디로 계좌 정보 불러오기 성공")
     void successGetAccountsByUserId(){
-        AccountUser pobi = AccountUser.builder()
-                .id(12L)
-                .name("pobi")
-                .build();
-
-        List<Account> accounts = Arrays.asList(
-                Account.builder()
-                        .accountUser(pobi)
+        List<AccountDto> accounts = Arrays.asList(
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("1111111111")
                         .balance(1000L)
                         .build(),
-                Account.builder()
-                        .accountUser(pobi)
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("2222222222")
                         .balance(2000L)
                         .build(),
-                Account.builder()
-                        .accountUser(pobi)
+                AccountDto.builder()
+                        .userId(12L)
                         .accountNumber("3333333333")
                         .balance(3000L)
                         .build()
         );
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(pobi));
-        given(accountRepository.findByAccountUser(any()))
+        given(accountRepository.findDtosByUserId(anyLong()))
                 .willReturn(accounts);
 
         //when
@@ -321,12 +360,29 @@ class AccountServiceTest {
 
         assertThat(accountsDtos.get(2).getAccountNumber()).isEqualTo("3333333333");
         assertThat(accountsDtos.get(2).getBalance()).isEqualTo(3000);
+        verifyNoInteractions(accountUserRepository);
+    }
+
+    @Test
+    @DisplayName("계좌가 없는 유저는 빈 목록")
+    void getAccountsByUserId_NoAccount(){
+        //given
+        given(accountRepository.findDtosByUserId(anyLong()))
+                .willReturn(List.of(AccountDto.builder()
+                        .userId(1L)
+                        .build()));
+
+        //when
+        List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
+
+        //then
+        assertThat(accountDtos).isEmpty();
     }
 
     @Test
     void getAccountsByUserId_NoUser(){
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountRepository.findDtosByUserId(anyLong()))
+                .willReturn(List.of());
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -336,6 +392,47 @@ class AccountServiceTest {
         assertThat(accountException.getErrorCode()).isEqualTo(USER_NOT_FOUND);
     }
 
+    @Test
+    @DisplayName("계좌 목록 조회 - 캐시에 있으면 DB 조회 없음")
+    void getAccountInfosByUserId_cached(){
+        //given
+        given(accountListCache.get(eq(1L), any()))
+                .willReturn(List.of(AccountInfo.builder()
+                        .accountNumber("1111111111")
+                        .balance(1000L)
+                        .build()));
+
+        //when
+        List<AccountInfo> accountInfos = accountService.getAccountInfosByUserId(1L);
+
+        //then
+        assertThat(accountInfos).hasSize(1);
+        assertThat(accountInfos.get(0).getAccountNumber()).isEqualTo("1111111111");
+        verifyNoInteractions(accountUserRepository, accountRepository);
+    }
+
+    @Test
+    @DisplayName("계좌 목록 조회 - 캐시에 없으면 DB 에서 조회")
+    void getAccountInfosByUserId_notCached(){
+        //given
+        given(accountListCache.get(eq(1L), any()))
+                .willAnswer(invocation -> invocation.<Supplier<List<AccountInfo>>>getArgument(1).get());
+        given(accountRepository.findDtosByUserId(1L))
+                .willReturn(List.of(AccountDto.builder()
+                        .userId(1L)
+                        .accountNumber("1111111111")
+                        .balance(1000L)
+                        .build()));
+
+        //when
+        List<AccountInfo> accountInfos = accountService.getAccountInfosByUserId(1L);
+
+        //then
+        assertThat(accountInfos).hasSize(1);
+        assertThat(accountInfos.get(0).getAccountNumber()).isEqualTo("1111111111");
+        assertThat(accountInfos.get(0).getBalance()).isEqualTo(1000L);
+    }
+
     @Test
     @DisplayName("유저 당 최대 계좌는 10개까지")
     void createAccount_maxAccountIs10(){
@@ -0,0 +1,150 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountShard;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.ShardAccount;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.ErrorCode.ACCOUNT_ALREADY_SHARDED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountShardServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
+    @Mock
+    private AccountShardRegistry accountShardRegistry;
+
+    @Mock
+    private AccountListCache accountListCache;
+
+    @InjectMocks
+    private AccountShardService accountShardService;
+
+    @Test
+    @DisplayName("계좌 나누기 성공 - 잔액을 shard 에 고르게 나누고 나머지는 앞 shard 부터")
+    void shardAccountSuccess() {
+        //given
+        Account account = account(10003L, null);
+        given(accountRepository.findByAccountNumber("1000000000"))
+                .willReturn(Optional.of(account));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AccountShard>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        ShardAccount.Response response = accountShardService.shardAccount(12L, "1000000000", 4);
+
+        //then
+        verify(accountShardRepository).saveAll(captor.capture());
+        assertThat(captor.getValue().stream().map(AccountShard::getBalance).collect(Collectors.toList()))
+                .containsExactly(2501L, 2501L, 2501L, 2500L);
+        assertThat(captor.getValue().stream().map(AccountShard::getShardIndex).collect(Collectors.toList()))
+                .containsExactly(0, 1, 2, 3);
+        assertThat(account.getBalance()).isEqualTo(0L);
+        assertThat(account.getShardCount()).isEqualTo(4);
+        assertThat(response.getBalance()).isEqualTo(10003L);
+        verify(accountShardRegistry).invalidate("1000000000");
+    }
+
+    @Test
+    @DisplayName("계좌 나누기 실패 - 이미 나뉜 계좌")
+    void shardAccount_alreadySharded() {
+        //given
+        given(accountRepository.findByAccountNumber("1000000000"))
+                .willReturn(Optional.of(account(0L, 4)));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountShardService.shardAccount(12L, "1000000000", 8));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_ALREADY_SHARDED);
+        verify(accountShardRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("rebalance 필요 - 취소로 쌓인 잔액이 있거나 공평한 몫의 절반보다 적은 shard 가 있음")
+    void needsRebalance() {
+        //given
+        Account balanced = account(0L, 2);
+        Account skewed = account(0L, 2);
+        Account cancelled = account(100L, 2);
+        given(accountRepository.findByAccountNumber("1000000000")).willReturn(Optional.of(balanced));
+        given(accountRepository.findByAccountNumber("1000000001")).willReturn(Optional.of(skewed));
+        given(accountRepository.findByAccountNumber("1000000002")).willReturn(Optional.of(cancelled));
+        given(accountShardRepository.findByAccountOrderByShardIndex(balanced))
+                .willReturn(shards(balanced, 600L, 400L));
+        given(accountShardRepository.findByAccountOrderByShardIndex(skewed))
+                .willReturn(shards(skewed, 800L, 200L));
+        given(accountShardRepository.findByAccountOrderByShardIndex(cancelled))
+                .willReturn(shards(cancelled, 500L, 500L));
+
+        //when
+        //then
+        assertThat(accountShardService.needsRebalance("1000000000")).isFalse();
+        assertThat(accountShardService.needsRebalance("1000000001")).isTrue();
+        assertThat(accountShardService.needsRebalance("1000000002")).isTrue();
+    }
+
+    @Test
+    @DisplayName("rebalance - 계좌 잔액과 shard 잔액을 합쳐서 다시 나눔")
+    void rebalance() {
+        //given
+        Account account = account(300L, 3);
+        List<AccountShard> shards = shards(account, 0L, 900L, 100L);
+        given(accountRepository.findByAccountNumber("1000000000"))
+                .willReturn(Optional.of(account));
+        given(accountShardRepository.findByAccountOrderByShardIndex(account))
+                .willReturn(shards);
+
+        //when
+        accountShardService.rebalance("1000000000");
+
+        //then
+        assertThat(shards.stream().map(AccountShard::getBalance).collect(Collectors.toList()))
+                .containsExactly(434L, 433L, 433L);
+        assertThat(account.getBalance()).isEqualTo(0L);
+        verify(accountListCache).evictAfterCommit(12L);
+    }
+
+    private static Account account(Long balance, Integer shardCount) {
+        return Account.builder()
+                .accountUser(AccountUser.builder().id(12L).name("pobi").build())
+                .accountNumber("1000000000")
+                .accountStatus(IN_USE)
+                .balance(balance)
+                .shardCount(shardCount)
+                .build();
+    }
+
+    private static List<AccountShard> shards(Account account, Long... balances) {
+        return IntStream.range(0, balances.length)
+                .mapToObj(i -> AccountShard.builder().account(account).shardIndex(i).balance(balances[i]).build())
+                .collect(Collectors.toList());
+    }
+}
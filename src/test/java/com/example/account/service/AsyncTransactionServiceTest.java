@@ -0,0 +1,139 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.example.account.type.ErrorCode.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransactionServiceTest {
+    @Mock
+    private AsyncLockService asyncLockService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private AsyncTransactionService asyncTransactionService;
+
+    @BeforeEach
+    void setUp() {
+        asyncTransactionService = new AsyncTransactionService(
+                asyncLockService, transactionService, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("비동기 잔액 사용 성공 - lock 해제")
+    void useBalanceSuccess() throws Exception {
+        //given
+        given(asyncLockService.lock(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(-1L));
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .amount(1000L)
+                        .build());
+
+        //when
+        TransactionDto transactionDto = asyncTransactionService
+                .useBalance(1L, "1000000000", 1000L).get();
+
+        //then
+        assertThat(transactionDto.getAccountNumber()).isEqualTo("1000000000");
+        verify(asyncLockService, times(1)).unlock("1000000000", -1L);
+    }
+
+    @Test
+    @DisplayName("비동기 잔액 사용 실패 - 실패 거래 저장 후 lock 해제")
+    void useBalanceFailed() {
+        //given
+        given(asyncLockService.lock(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(-1L));
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(AMOUNT_EXCEED_BALANCE));
+
+        //when
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncTransactionService.useBalance(1L, "1000000000", 1000L).get());
+
+        //then
+        assertThat(((AccountException) exception.getCause()).getErrorCode())
+                .isEqualTo(AMOUNT_EXCEED_BALANCE);
+        verify(transactionService, times(1)).saveFailedUseTransactions("1000000000", 1000L);
+        verify(asyncLockService, times(1)).unlock("1000000000", -1L);
+    }
+
+    @Test
+    @DisplayName("비동기 잔액 사용 취소 실패 - lock 획득 실패")
+    void cancelBalance_lockFailed() {
+        //given
+        CompletableFuture<Long> lockFailed = new CompletableFuture<>();
+        lockFailed.completeExceptionally(new AccountException(ACCOUNT_TRANSACTION_LOCK));
+        given(asyncLockService.lock(anyString(), any()))
+                .willReturn(lockFailed);
+
+        //when
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncTransactionService.cancelBalance("transactionId", "1000000000", 1000L).get());
+
+        //then
+        assertThat(((AccountException) exception.getCause()).getErrorCode())
+                .isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verifyNoInteractions(transactionService);
+        verify(asyncLockService, never()).unlock(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("비동기 잔액 사용 실패 - 작업 대기열이 가득 차면 lock 해제 후 실패")
+    void useBalance_queueFull() {
+        //given
+        asyncTransactionService = new AsyncTransactionService(asyncLockService, transactionService,
+                command -> {
+                    throw new RejectedExecutionException();
+                });
+        given(asyncLockService.lock(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(-1L));
+
+        //when
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> asyncTransactionService.useBalance(1L, "1000000000", 1000L).get());
+
+        //then
+        assertThat(((AccountException) exception.getCause()).getErrorCode())
+                .isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verifyNoInteractions(transactionService);
+        verify(asyncLockService, times(1)).unlock("1000000000", -1L);
+    }
+
+    @Test
+    @DisplayName("대기열에서 기다리는 동안 lock 이 만료되지 않도록 watchdog 으로 획득")
+    void lockWithWatchdog() {
+        //given
+        given(asyncLockService.lock(anyString(), any()))
+                .willReturn(CompletableFuture.completedFuture(-1L));
+        ArgumentCaptor<LockPolicy> captor = ArgumentCaptor.forClass(LockPolicy.class);
+
+        //when
+        asyncTransactionService.useBalance(1L, "1000000000", 1000L);
+
+        //then
+        verify(asyncLockService, times(1)).lock(eq("1000000000"), captor.capture());
+        assertThat(captor.getValue().isWatchdog()).isTrue();
+    }
+}
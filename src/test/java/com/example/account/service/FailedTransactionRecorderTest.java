@@ -0,0 +1,226 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FailedTransactionRecorderTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        given(transactionIdGenerator.generate()).willReturn("transactionId");
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(Account.builder()
+                        .accountNumber("1000000000")
+                        .balance(10000L)
+                        .build()));
+    }
+
+    @Test
+    @DisplayName("실패 거래를 모아서 저장")
+    void recordAndFlush() {
+        //given
+        FailedTransactionRecorder recorder = recorder(true, 10, null);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        recorder.record("1000000000", 200L, USE);
+        recorder.record("1000000000", 300L, CANCEL);
+        recorder.record("9999999999", 300L, USE);
+        verifyNoInteractions(transactionRepository);
+        recorder.flush();
+
+        //then
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        List<Transaction> saved = captor.getValue();
+        assertThat(saved).hasSize(2);
+        assertThat(saved.get(0).getTransactionResultType()).isEqualTo(F);
+        assertThat(saved.get(0).getBalanceSnapshot()).isEqualTo(10000L);
+        assertThat(saved.get(0).getAmount()).isEqualTo(200L);
+        assertThat(saved.get(1).getTransactionType()).isEqualTo(CANCEL);
+        assertThat(meterRegistry.get("account.transaction.failed.written").counter().count()).isEqualTo(2);
+        assertThat(recorder.getQueueSize()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 버림")
+    void dropWhenFull() {
+        //given
+        FailedTransactionRecorder recorder = recorder(true, 2, null);
+
+        //when
+        recorder.record("1000000000", 100L, USE);
+        recorder.record("1000000000", 200L, USE);
+        recorder.record("1000000000", 300L, USE);
+
+        //then
+        assertThat(recorder.getQueueSize()).isEqualTo(2);
+        assertThat(meterRegistry.get("account.transaction.failed.queue").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("account.transaction.failed.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("대기열을 쓰지 않으면 바로 저장 - 계좌 없음")
+    void recordWithoutBuffer_accountNotFound() {
+        //given
+        FailedTransactionRecorder recorder = recorder(false, 10, null);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> recorder.record("9999999999", 100L, USE));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("journal 에 남은 기록은 다음 기동 때 다시 저장")
+    void recoverFromJournal(@TempDir Path journalDir) throws Exception {
+        //given
+        FailedTransactionRecorder crashed = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        crashed.record("1000000000", 200L, USE);
+        crashed.record("1000000000", 300L, CANCEL);
+
+        //when
+        FailedTransactionRecorder restarted = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        restarted.afterSingletonsInstantiated();
+        restarted.flush();
+
+        //then
+        verify(transactionRepository, times(1)).saveAll(argThat(transactions ->
+                ((List<?>) transactions).size() == 2));
+        try (var files = Files.list(journalDir)) {
+            assertThat(files.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    @DisplayName("저장 실패 시 대기열에 되돌림")
+    void requeueOnFailure() {
+        //given
+        FailedTransactionRecorder recorder = recorder(true, 10, null);
+        given(transactionRepository.saveAll(anyList()))
+                .willThrow(new IllegalStateException("db down"));
+        recorder.record("1000000000", 200L, USE);
+
+        //when
+        assertThrows(IllegalStateException.class, recorder::flush);
+
+        //then
+        assertThat(recorder.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("journal 에서 다시 읽은 기록 중 이미 저장된 거래는 건너뜀")
+    void skipAlreadySavedOnRecovery(@TempDir Path journalDir) {
+        //given
+        given(transactionIdGenerator.generate()).willReturn("t1", "t2");
+        FailedTransactionRecorder crashed = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        crashed.record("1000000000", 200L, USE);
+        crashed.record("1000000000", 300L, CANCEL);
+        given(transactionRepository.findTransactionIdsIn(anyCollection())).willReturn(List.of("t1"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        FailedTransactionRecorder restarted = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        restarted.afterSingletonsInstantiated();
+
+        //then
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getTransactionId()).isEqualTo("t2");
+    }
+
+    @Test
+    @DisplayName("journal 재반영에 실패하면 segment 를 남김")
+    void keepJournalWhenRecoveryFails(@TempDir Path journalDir) throws Exception {
+        //given
+        FailedTransactionRecorder crashed = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        crashed.record("1000000000", 200L, USE);
+        given(transactionRepository.saveAll(anyList()))
+                .willThrow(new IllegalStateException("db down"));
+
+        //when
+        FailedTransactionRecorder restarted = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        restarted.afterSingletonsInstantiated();
+
+        //then
+        assertThat(restarted.getQueueSize()).isEqualTo(0);
+        try (var files = Files.list(journalDir)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("segment 는 모든 기록이 저장된 뒤에 지움")
+    void deleteSegmentAfterWritten(@TempDir Path journalDir) throws Exception {
+        //given
+        FailedTransactionRecorder recorder = recorder(true, 10, new FailedTransactionJournal(journalDir));
+        given(transactionRepository.saveAll(anyList()))
+                .willThrow(new IllegalStateException("db down"))
+                .willReturn(List.of());
+        recorder.record("1000000000", 200L, USE);
+        assertThrows(IllegalStateException.class, recorder::flush);
+        long segmentsAfterFailure;
+        try (var files = Files.list(journalDir)) {
+            segmentsAfterFailure = files.count();
+        }
+
+        //when
+        recorder.flush();
+
+        //then
+        assertThat(segmentsAfterFailure).isEqualTo(1);
+        try (var files = Files.list(journalDir)) {
+            assertThat(files.count()).isEqualTo(0);
+        }
+    }
+
+    private FailedTransactionRecorder recorder(boolean bufferEnabled, int capacity, FailedTransactionJournal journal) {
+        return new FailedTransactionRecorder(accountRepository, transactionRepository,
+                TransactionOperations.withoutTransaction(), transactionIdGenerator, meterRegistry,
+                bufferEnabled, capacity, 100, journal);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.account.service;
+
+import com.example.account.aop.Idempotent;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyAspectTest {
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    @InjectMocks
+    private IdempotencyAspect idempotencyAspect;
+
+    private final UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void noHeader_proceedWithoutStore() throws Throwable {
+        //given
+        setIdempotencyKey(null);
+        given(pjp.proceed()).willReturn(response("transactionId"));
+
+        //when
+        Object result = idempotencyAspect.aroundMethod(pjp, idempotent(), request);
+
+        //then
+        assertThat(((UseBalance.Response) result).getTransactionId()).isEqualTo("transactionId");
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    void replayStoredResponse_withoutProceed() throws Throwable {
+        //given
+        setIdempotencyKey("key1");
+        givenReturnType();
+        given(idempotencyStore.find("use:key1", request, UseBalance.Response.class))
+                .willReturn(Optional.of(response("transactionId")));
+
+        //when
+        Object result = idempotencyAspect.aroundMethod(pjp, idempotent(), request);
+
+        //then
+        assertThat(((UseBalance.Response) result).getTransactionId()).isEqualTo("transactionId");
+        verify(pjp, never()).proceed();
+        verify(idempotencyStore, never()).lock(any());
+    }
+
+    @Test
+    void firstRequest_proceedAndSave() throws Throwable {
+        //given
+        setIdempotencyKey("key1");
+        givenReturnType();
+        UseBalance.Response response = response("transactionId");
+        given(idempotencyStore.find(any(), any(), any())).willReturn(Optional.empty());
+        given(pjp.proceed()).willReturn(response);
+
+        //when
+        idempotencyAspect.aroundMethod(pjp, idempotent(), request);
+
+        //then
+        verify(idempotencyStore).lock("use:key1");
+        verify(idempotencyStore).save("use:key1", request, response);
+        verify(idempotencyStore).unlock("use:key1");
+    }
+
+    @Test
+    void inFlightDuplicate_returnsFirstResponseAfterWaiting() throws Throwable {
+        //given
+        setIdempotencyKey("key1");
+        givenReturnType();
+        given(idempotencyStore.find(eq("use:key1"), any(), any()))
+                .willReturn(Optional.empty())
+                .willAnswer(invocation -> Optional.of(response("transactionId")));
+
+        //when
+        Object result = idempotencyAspect.aroundMethod(pjp, idempotent(), request);
+
+        //then
+        assertThat(((UseBalance.Response) result).getTransactionId()).isEqualTo("transactionId");
+        verify(pjp, never()).proceed();
+        verify(idempotencyStore).unlock("use:key1");
+    }
+
+    @Test
+    void failure_notSaved() throws Throwable {
+        //given
+        setIdempotencyKey("key1");
+        givenReturnType();
+        given(idempotencyStore.find(any(), any(), any())).willReturn(Optional.empty());
+        given(pjp.proceed()).willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+
+        //when
+        assertThrows(AccountException.class,
+                () -> idempotencyAspect.aroundMethod(pjp, idempotent(), request));
+
+        //then
+        verify(idempotencyStore, never()).save(any(), any(), any());
+        verify(idempotencyStore).unlock("use:key1");
+    }
+
+    private void givenReturnType() {
+        given(pjp.getSignature()).willReturn(signature);
+        given(signature.getReturnType()).willReturn(UseBalance.Response.class);
+    }
+
+    private static void setIdempotencyKey(String key) {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        if (key != null) {
+            servletRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+    }
+
+    private static UseBalance.Response response(String transactionId) {
+        return UseBalance.Response.builder()
+                .accountNumber("1000000000")
+                .transactionId(transactionId)
+                .amount(1000L)
+                .build();
+    }
+
+    private static Idempotent idempotent() throws NoSuchMethodException {
+        return IdempotencyAspectTest.class.getDeclaredMethod("useBalance")
+                .getAnnotation(Idempotent.class);
+    }
+
+    @Idempotent("use")
+    private void useBalance() {
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.IDEMPOTENCY_KEY_REUSED;
+import static com.example.account.type.ErrorCode.IDEMPOTENT_REQUEST_IN_PROGRESS;
+import static com.example.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+    private static final String KEY = "IDEMPOTENCY:{use:key1}";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<Object> bucket;
+
+    @Mock
+    private RLock lock;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyStore idempotencyStore;
+
+    private final UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(redissonClient, objectMapper, 60, 100);
+    }
+
+    @Test
+    void saveAndFind() {
+        //given
+        given(redissonClient.getBucket(eq(KEY), any())).willReturn(bucket);
+        ArgumentCaptor<Object> entryCaptor = ArgumentCaptor.forClass(Object.class);
+        idempotencyStore.save("use:key1", request, UseBalance.Response.builder()
+                .accountNumber("1000000000")
+                .transactionId("transactionId")
+                .amount(1000L)
+                .build());
+        verify(bucket).set(entryCaptor.capture(), eq(60_000L), eq(TimeUnit.MILLISECONDS));
+        given(bucket.get()).willReturn(entryCaptor.getValue());
+
+        //when
+        Optional<UseBalance.Response> response =
+                idempotencyStore.find("use:key1", request, UseBalance.Response.class);
+
+        //then
+        assertThat(response).isPresent();
+        assertThat(response.get().getTransactionId()).isEqualTo("transactionId");
+    }
+
+    @Test
+    void find_sameKeyOtherRequest() throws Exception {
+        //given
+        given(redissonClient.getBucket(eq(KEY), any())).willReturn(bucket);
+        given(bucket.get()).willReturn(objectMapper.writeValueAsString(Map.of(
+                "request", objectMapper.writeValueAsString(new UseBalance.Request(1L, "1000000000", 2000L)),
+                "response", "{}")));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> idempotencyStore.find("use:key1", request, UseBalance.Response.class));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(IDEMPOTENCY_KEY_REUSED);
+    }
+
+    @Test
+    void find_redisErrorFailsClosed() {
+        //given
+        given(redissonClient.getBucket(eq(KEY), any())).willThrow(new RedisConnectionException("down"));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> idempotencyStore.find("use:key1", request, UseBalance.Response.class));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void lock_waitTimeout() throws InterruptedException {
+        //given
+        given(redissonClient.getLock("IDEMPOTENCY-LOCK:{use:key1}")).willReturn(lock);
+        given(lock.tryLock(anyLong(), anyLong(), any())).willReturn(false);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> idempotencyStore.lock("use:key1"));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(IDEMPOTENT_REQUEST_IN_PROGRESS);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerWriteBehindTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountListCache accountListCache;
+
+    @Mock
+    private LedgerDeadLetterStore deadLetterStore;
+
+    private LedgerWriteBehind ledgerWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        ledgerWriteBehind = new LedgerWriteBehind(accountRepository, transactionRepository,
+                TransactionOperations.withoutTransaction(), accountListCache, deadLetterStore, 2, 100, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerWriteBehind.shutdown();
+    }
+
+    @Test
+    @DisplayName("대기 중인 거래를 모아서 저장하고 계좌별 잔액 변화량 반영")
+    void flush() {
+        //given
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder().id(12L).build())
+                .accountNumber("1000000012")
+                .balance(10000L).build();
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account));
+        ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L);
+        ledgerWriteBehind.append("1000000012", transaction("t2"), -2000L);
+        ledgerWriteBehind.append("1000000012", transaction("t3"), 1000L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        ledgerWriteBehind.flush();
+
+        //then
+        verify(transactionRepository, times(2)).saveAll(captor.capture());
+        assertThat(captor.getAllValues().get(0)).hasSize(2);
+        assertThat(captor.getAllValues().get(1)).hasSize(1);
+        assertThat(captor.getAllValues().get(0).get(0).getAccount()).isSameAs(account);
+        assertThat(account.getBalance()).isEqualTo(8000L);
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(0);
+        verify(accountListCache, times(2)).evictAfterCommit(12L);
+    }
+
+    @Test
+    @DisplayName("반영 실패 시 대기열에 되돌려 다음에 재시도")
+    void flushFailed() {
+        //given
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account()));
+        given(transactionRepository.saveAll(anyList()))
+                .willThrow(new OptimisticLockingFailureException("conflict"))
+                .willThrow(new OptimisticLockingFailureException("conflict"))
+                .willReturn(List.of());
+        ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L);
+
+        //when
+        assertThrows(OptimisticLockingFailureException.class, () -> ledgerWriteBehind.flush());
+        int queueSizeAfterFailure = ledgerWriteBehind.getQueueSize();
+        ledgerWriteBehind.flushIfPending("t1");
+
+        //then
+        assertThat(queueSizeAfterFailure).isEqualTo(1);
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(0);
+        verify(transactionRepository, times(3)).saveAll(anyList());
+        verifyNoInteractions(deadLetterStore);
+    }
+
+    @Test
+    @DisplayName("묶음 반영 실패 시 실패한 거래만 대기열에 되돌린다")
+    void flushFailed_isolatePoisonEntry() {
+        //given
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account()));
+        given(transactionRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (containsTransaction(transactions, "t1")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return transactions;
+        });
+        ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L);
+        ledgerWriteBehind.append("1000000012", transaction("t2"), -1000L);
+
+        //when
+        assertThrows(DataIntegrityViolationException.class, () -> ledgerWriteBehind.flush());
+
+        //then
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(1);
+        verify(transactionRepository, times(1)).saveAll(argThat((List<Transaction> transactions) ->
+                transactions.size() == 1 && containsTransaction(transactions, "t2")));
+    }
+
+    @Test
+    @DisplayName("max-attempts 번 실패한 거래는 dead letter 로 옮기고 뒤의 거래를 반영")
+    void flushFailed_moveToDeadLetter() {
+        //given
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account()));
+        given(transactionRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (containsTransaction(transactions, "t1")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return transactions;
+        });
+        ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L);
+        assertThrows(DataIntegrityViolationException.class, () -> ledgerWriteBehind.flush());
+        ledgerWriteBehind.append("1000000012", transaction("t3"), -1000L);
+
+        //when
+        ledgerWriteBehind.flush();
+
+        //then
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(0);
+        verify(deadLetterStore, times(1)).add(eq("1000000012"),
+                argThat(transaction -> "t1".equals(transaction.getTransactionId())), eq(-1000L));
+        verify(transactionRepository, times(1)).saveAll(argThat((List<Transaction> transactions) ->
+                transactions.size() == 1 && containsTransaction(transactions, "t3")));
+    }
+
+    @Test
+    @DisplayName("계좌를 찾지 못한 거래는 버리지 않고 dead letter 로 옮긴다")
+    void flush_unknownAccountToDeadLetter() {
+        //given
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account()));
+        ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L);
+        ledgerWriteBehind.append("9999999999", transaction("t2"), -2000L);
+
+        //when
+        ledgerWriteBehind.flush();
+
+        //then
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(0);
+        verify(transactionRepository, times(1)).saveAll(argThat((List<Transaction> transactions) ->
+                transactions.size() == 1 && containsTransaction(transactions, "t1")));
+        verify(deadLetterStore, times(1)).add(eq("9999999999"),
+                argThat(transaction -> "t2".equals(transaction.getTransactionId())), eq(-2000L));
+    }
+
+    @Test
+    @DisplayName("계좌를 찾지 못한 거래를 dead letter 로도 옮기지 못하면 대기열에 되돌린다")
+    void flush_unknownAccountDeadLetterFailed() {
+        //given
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of());
+        willThrow(new IllegalStateException("redis down")).given(deadLetterStore)
+                .add(anyString(), any(), anyLong());
+        ledgerWriteBehind.append("9999999999", transaction("t1"), -1000L);
+
+        //when
+        assertThrows(IllegalStateException.class, () -> ledgerWriteBehind.flush());
+
+        //then
+        assertThat(ledgerWriteBehind.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차도 append 는 DB 오류를 던지지 않는다")
+    void appendWhenFull() {
+        //given
+        ledgerWriteBehind.shutdown();
+        ledgerWriteBehind = new LedgerWriteBehind(accountRepository, transactionRepository,
+                TransactionOperations.withoutTransaction(), accountListCache, deadLetterStore, 2, 1, 2);
+        // 백그라운드 flush 는 실패하고, 종료 시 flush 는 성공한다.
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willThrow(new CannotCreateTransactionException("db down"))
+                .willReturn(List.of(account()));
+
+        //when
+        //then
+        assertDoesNotThrow(() -> ledgerWriteBehind.append("1000000012", transaction("t1"), -1000L));
+    }
+
+    @Test
+    @DisplayName("이미 반영된 거래는 flushIfPending 에서 DB 작업 없음")
+    void flushIfPending_notPending() {
+        //given
+        //when
+        ledgerWriteBehind.flushIfPending("unknown");
+
+        //then
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    private static Account account() {
+        return Account.builder()
+                .accountUser(AccountUser.builder().id(12L).build())
+                .accountNumber("1000000012")
+                .balance(10000L).build();
+    }
+
+    private static boolean containsTransaction(List<Transaction> transactions, String transactionId) {
+        return transactions != null && transactions.stream()
+                .anyMatch(transaction -> transactionId.equals(transaction.getTransactionId()));
+    }
+
+    private static Transaction transaction(String transactionId) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .amount(1000L)
+                .build();
+    }
+}
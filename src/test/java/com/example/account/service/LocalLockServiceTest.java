@@ -0,0 +1,137 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLockServiceTest {
+    private final LocalLockService lockService = new LocalLockService(16);
+
+    @Test
+    void successGetLock() {
+        //given
+        //when
+        //then
+        assertDoesNotThrow(() -> lockService.lock("1000000000"));
+        assertDoesNotThrow(() -> lockService.unlock("1000000000"));
+    }
+
+    @Test
+    void failGetLock_heldByOtherThread() throws Exception {
+        //given
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        executor.submit(() -> {
+            lockService.lock("1000000000");
+            locked.countDown();
+            release.await();
+            lockService.unlock("1000000000");
+            return null;
+        });
+        locked.await();
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lock("1000000000"));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        assertThat(accountException.getErrorMessage()).isEqualTo(ACCOUNT_TRANSACTION_LOCK.getDescription());
+
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void lockAll_randomCrossOrderWithoutDeadlock() throws Exception {
+        //given
+        // stripe 가 적어서 서로 다른 계좌 쌍이 같은 stripe 를 공유하는 경우가 많다.
+        LocalLockService lockService = new LocalLockService(4);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    List<String> accountNumbers = List.of(
+                            String.valueOf(1000000000 + ThreadLocalRandom.current().nextInt(20)),
+                            String.valueOf(1000000000 + ThreadLocalRandom.current().nextInt(20)));
+                    try {
+                        lockService.lockAll(accountNumbers, LockPolicy.DEFAULT);
+                    } catch (AccountException e) {
+                        failures.incrementAndGet();
+                        continue;
+                    }
+                    lockService.unlockAll(accountNumbers);
+                }
+            }));
+        }
+
+        //then
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertThat(failures.get()).isZero();
+    }
+
+    @Test
+    void lockAll_releaseLockedOnFailure() throws Exception {
+        //given
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<String> accountNumbers = List.of("1000000000", "1000000001");
+
+        executor.submit(() -> {
+            lockService.lock("1000000001");
+            locked.countDown();
+            release.await();
+            lockService.unlock("1000000001");
+            return null;
+        });
+        locked.await();
+
+        //when
+        assertThrows(AccountException.class,
+                () -> lockService.lockAll(accountNumbers, LockPolicy.builder().waitTime(100L).leaseTime(1000L).build()));
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        //then
+        // 먼저 잡았던 lock 이 풀려 있어야 다른 스레드가 바로 잡을 수 있다.
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        assertThat(other.submit(() -> {
+            lockService.lockAll(accountNumbers, LockPolicy.DEFAULT);
+            lockService.unlockAll(accountNumbers);
+            return true;
+        }).get(1, TimeUnit.SECONDS)).isTrue();
+        other.shutdown();
+    }
+
+    @Test
+    void stripeCountRoundedUpToPowerOfTwo() {
+        assertThat(new LocalLockService(1000).getStripeCount()).isEqualTo(1024);
+        assertThat(new LocalLockService(1).getStripeCount()).isEqualTo(1);
+        assertThat(new LocalLockService(64).getStripeCount()).isEqualTo(64);
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.TransferBalance;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
@@ -10,9 +13,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,6 +33,12 @@ class LockAopAspectTest {
     @Mock
     private ProceedingJoinPoint pjp;
 
+    @Spy
+    private LockContentionTracker contentionTracker;
+
+    @Mock
+    private AccountShardRegistry accountShardRegistry;
+
     @InjectMocks
     private LockAopAspect lockAopAspect;
 
@@ -40,11 +54,11 @@ class LockAopAspectTest {
         UseBalance.Request request =
                 new UseBalance.Request(123L, "1234", 1000L);
         //when
-        lockAopAspect.aroundMethod(pjp, request);
+        lockAopAspect.aroundMethod(pjp, accountLock("defaultLock"), request);
 
         //then
         verify(lockService, times(1))
-                .lock(lockArgumentCaptor.capture());
+                .lock(lockArgumentCaptor.capture(), any());
 
         verify(lockService, times(1))
                 .unlock(unLockArgumentCaptor.capture());
@@ -70,11 +84,11 @@ class LockAopAspectTest {
 
         //when
         assertThrows(AccountException.class,
-                () -> lockAopAspect.aroundMethod(pjp, request));
+                () -> lockAopAspect.aroundMethod(pjp, accountLock("defaultLock"), request));
 
         //then
         verify(lockService, times(1))
-                .lock(lockArgumentCaptor.capture());
+                .lock(lockArgumentCaptor.capture(), any());
 
         verify(lockService, times(1))
                 .unlock(unLockArgumentCaptor.capture());
@@ -82,4 +96,137 @@ class LockAopAspectTest {
         Assertions.assertThat(lockArgumentCaptor.getValue()).isEqualTo("1234");
         Assertions.assertThat(unLockArgumentCaptor.getValue()).isEqualTo("1234");
     }
+
+    @Test
+    void lockWithAnnotationPolicy() throws Throwable{
+        //given
+        ArgumentCaptor<LockPolicy> policyArgumentCaptor =
+                ArgumentCaptor.forClass(LockPolicy.class);
+
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1234", 1000L);
+
+        //when
+        lockAopAspect.aroundMethod(pjp, accountLock("customLock"), request);
+
+        //then
+        verify(lockService, times(1))
+                .lock(eq("1234"), policyArgumentCaptor.capture());
+
+        Assertions.assertThat(policyArgumentCaptor.getValue().getWaitTime()).isEqualTo(300L);
+        Assertions.assertThat(policyArgumentCaptor.getValue().isWatchdog()).isTrue();
+    }
+
+    @Test
+    void adaptiveLock_failFastWhenContended() throws Throwable{
+        //given
+        ArgumentCaptor<LockPolicy> policyArgumentCaptor =
+                ArgumentCaptor.forClass(LockPolicy.class);
+
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1234", 1000L);
+
+        // 앞선 요청 2개가 각각 lock 을 1초씩 잡고 있었던 상황
+        contentionTracker.enter("1234");
+        contentionTracker.enter("1234");
+        contentionTracker.exit("1234", 1_000_000_000L);
+        contentionTracker.enter("1234");
+
+        //when
+        lockAopAspect.aroundMethod(pjp, accountLock("adaptiveLock"), request);
+
+        //then
+        verify(lockService, times(1))
+                .lock(eq("1234"), policyArgumentCaptor.capture());
+
+        Assertions.assertThat(policyArgumentCaptor.getValue().getWaitTime()).isEqualTo(0L);
+    }
+
+    @Test
+    void lockAllAndUnlockAll_evenIfThrow() throws Throwable{
+        //given
+        TransferBalance.Request request =
+                new TransferBalance.Request(123L, "1000000001", "1000000000", 1000L);
+
+        given(pjp.proceed())
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        //when
+        assertThrows(AccountException.class,
+                () -> lockAopAspect.aroundAccountsMethod(pjp, accountLock("defaultLock"), request));
+
+        //then
+        verify(lockService, times(1))
+                .lockAll(eq(List.of("1000000001", "1000000000")), any());
+        verify(lockService, times(1))
+                .unlockAll(List.of("1000000001", "1000000000"));
+    }
+
+    @Test
+    void lockAll_withShardLocksOfShardedFromAccount() throws Throwable{
+        //given
+        TransferBalance.Request request =
+                new TransferBalance.Request(123L, "1000000001", "1000000000", 1000L);
+        given(accountShardRegistry.getShardCount("1000000001")).willReturn(2);
+
+        //when
+        lockAopAspect.aroundAccountsMethod(pjp, accountLock("defaultLock"), request);
+
+        //then
+        List<String> lockIds = List.of("1000000001", "1000000000", "1000000001#0", "1000000001#1");
+        verify(lockService, times(1)).lockAll(eq(lockIds), any());
+        verify(lockService, times(1)).unlockAll(lockIds);
+    }
+
+    @Test
+    void shardableLock_skipAccountLockForShardedAccount() throws Throwable{
+        //given
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1234", 1000L);
+        given(accountShardRegistry.isSharded("1234")).willReturn(true);
+
+        //when
+        lockAopAspect.aroundMethod(pjp, accountLock("shardableLock"), request);
+
+        //then
+        verify(pjp, times(1)).proceed();
+        verify(lockService, times(0)).lock(any(), any());
+        verify(lockService, times(0)).unlock(any());
+    }
+
+    @Test
+    void shardableLock_lockNotShardedAccount() throws Throwable{
+        //given
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1234", 1000L);
+        given(accountShardRegistry.isSharded("1234")).willReturn(false);
+
+        //when
+        lockAopAspect.aroundMethod(pjp, accountLock("shardableLock"), request);
+
+        //then
+        verify(lockService, times(1)).lock(eq("1234"), any());
+        verify(lockService, times(1)).unlock("1234");
+    }
+
+    private static AccountLock accountLock(String methodName) throws NoSuchMethodException {
+        return LockAopAspectTest.class.getDeclaredMethod(methodName)
+                .getAnnotation(AccountLock.class);
+    }
+
+    @AccountLock
+    private void defaultLock() {
+    }
+
+    @AccountLock(tryLockTime = 300L, watchdog = true)
+    private void customLock() {
+    }
+
+    @AccountLock(adaptive = true)
+    private void adaptiveLock() {
+    }
+
+    @AccountLock(shardable = true)
+    private void shardableLock() {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LockContentionTrackerTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final LockContentionTracker contentionTracker = new LockContentionTracker(60, 1000, nanos::get);
+
+    @Test
+    void keepWaitTimeWithoutContention() {
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(1000L);
+    }
+
+    @Test
+    void keepWaitTimeWhenQueueClearsInTime() {
+        //given
+        contentionTracker.enter("1000000000");
+        contentionTracker.enter("1000000000");
+        contentionTracker.exit("1000000000", 100_000_000L);
+
+        //when
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(1000L);
+    }
+
+    @Test
+    void shortenWaitTimeWhenQueueWillNotClear() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            contentionTracker.enter("1000000000");
+        }
+        contentionTracker.enter("1000000000");
+        contentionTracker.exit("1000000000", 400_000_000L);
+
+        //when
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(0L);
+    }
+
+    @Test
+    void forgetAccountWhenIdle() {
+        //given
+        contentionTracker.enter("1000000000");
+        contentionTracker.exit("1000000000", 5_000_000_000L);
+
+        //when
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(1000L);
+    }
+
+    @Test
+    void shortenWaitTimeAtStartOfNextBurst() {
+        //given
+        contentionTracker.enter("1000000000");
+        contentionTracker.exit("1000000000", 400_000_000L);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            contentionTracker.enter("1000000000");
+        }
+
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(0L);
+    }
+
+    @Test
+    void forgetHoldTimeAfterIdleTimeout() {
+        //given
+        contentionTracker.enter("1000000000");
+        contentionTracker.exit("1000000000", 400_000_000L);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        contentionTracker.cleanUp();
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            contentionTracker.enter("1000000000");
+        }
+
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(1000L);
+    }
+
+    @Test
+    void keepInFlightAccountPastIdleTimeout() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            contentionTracker.enter("1000000000");
+        }
+        contentionTracker.exit("1000000000", 400_000_000L);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(120));
+        contentionTracker.cleanUp();
+
+        //when
+        //then
+        assertThat(contentionTracker.adjustWaitTime("1000000000", 1000L)).isEqualTo(0L);
+    }
+}
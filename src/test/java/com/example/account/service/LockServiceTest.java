@@ -1,5 +1,6 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockPolicy;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
 import org.assertj.core.api.Assertions;
@@ -11,10 +12,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
+import java.util.List;
+
 import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
@@ -40,6 +45,44 @@ class LockServiceTest {
         assertDoesNotThrow(() -> lockService.lock("123"));
     }
 
+    @Test
+    void lockAll_multiLockInAccountNumberOrder() throws InterruptedException {
+        //given
+        RLock lock1 = mock(RLock.class);
+        RLock lock2 = mock(RLock.class);
+        given(redissonClient.getLock("ACLK:1000000000")).willReturn(lock1);
+        given(redissonClient.getLock("ACLK:1000000001")).willReturn(lock2);
+        given(redissonClient.getMultiLock(lock1, lock2)).willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+
+        //when
+        lockService.lockAll(List.of("1000000001", "1000000000"), LockPolicy.DEFAULT);
+        lockService.unlockAll(List.of("1000000001", "1000000000"));
+
+        //then
+        verify(rLock).unlock();
+    }
+
+    @Test
+    void lockAll_fail() throws InterruptedException {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(redissonClient.getMultiLock(any()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(false);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lockAll(List.of("1000000000", "1000000001"), LockPolicy.DEFAULT));
+
+        //then
+        Assertions.assertThat(accountException.getErrorCode())
+                .isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+    }
+
     @Test
     void failGetLock() throws InterruptedException {
         //given
@@ -0,0 +1,97 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OptimisticRetryAspectTest {
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private Signature signature;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OptimisticRetryAspect optimisticRetryAspect;
+
+    @BeforeEach
+    void setUp() {
+        optimisticRetryAspect = new OptimisticRetryAspect(meterRegistry, 3, 1L);
+        given(pjp.getSignature()).willReturn(signature);
+        given(signature.getName()).willReturn("useBalance");
+    }
+
+    @Test
+    void retryOnConflict() throws Throwable {
+        //given
+        given(pjp.proceed())
+                .willThrow(conflict())
+                .willReturn("result");
+
+        //when
+        Object result = optimisticRetryAspect.aroundMethod(pjp);
+
+        //then
+        assertThat(result).isEqualTo("result");
+        verify(pjp, times(2)).proceed();
+        assertThat(meterRegistry.counter("account.lock.optimistic.conflicts").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("account.lock.optimistic.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failAfterMaxAttempts() throws Throwable {
+        //given
+        given(pjp.proceed())
+                .willThrow(conflict());
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> optimisticRetryAspect.aroundMethod(pjp));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verify(pjp, times(3)).proceed();
+        assertThat(meterRegistry.counter("account.lock.optimistic.conflicts").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("account.lock.optimistic.retries").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("account.lock.optimistic.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void noRetryOnAccountException() throws Throwable {
+        //given
+        given(pjp.proceed())
+                .willThrow(new AccountException(AMOUNT_EXCEED_BALANCE));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> optimisticRetryAspect.aroundMethod(pjp));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
+        verify(pjp, times(1)).proceed();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Account", 1L);
+    }
+}
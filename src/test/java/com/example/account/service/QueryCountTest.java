@@ -0,0 +1,222 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountShard;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountDetail;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountOwnership;
+import com.example.account.dto.TransactionDto;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조회 API 와 잔액 사용/취소의 계좌 조회가 SQL 을 한 번만 실행하는지 확인
+ * (persistence context 를 비운 상태에서 Hibernate 통계로 prepared statement 수를 센다)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+@Import({AccountService.class, TransactionService.class, TransactionCache.class, SimpleMeterRegistry.class})
+class QueryCountTest {
+    @MockBean
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @MockBean
+    private AccountListCache accountListCache;
+
+    @MockBean
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @MockBean
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = testEntityManager.persist(Account.builder()
+                .accountUser(accountUserRepository.findById(1L).get())
+                .accountNumber("1000000000")
+                .accountStatus(IN_USE)
+                .balance(9000L)
+                .registeredAt(LocalDateTime.now())
+                .build());
+        testEntityManager.persist(Transaction.builder()
+                .account(account)
+                .transactionType(USE)
+                .transactionResultType(S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("GET /transaction/{transactionId} - 1 statement")
+    void queryTransaction() {
+        //when
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(transactionDto.getAccountNumber()).isEqualTo("1000000000");
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(9000L);
+    }
+
+    @Test
+    @DisplayName("GET /account?user_id= - 1 statement")
+    void getAccountsByUserId() {
+        //when
+        List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(accountDtos).hasSize(1);
+        assertThat(accountDtos.get(0).getUserId()).isEqualTo(1L);
+        assertThat(accountDtos.get(0).getAccountNumber()).isEqualTo("1000000000");
+    }
+
+    @Test
+    @DisplayName("GET /account?user_id= - 계좌가 없는 유저도 1 statement")
+    void getAccountsByUserId_noAccount() {
+        //when
+        List<AccountDto> accountDtos = accountService.getAccountsByUserId(2L);
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(accountDtos).isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /account?user_id= - 나뉜 계좌도 shard 잔액을 합쳐서 1 statement")
+    void getAccountsByUserId_shardedAccount() {
+        //given
+        Account sharded = accountRepository.findByAccountNumber("1000000000").get();
+        sharded.setBalance(100L);
+        sharded.setShardCount(2);
+        testEntityManager.persist(AccountShard.builder().account(sharded).shardIndex(0).balance(4000L).build());
+        testEntityManager.persist(AccountShard.builder().account(sharded).shardIndex(1).balance(5000L).build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics.clear();
+
+        //when
+        List<AccountDto> accountDtos = accountService.getAccountsByUserId(1L);
+        AccountDetail accountDetail = accountService.getAccount(sharded.getId());
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(accountDtos.get(0).getBalance()).isEqualTo(9100L);
+        assertThat(accountDetail.getBalance()).isEqualTo(9100L);
+    }
+
+    @Test
+    @DisplayName("GET /account/{id} - 1 statement")
+    void getAccount() {
+        //when
+        AccountDetail accountDetail = accountService.getAccount(account.getId());
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(accountDetail.getUserId()).isEqualTo(1L);
+        assertThat(accountDetail.getAccountStatus()).isEqualTo(IN_USE);
+        assertThat(accountDetail.getBalance()).isEqualTo(9000L);
+    }
+
+    @Test
+    @DisplayName("계좌 조회 시 소유주 id 만 쓰면 사용자는 읽지 않음")
+    void accountUserIsLazy() {
+        //when
+        Account found = accountRepository.findByAccountNumber("1000000000").get();
+        AccountUser accountUser = found.getAccountUser();
+
+        //then
+        assertThat(accountUser.getId()).isEqualTo(1L);
+        assertThat(Hibernate.isInitialized(accountUser)).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 - 계좌와 유저 확인 1 statement")
+    void findOwnership() {
+        //when
+        AccountOwnership ownership = accountRepository.findOwnershipByAccountNumber("1000000000", 1L).get();
+        AccountOwnership locked = accountRepository.findLockedOwnershipByAccountNumber("1000000000", 9L).get();
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(ownership.isUserExists()).isTrue();
+        assertThat(ownership.getAccount().getAccountUser().getId()).isEqualTo(1L);
+        assertThat(locked.isUserExists()).isFalse();
+        assertThat(accountRepository.findOwnershipByAccountNumber("9999999999", 1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 - 거래와 계좌 1 statement")
+    void findTransactionWithAccount() {
+        //when
+        Transaction transaction = transactionRepository.findLockedWithAccountByTransactionId("transactionId").get();
+        Account cancelAccount = TransactionService.getCancelAccount(transaction, "1000000000", accountRepository);
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(cancelAccount)).isTrue();
+        assertThat(cancelAccount.getBalance()).isEqualTo(9000L);
+    }
+}
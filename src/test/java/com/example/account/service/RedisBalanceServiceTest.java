@@ -0,0 +1,155 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.example.account.type.ErrorCode.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBalanceServiceTest {
+    @Mock
+    private RedisBalanceStore redisBalanceStore;
+
+    @Mock
+    private LedgerWriteBehind ledgerWriteBehind;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @InjectMocks
+    private RedisBalanceService redisBalanceService;
+
+    @Test
+    @DisplayName("잔액 사용 성공 - Redis 출금 후 거래 내역은 대기열로")
+    void useBalanceSuccess() {
+        //given
+        given(redisBalanceStore.debit(1L, "1000000012", 1000L))
+                .willReturn(9000L);
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        TransactionDto transactionDto = redisBalanceService.useBalance(1L, "1000000012", 1000L);
+
+        //then
+        verify(ledgerWriteBehind, times(1)).append(eq("1000000012"), captor.capture(), eq(-1000L));
+        assertThat(captor.getValue().getBalanceSnapshot()).isEqualTo(9000L);
+        assertThat(captor.getValue().getAccount()).isNull();
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(9000L);
+        assertThat(transactionDto.getTransactionResultType()).isEqualTo(TransactionResultType.S);
+        assertThat(transactionDto.getTransactionType()).isEqualTo(TransactionType.USE);
+        assertThat(transactionDto.getTransactionId()).isEqualTo(captor.getValue().getTransactionId());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - Redis 검증 실패 시 거래 내역 없음")
+    void useBalance_exceedAmount() {
+        //given
+        given(redisBalanceStore.debit(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(AMOUNT_EXCEED_BALANCE));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> redisBalanceService.useBalance(1L, "1000000012", 1000L));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
+        verify(ledgerWriteBehind, never()).append(anyString(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("실패 거래 저장 - 잔액 변화 없음")
+    void saveFailedUseTransaction() {
+        //given
+        given(redisBalanceStore.getBalance("1000000012"))
+                .willReturn(Optional.of(500L));
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        redisBalanceService.saveFailedUseTransactions("1000000012", 1000L);
+
+        //then
+        verify(ledgerWriteBehind, times(1)).append(eq("1000000012"), captor.capture(), eq(0L));
+        assertThat(captor.getValue().getTransactionResultType()).isEqualTo(TransactionResultType.F);
+        assertThat(captor.getValue().getBalanceSnapshot()).isEqualTo(500L);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 성공 - 대기 중인 거래 반영 후 Redis 입금")
+    void cancelBalanceSuccess() {
+        //given
+        Account account = Account.builder()
+                .accountNumber("1000000012").build();
+        account.setId(1L);
+        given(transactionRepository.findWithAccountByTransactionId("transactionId"))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .amount(1000L)
+                        .transactedAt(LocalDateTime.now())
+                        .build()));
+        given(redisBalanceStore.credit("1000000012", 1000L))
+                .willReturn(10000L);
+
+        //when
+        TransactionDto transactionDto = redisBalanceService.cancelBalance("transactionId", "1000000012", 1000L);
+
+        //then
+        verify(ledgerWriteBehind).flushIfPending("transactionId");
+        verify(ledgerWriteBehind, times(1)).append(eq("1000000012"), any(), eq(1000L));
+        assertThat(transactionDto.getTransactionType()).isEqualTo(TransactionType.CANCEL);
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(10000L);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 실패 - 부분 취소 불가능, Redis 잔액 변경 없음")
+    void cancelBalance_cancelMustFully() {
+        //given
+        Account account = Account.builder()
+                .accountNumber("1000000012").build();
+        account.setId(1L);
+        given(transactionRepository.findWithAccountByTransactionId("transactionId"))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .amount(1000L)
+                        .transactedAt(LocalDateTime.now())
+                        .build()));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> redisBalanceService.cancelBalance("transactionId", "1000000012", 100L));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(CANCEL_MUST_FULLY);
+        verify(redisBalanceStore, never()).credit(anyString(), anyLong());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.example.account.type.ErrorCode.AMOUNT_EXCEED_BALANCE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedBalanceServiceTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private AccountShardService accountShardService;
+
+    @Mock
+    private AccountShardRegistry accountShardRegistry;
+
+    @Mock
+    private LockProvider lockProvider;
+
+    private ShardedBalanceService shardedBalanceService;
+
+    @BeforeEach
+    void setUp() {
+        shardedBalanceService = new ShardedBalanceService(
+                transactionService, accountShardService, accountShardRegistry, lockProvider, 100, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedBalanceService.shutdown();
+    }
+
+    @Test
+    @DisplayName("나뉘지 않은 계좌는 TransactionService 로 처리")
+    void useBalance_notSharded() {
+        //given
+        given(accountShardRegistry.getShardCount("1000000000")).willReturn(0);
+
+        //when
+        shardedBalanceService.useBalance(12L, "1000000000", 1000L);
+
+        //then
+        verify(transactionService).useBalance(12L, "1000000000", 1000L);
+        verifyNoInteractions(lockProvider);
+    }
+
+    @Test
+    @DisplayName("나뉜 계좌는 shard 하나의 lock 만 잡고 그 shard 에서 출금")
+    void useBalance_oneShard() {
+        //given
+        given(accountShardRegistry.getShardCount("1000000000")).willReturn(4);
+        given(accountShardService.getShardBalances("1000000000"))
+                .willReturn(new long[]{5000L, 5000L, 5000L, 5000L});
+        TransactionDto transactionDto = TransactionDto.builder().transactionId("transactionId").build();
+        given(transactionService.useShardBalance(eq(12L), eq("1000000000"), anyCollection(), eq(1000L)))
+                .willReturn(transactionDto);
+        ArgumentCaptor<String> lockIdCaptor = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Integer>> shardIndexesCaptor = ArgumentCaptor.forClass(Collection.class);
+
+        //when
+        TransactionDto result = shardedBalanceService.useBalance(12L, "1000000000", 1000L);
+
+        //then
+        assertThat(result).isSameAs(transactionDto);
+        verify(lockProvider).lock(lockIdCaptor.capture(), any());
+        verify(transactionService).useShardBalance(eq(12L), eq("1000000000"), shardIndexesCaptor.capture(), eq(1000L));
+        int shardIndex = shardIndexesCaptor.getValue().iterator().next();
+        assertThat(shardIndexesCaptor.getValue()).hasSize(1);
+        assertThat(lockIdCaptor.getValue()).isEqualTo("1000000000#" + shardIndex);
+        verify(lockProvider).unlock("1000000000#" + shardIndex);
+        verify(lockProvider, never()).lockAll(any(), any());
+        verify(transactionService, never()).useBalance(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("고른 shard 의 잔액이 부족하면 모든 shard lock 을 잡고 나눠서 출금")
+    void useBalance_allShards() {
+        //given
+        given(accountShardRegistry.getShardCount("1000000000")).willReturn(2);
+        given(accountShardService.getShardBalances("1000000000"))
+                .willReturn(new long[]{1000L, 0L});
+        given(transactionService.useShardBalance(eq(12L), eq("1000000000"), anyCollection(), eq(1000L)))
+                .willThrow(new AccountException(AMOUNT_EXCEED_BALANCE))
+                .willReturn(TransactionDto.builder().transactionId("transactionId").build());
+
+        //when
+        shardedBalanceService.useBalance(12L, "1000000000", 1000L);
+
+        //then
+        verify(lockProvider).lockAll(List.of("1000000000#0", "1000000000#1"), LockPolicy.DEFAULT);
+        verify(transactionService).useShardBalance(12L, "1000000000", List.of(0, 1), 1000L);
+        verify(lockProvider).unlockAll(List.of("1000000000#0", "1000000000#1"));
+    }
+
+    @Test
+    @DisplayName("잔액이 충분한 shard 만 고르고, 출금한 만큼 힌트를 줄여 모자라면 바로 모든 shard 에서 출금")
+    void useBalance_pickShardWithEnoughBalance() {
+        //given
+        given(accountShardRegistry.getShardCount("1000000000")).willReturn(4);
+        given(accountShardService.getShardBalances("1000000000"))
+                .willReturn(new long[]{0L, 500L, 2000L, 0L});
+        given(transactionService.useShardBalance(eq(12L), eq("1000000000"), anyCollection(), anyLong()))
+                .willReturn(TransactionDto.builder().transactionId("transactionId").build());
+
+        //when
+        shardedBalanceService.useBalance(12L, "1000000000", 1500L);
+        shardedBalanceService.useBalance(12L, "1000000000", 1000L);
+
+        //then
+        verify(lockProvider).lock(eq("1000000000#2"), any());
+        verify(transactionService).useShardBalance(12L, "1000000000", List.of(2), 1500L);
+        verify(lockProvider).lockAll(
+                List.of("1000000000#0", "1000000000#1", "1000000000#2", "1000000000#3"), LockPolicy.DEFAULT);
+        verify(transactionService).useShardBalance(12L, "1000000000", List.of(0, 1, 2, 3), 1000L);
+        verify(accountShardService, times(1)).getShardBalances("1000000000");
+    }
+
+    @Test
+    @DisplayName("rebalance - 계좌 lock 과 모든 shard lock 을 잡고 다시 나누고, 잡지 못한 계좌는 건너뜀")
+    void rebalanceQuietly() {
+        //given
+        given(accountShardService.getShardedAccountNumbers())
+                .willReturn(List.of("1000000000", "1000000001"));
+        given(accountShardService.needsRebalance(anyString())).willReturn(true);
+        given(accountShardRegistry.getShardCount(anyString())).willReturn(2);
+        willThrow(new AccountException(ACCOUNT_TRANSACTION_LOCK)).given(lockProvider)
+                .lockAll(eq(List.of("1000000000", "1000000000#0", "1000000000#1")), any());
+
+        //when
+        shardedBalanceService.rebalanceQuietly();
+
+        //then
+        verify(accountShardService, never()).rebalance("1000000000");
+        verify(lockProvider, never()).unlockAll(List.of("1000000000", "1000000000#0", "1000000000#1"));
+        verify(accountShardService).rebalance("1000000001");
+        verify(lockProvider).unlockAll(List.of("1000000001", "1000000001#0", "1000000001#1"));
+    }
+}
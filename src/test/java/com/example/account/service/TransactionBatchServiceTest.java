@@ -0,0 +1,119 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+    @Mock
+    private AccountBatchProcessor accountBatchProcessor;
+
+    private TransactionBatchService transactionBatchService;
+
+    @BeforeEach
+    void setUp() {
+        transactionBatchService = new TransactionBatchService(accountBatchProcessor, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 - 계좌별로 한 번씩 처리하고 요청 순서대로 결과 반환")
+    void useBalances_groupByAccount() {
+        //given
+        given(accountBatchProcessor.useBalances(any()))
+                .willAnswer(invocation -> invocation.<UseBalanceBatch.AccountRequests>getArgument(0)
+                        .getRequests().stream()
+                        .map(request -> UseBalanceBatch.Item.builder()
+                                .accountNumber(request.getAccountNumber())
+                                .transactionResultType(S)
+                                .amount(request.getAmount())
+                                .build())
+                        .collect(Collectors.toList()));
+
+        //when
+        List<UseBalanceBatch.Item> items = transactionBatchService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(2L, "1000000001", 200L),
+                new UseBalance.Request(1L, "1000000000", 300L)
+        ));
+
+        //then
+        ArgumentCaptor<UseBalanceBatch.AccountRequests> captor =
+                ArgumentCaptor.forClass(UseBalanceBatch.AccountRequests.class);
+        verify(accountBatchProcessor, times(2)).useBalances(captor.capture());
+        assertThat(captor.getAllValues().get(0).getAccountNumber()).isEqualTo("1000000000");
+        assertThat(captor.getAllValues().get(0).getRequests())
+                .extracting(UseBalance.Request::getAmount).containsExactly(100L, 300L);
+        assertThat(captor.getAllValues().get(1).getAccountNumber()).isEqualTo("1000000001");
+
+        assertThat(items).extracting(UseBalanceBatch.Item::getAmount).containsExactly(100L, 200L, 300L);
+        assertThat(items).extracting(UseBalanceBatch.Item::getAccountNumber)
+                .containsExactly("1000000000", "1000000001", "1000000000");
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 - lock 획득 실패한 계좌의 요청만 모두 실패")
+    void useBalances_lockFailed() {
+        //given
+        given(accountBatchProcessor.useBalances(argThat(request ->
+                request != null && request.getAccountNumber().equals("1000000000"))))
+                .willThrow(new AccountException(ACCOUNT_TRANSACTION_LOCK));
+        given(accountBatchProcessor.useBalances(argThat(request ->
+                request != null && request.getAccountNumber().equals("1000000001"))))
+                .willReturn(List.of(UseBalanceBatch.Item.builder()
+                        .accountNumber("1000000001")
+                        .transactionResultType(S)
+                        .amount(200L)
+                        .build()));
+
+        //when
+        List<UseBalanceBatch.Item> items = transactionBatchService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(2L, "1000000001", 200L),
+                new UseBalance.Request(1L, "1000000000", 300L)
+        ));
+
+        //then
+        assertThat(items).extracting(UseBalanceBatch.Item::getTransactionResultType).containsExactly(F, S, F);
+        assertThat(items.get(0).getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        assertThat(items.get(2).getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        assertThat(items.get(2).getAmount()).isEqualTo(300L);
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 - 계좌 오류가 아닌 실패는 내부 오류로 반환")
+    void useBalances_unexpectedFailure() {
+        //given
+        given(accountBatchProcessor.useBalances(any()))
+                .willThrow(new IllegalStateException("db down"));
+
+        //when
+        List<UseBalanceBatch.Item> items = transactionBatchService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L)
+        ));
+
+        //then
+        assertThat(items).extracting(UseBalanceBatch.Item::getTransactionResultType).containsExactly(F);
+        assertThat(items.get(0).getErrorCode()).isEqualTo(INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionCache transactionCache = new TransactionCache(meterRegistry, 2, 600);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("캐시 조회 - 없을 때만 loader 호출, hit/miss 지표")
+    void get() {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        transactionCache.get("t1", id -> load(id, loads));
+        TransactionDto transaction = transactionCache.get("t1", id -> load(id, loads));
+
+        //then
+        assertThat(transaction.getTransactionId()).isEqualTo("t1");
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "transaction").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "transaction").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("commit 후에만 캐시에 넣음")
+    void putAfterCommit() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        transactionCache.putAfterCommit(dto("committed"));
+        transactionCache.putAfterCommit(dto("rolledBack"));
+        TransactionSynchronization committed = TransactionSynchronizationManager.getSynchronizations().get(0);
+        TransactionSynchronizationManager.clearSynchronization();
+        committed.afterCommit();
+
+        //then
+        transactionCache.get("committed", id -> load(id, loads));
+        assertThat(loads).hasValue(0);
+        transactionCache.get("rolledBack", id -> load(id, loads));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("최대 크기를 넘으면 내보냄")
+    void evictBySize() {
+        //when
+        for (int i = 0; i < 10; i++) {
+            transactionCache.putAfterCommit(dto("t" + i));
+        }
+
+        //then
+        assertThat(transactionCache.size()).isLessThanOrEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "transaction")
+                .functionCounter().count()).isGreaterThanOrEqualTo(8);
+    }
+
+    private static TransactionDto load(String transactionId, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return dto(transactionId);
+    }
+
+    private static TransactionDto dto(String transactionId) {
+        return TransactionDto.builder()
+                .transactionId(transactionId)
+                .amount(1000L)
+                .build();
+    }
+}
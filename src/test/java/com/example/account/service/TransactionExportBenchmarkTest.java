@@ -0,0 +1,104 @@
+package com.example.account.service;
+
+import com.example.account.type.ExportFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 계좌의 거래 100만 건을 내보내는 동안 힙 사용량이 거래 수에 따라 늘지 않는지 확인
+ * 10만 건마다 GC 후 남아 있는 힙 크기를 잰다.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "spring.datasource.url=jdbc:h2:mem:export"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransactionExportService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionExportBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final long ACCOUNT_ID = 100_000_000L;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("거래 내역 내보내기 - 거래 수에 따른 힙 사용량")
+    void exportHeap() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into account (id, account_number, account_status, balance, version,"
+                + " account_user_id, registered_at, created_at, updated_at)"
+                + " values (?, '9000000000', 'IN_USE', 0, 0, 1, now(), now(), now())", ACCOUNT_ID);
+        jdbcTemplate.update("insert into transaction (id, account_id, amount, balance_snapshot, transacted_at,"
+                        + " transaction_id, transaction_result_type, transaction_type, created_at, updated_at)"
+                        + " select ? + x, ?, 1000, 0, dateadd('SECOND', x, timestamp '2022-01-01 00:00:00'),"
+                        + " 'T' || x, 'S', 'USE', now(), now()"
+                        + " from system_range(0, ?)",
+                ACCOUNT_ID, ACCOUNT_ID, ROWS - 1);
+
+        long before = usedHeapAfterGc();
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+        long start = System.nanoTime();
+        long count = transactionExportService.export(ACCOUNT_ID, ExportFormat.NDJSON, out);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("exported %d rows, %d MB in %d ms%n", count, out.bytes / (1024 * 1024), elapsedMillis);
+        System.out.printf("heap before export %d MB%n", before / (1024 * 1024));
+        for (int i = 0; i < out.samples.size(); i++) {
+            System.out.printf("rows=%d : heap %d MB%n", (i + 1) * SAMPLE_EVERY, out.samples.get(i) / (1024 * 1024));
+        }
+
+        assertThat(count).isEqualTo(ROWS);
+        long first = out.samples.get(0);
+        long last = out.samples.get(out.samples.size() - 1);
+        assertThat(last - first).isLessThan(32L * 1024 * 1024);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class HeapSamplingOutputStream extends OutputStream {
+        private final List<Long> samples = new ArrayList<>();
+        private long lines;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                samples.add(usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
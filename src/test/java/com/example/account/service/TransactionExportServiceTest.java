@@ -0,0 +1,128 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionSummary;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ExportFormat.CSV;
+import static com.example.account.type.ExportFormat.NDJSON;
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 6, 1, 12, 0);
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @InjectMocks
+    private TransactionExportService transactionExportService;
+
+    @Test
+    @DisplayName("거래 내역 내보내기 - NDJSON")
+    void exportNdjson() throws Exception {
+        //given
+        AtomicBoolean closed = new AtomicBoolean();
+        given(transactionRepository.streamByAccountId(1L))
+                .willReturn(Stream.of(summary(20L, CANCEL, S), summary(10L, USE, F))
+                        .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long count = transactionExportService.export(1L, NDJSON, out);
+
+        //then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("transactionId").asText()).isEqualTo("t20");
+        assertThat(first.get("transactionType").asText()).isEqualTo("CANCEL");
+        assertThat(first.get("amount").asLong()).isEqualTo(1000L);
+        assertThat(first.get("transactedAt").asText()).isEqualTo("2022-06-01T12:00:00");
+        assertThat(objectMapper.readTree(lines[1]).get("transactionResultType").asText()).isEqualTo("F");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("거래 내역 내보내기 - CSV")
+    void exportCsv() throws Exception {
+        //given
+        given(transactionRepository.streamByAccountId(1L))
+                .willReturn(Stream.of(summary(10L, USE, S)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long count = transactionExportService.export(1L, CSV, out);
+
+        //then
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "transactionId,transactionType,transactionResultType,amount,balanceSnapshot,transactedAt\n"
+                        + "t10,USE,S,1000,9000,2022-06-01T12:00\n");
+    }
+
+    @Test
+    @DisplayName("해당 계좌 없음 - 거래 내역 내보내기 실패")
+    void getAccountId_AccountNotFound() {
+        //given
+        given(accountRepository.findIdByAccountNumber("1000000000"))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionExportService.getAccountId("1000000000"));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(ACCOUNT_NOT_FOUND);
+    }
+
+    private static TransactionSummary summary(Long id, TransactionType transactionType,
+                                              TransactionResultType resultType) {
+        return new TransactionSummary() {
+            public Long getId() { return id; }
+            public String getTransactionId() { return "t" + id; }
+            public TransactionType getTransactionType() { return transactionType; }
+            public TransactionResultType getTransactionResultType() { return resultType; }
+            public Long getAmount() { return 1000L; }
+            public Long getBalanceSnapshot() { return 9000L; }
+            public LocalDateTime getTransactedAt() { return NOW; }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.TransactionSummary;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 6, 1, 12, 0);
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionHistoryService transactionHistoryService;
+
+    @Test
+    @DisplayName("거래 내역 조회 - 다음 페이지 커서로 이어서 조회")
+    void getTransactionsWithCursor() {
+        //given
+        given(accountRepository.findIdByAccountNumber("1000000000"))
+                .willReturn(Optional.of(1L));
+        given(transactionRepository.findHistory(eq(1L), any(), any(), anyLong(), any(), any(), any()))
+                .willReturn(List.of(summary(30L, NOW), summary(20L, NOW.minusMinutes(1)), summary(10L, NOW.minusMinutes(2))))
+                .willReturn(List.of(summary(10L, NOW.minusMinutes(2))));
+        ArgumentCaptor<LocalDateTime> cursorAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<Long> cursorId = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+
+        //when
+        TransactionHistory.Response first = transactionHistoryService.getTransactions(
+                "1000000000", null, 2, USE, S, null, null);
+        TransactionHistory.Response second = transactionHistoryService.getTransactions(
+                "1000000000", first.getNextCursor(), 2, USE, S, null, null);
+
+        //then
+        assertThat(first.getTransactions()).hasSize(2);
+        assertThat(first.getTransactions().get(0).getTransactionId()).isEqualTo("t30");
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getTransactions()).hasSize(1);
+        assertThat(second.getNextCursor()).isNull();
+
+        verify(transactionRepository, times(2)).findHistory(eq(1L), any(),
+                cursorAt.capture(), cursorId.capture(), eq(USE), eq(S), pageable.capture());
+        assertThat(cursorId.getAllValues().get(0)).isEqualTo(Long.MAX_VALUE);
+        assertThat(cursorAt.getAllValues().get(1)).isEqualTo(NOW.minusMinutes(1));
+        assertThat(cursorId.getAllValues().get(1)).isEqualTo(20L);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("거래 내역 조회 실패 - 계좌 없음")
+    void getTransactions_accountNotFound() {
+        //given
+        given(accountRepository.findIdByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionHistoryService.getTransactions("1000000000", null, 20, null, null, null, null));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("거래 내역 조회 실패 - 잘못된 커서")
+    void getTransactions_invalidCursor() {
+        //given
+        given(accountRepository.findIdByAccountNumber(anyString()))
+                .willReturn(Optional.of(1L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionHistoryService.getTransactions("1000000000", "not-a-cursor", 20, null, null, null, null));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(INVALID_REQUEST);
+    }
+
+    @Test
+    @DisplayName("거래 내역 조회 실패 - 페이지 크기 초과")
+    void getTransactions_invalidSize() {
+        //given
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionHistoryService.getTransactions("1000000000", null, 101, null, null, null, null));
+
+        //then
+        assertThat(exception.getErrorCode()).isEqualTo(INVALID_REQUEST);
+    }
+
+    private static TransactionSummary summary(Long id, LocalDateTime transactedAt) {
+        return new TransactionSummary() {
+            public Long getId() { return id; }
+            public String getTransactionId() { return "t" + id; }
+            public TransactionType getTransactionType() { return USE; }
+            public TransactionResultType getTransactionResultType() { return S; }
+            public Long getAmount() { return 1000L; }
+            public Long getBalanceSnapshot() { return 9000L; }
+            public LocalDateTime getTransactedAt() { return transactedAt; }
+        };
+    }
+}
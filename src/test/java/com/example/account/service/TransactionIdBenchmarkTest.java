@@ -0,0 +1,100 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * uuid 와 snowflake 거래 번호의 발급 속도, 인덱스에 insert / 조회하는 속도 비교
+ */
+@Tag("benchmark")
+class TransactionIdBenchmarkTest {
+    private static final int ROWS = 200_000;
+    private static final int LOOKUPS = 50_000;
+
+    @Test
+    @DisplayName("거래 번호 발급 / insert / 최근 거래 조회")
+    void compare() throws Exception {
+        TransactionIdGenerator uuid = new UuidTransactionIdGenerator();
+        TransactionIdGenerator snowflake = new SnowflakeTransactionIdGenerator(1, System::currentTimeMillis);
+
+        long uuidGenerate = measureGenerate(uuid);
+        long snowflakeGenerate = measureGenerate(snowflake);
+        System.out.printf("generate %d ids : uuid %d ms, snowflake %d ms%n", ROWS, uuidGenerate, snowflakeGenerate);
+
+        long[] uuidTable = measureTable("uuid_ids", uuid);
+        long[] snowflakeTable = measureTable("snowflake_ids", snowflake);
+        System.out.printf("insert %d rows : uuid %d ms, snowflake %d ms%n", ROWS, uuidTable[0], snowflakeTable[0]);
+        System.out.printf("lookup %d recent rows : uuid %d ms, snowflake %d ms%n",
+                LOOKUPS, uuidTable[1], snowflakeTable[1]);
+
+        assertThat(snowflakeGenerate).isLessThan(uuidGenerate);
+    }
+
+    private static long measureGenerate(TransactionIdGenerator generator) {
+        List<String> ids = new ArrayList<>(ROWS);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            ids.add(generator.generate());
+        }
+        assertThat(ids).hasSize(ROWS);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * @return [insert ms, 최근에 만든 거래를 조회하는 ms]
+     */
+    private static long[] measureTable(String table, TransactionIdGenerator generator) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + table, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table " + table + " (transaction_id varchar(32) primary key, amount bigint)");
+            }
+
+            List<String> inserted = new ArrayList<>(ROWS);
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into " + table + " values (?, ?)")) {
+                for (int i = 0; i < ROWS; i++) {
+                    String id = generator.generate();
+                    inserted.add(id);
+                    insert.setString(1, id);
+                    insert.setLong(2, i);
+                    insert.addBatch();
+                    if (i % 1000 == 999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            long insertMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // 조회는 대부분 최근 거래(취소, 거래 확인)에 몰린다.
+            List<String> recent = new ArrayList<>(inserted.subList(ROWS - ROWS / 10, ROWS));
+            Collections.shuffle(recent, new Random(1));
+            start = System.nanoTime();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "select amount from " + table + " where transaction_id = ?")) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    select.setString(1, recent.get(i % recent.size()));
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        assertThat(resultSet.next()).isTrue();
+                    }
+                }
+            }
+            long lookupMillis = (System.nanoTime() - start) / 1_000_000;
+            return new long[]{insertMillis, lookupMillis};
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.example.account.service;
 
 import com.example.account.domain.Account;
+import com.example.account.domain.AccountShard;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountOwnership;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransferDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.dto.UseBalanceBatch;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountShardRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static com.example.account.type.AccountStatus.*;
@@ -28,8 +39,10 @@ import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceTest {
@@ -42,6 +55,21 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @Mock
+    private AccountListCache accountListCache;
+
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
+    @Spy
+    private TransactionCache transactionCache = new TransactionCache(new SimpleMeterRegistry(), 100, 600);
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -56,9 +84,6 @@ class TransactionServiceTest {
                 .name("pobi")
                 .build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-
         Account account = Account.builder()
                 .accountUser(user)
                 .accountStatus(IN_USE)
@@ -66,9 +91,8 @@ class TransactionServiceTest {
                 .accountNumber("1000000000")
                 .build();
 
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account)
-                );
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(account, 1L)));
         given(transactionRepository.save(any()))
                 .willReturn(Transaction.builder()
                         .account(account)
@@ -102,8 +126,10 @@ class TransactionServiceTest {
     @DisplayName("잔액 사용 실패 - 해당 유저 없음")
     void createAccount_UserNotFound(){
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
                 .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(false);
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -117,15 +143,10 @@ class TransactionServiceTest {
     @DisplayName("잔액 사용 실패 - 해당 계좌 없음")
     void deleteAccount_AccountNotFound(){
         //given
-        AccountUser user = AccountUser.builder()
-                .id(12L)
-                .name("pobi")
-                .build();
-
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
                 .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -139,24 +160,17 @@ class TransactionServiceTest {
     @DisplayName("잔액 사용 실패 - 계좌 소유주 다름")
     void deleteAccount_userUnMatch(){
         //given
-        AccountUser pobi = AccountUser.builder()
-                .id(12L)
-                .name("pobi")
-                .build();
-
         AccountUser haru = AccountUser.builder()
                 .id(13L)
                 .name("Haru")
                 .build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(pobi));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(Account.builder()
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(Account.builder()
                         .accountUser(haru)
                         .balance(0L)
                         .accountNumber("1000000000")
-                        .build()));
+                        .build(), 1L)));
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -175,19 +189,17 @@ class TransactionServiceTest {
                 .name("pobi")
                 .build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(pobi));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(Account.builder()
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(Account.builder()
                         .accountUser(pobi)
                         .balance(0L)
                         .accountNumber("1000000012")
                         .accountStatus(AccountStatus.UNREGISTERED)
-                        .build()));
+                        .build(), 1L)));
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+                () -> transactionService.useBalance(12L, "1234567890", 1000L));
 
         //then
         assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_ALREADY_UNREGISTERED);
@@ -202,9 +214,6 @@ class TransactionServiceTest {
                 .name("pobi")
                 .build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-
         Account account = Account.builder()
                 .accountUser(user)
                 .accountStatus(IN_USE)
@@ -212,59 +221,28 @@ class TransactionServiceTest {
                 .accountNumber("1000000000")
                 .build();
 
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account)
-                );
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(account, 1L)));
 
         //when
         //then
         AccountException accountException = assertThrows(AccountException.class,
-                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+                () -> transactionService.useBalance(12L, "1234567890", 1000L));
 
         assertThat(accountException.getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
     }
 
     @Test
-    @DisplayName("실패 트랜잭션 저장 성공")
+    @DisplayName("실패 트랜잭션 저장 성공 - 기록기로 전달")
     void savedFailedUseTransaction(){
         //given
-        AccountUser user = AccountUser.builder()
-                .id(12L)
-                .name("pobi")
-                .build();
-
-        Account account = Account.builder()
-                .accountUser(user)
-                .accountStatus(IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000000")
-                .build();
-
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
-        given(transactionRepository.save(any()))
-                .willReturn(Transaction.builder()
-                        .account(account)
-                        .transactionType(USE)
-                        .transactionResultType(S)
-                        .transactionId("transactionId")
-                        .transactedAt(LocalDateTime.now())
-                        .amount(1000L)
-                        .balanceSnapshot(9000L)
-                        .build());
-
-        ArgumentCaptor<Transaction> transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
-
         //when
         transactionService.saveFailedUseTransactions("1000000000", 200L);
 
         //then
-        verify(transactionRepository, times(1))
-                .save(transactionArgumentCaptor.capture());
-
-        assertThat(transactionArgumentCaptor.getValue().getBalanceSnapshot()).isEqualTo(10000L);
-        assertThat(transactionArgumentCaptor.getValue().getTransactionResultType()).isEqualTo(F);
-        assertThat(transactionArgumentCaptor.getValue().getAmount()).isEqualTo(200L);
+        verify(failedTransactionRecorder, times(1))
+                .record("1000000000", 200L, USE);
+        verifyNoInteractions(accountRepository, transactionRepository);
     }
 
     @Test
@@ -293,12 +271,9 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
 
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
-
         given(transactionRepository.save(any()))
                 .willReturn(Transaction.builder()
                         .account(account)
@@ -346,14 +321,6 @@ class TransactionServiceTest {
                 .accountNumber("1000000000")
                 .build();
 
-        Account accountNotTransaction = Account.builder()
-                .id(2L)
-                .accountUser(user)
-                .accountStatus(IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000001")
-                .build();
-
         Transaction transaction = Transaction.builder()
                 .account(account)
                 .transactionType(USE)
@@ -364,14 +331,14 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(accountNotTransaction));
+        given(accountRepository.findIdByAccountNumber("1000000001"))
+                .willReturn(Optional.of(2L));
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
-                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+                () -> transactionService.cancelBalance("transactionId", "1000000001", 1000L));
 
         //then
         assertThat(accountException.getErrorCode()).isEqualTo(TRANSACTION_ACCOUNT_UN_MATCH);
@@ -404,10 +371,8 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -444,10 +409,8 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -461,7 +424,7 @@ class TransactionServiceTest {
     @DisplayName("잔액 사용 취소 실패 - 해당 거래 없음")
     void cancelTransaction_TransactionNotFound(){
         //given
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         //when
@@ -480,14 +443,18 @@ class TransactionServiceTest {
     @DisplayName("잔액 사용 취소 실패 - 해당 계좌 없음")
     void cancelTransaction_AccountNotFound(){
         //given
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(Transaction.builder().build()));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(Account.builder()
+                                .accountNumber("1000000000")
+                                .build())
+                        .build()));
+        given(accountRepository.findIdByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
 
         //when
         AccountException accountException = assertThrows(AccountException.class,
-                () -> transactionService.cancelBalance("transactionId", "1000000000", 1000L));
+                () -> transactionService.cancelBalance("transactionId", "1000000001", 1000L));
 
         //then
         assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_NOT_FOUND);
@@ -520,8 +487,8 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
-                .willReturn(Optional.of(transaction));
+        given(transactionRepository.findDtoByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.fromEntity(transaction)));
 
 
         //when
@@ -535,11 +502,73 @@ class TransactionServiceTest {
         assertThat(transactionDto.getAccountNumber()).isEqualTo("1000000000");
     }
 
+    @Test
+    @DisplayName("잔액 사용 내역 확인 - 같은 거래를 다시 조회하면 DB 를 조회하지 않음")
+    void queryTransaction_cached(){
+        //given
+        Transaction transaction = Transaction.builder()
+                .account(Account.builder()
+                        .id(1L)
+                        .accountNumber("1000000000")
+                        .build())
+                .transactionType(USE)
+                .transactionResultType(S)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .amount(CANCEL_AMOUNT)
+                .balanceSnapshot(9000L)
+                .build();
+
+        given(transactionRepository.findDtoByTransactionId("transactionId"))
+                .willReturn(Optional.of(TransactionDto.fromEntity(transaction)));
+
+        //when
+        transactionService.queryTransaction("transactionId");
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+
+        //then
+        verify(transactionRepository, times(1)).findDtoByTransactionId("transactionId");
+        assertThat(transactionDto.getTransactionId()).isEqualTo("transactionId");
+        assertThat(transactionDto.getAccountNumber()).isEqualTo("1000000000");
+    }
+
+    @Test
+    @DisplayName("잔액 사용 내역 확인 - 잔액 사용 직후 조회는 DB 를 조회하지 않음")
+    void queryTransaction_afterUseBalance(){
+        //given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("pobi")
+                .build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId");
+
+        //when
+        transactionService.useBalance(12L, "1000000000", 1000L);
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+
+        //then
+        verify(transactionRepository, never()).findDtoByTransactionId(anyString());
+        assertThat(transactionDto.getAmount()).isEqualTo(1000L);
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(9000L);
+    }
+
     @Test
     @DisplayName("잔액 사용 내역 조회 실패 - 해당 거래 없음")
     void queryTransaction_TransactionNotFound(){
         //given
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDtoByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         //when
@@ -552,4 +581,488 @@ class TransactionServiceTest {
         //then
         assertThat(accountException.getErrorCode()).isEqualTo(TRANSACTION_NOT_FOUND);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("잔액 사용 성공 - pessimistic 모드에서는 row lock 으로 계좌 조회")
+    void useBalance_pessimisticLock(){
+        //given
+        ReflectionTestUtils.setField(transactionService, "lockType", "pessimistic");
+
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("pobi")
+                .build();
+
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+
+        given(accountRepository.findLockedOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(transactionRepository.save(any()))
+                .willReturn(Transaction.builder()
+                        .account(account)
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(1000L)
+                        .balanceSnapshot(9000L)
+                        .build());
+
+        //when
+        transactionService.useBalance(12L, "1000000000", 1000L);
+
+        //then
+        verify(accountRepository, times(1)).findLockedOwnershipByAccountNumber("1000000000", 12L);
+        verify(accountRepository, never()).findOwnershipByAccountNumber(anyString(), anyLong());
+        assertThat(account.getBalance()).isEqualTo(9000L);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - row lock 대기 시간 초과")
+    void useBalance_pessimisticLockTimeout(){
+        //given
+        ReflectionTestUtils.setField(transactionService, "lockType", "pessimistic");
+
+        given(accountRepository.findLockedOwnershipByAccountNumber(anyString(), anyLong()))
+                .willThrow(new PessimisticLockingFailureException("lock timeout"));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(12L, "1000000000", 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - 계좌는 있지만 유저 없음")
+    void useBalance_UserNotFoundWithAccount(){
+        //given
+        given(accountRepository.findOwnershipByAccountNumber(anyString(), anyLong()))
+                .willReturn(Optional.of(ownership(Account.builder()
+                        .accountUser(AccountUser.builder()
+                                .id(12L)
+                                .build())
+                        .accountStatus(IN_USE)
+                        .balance(10000L)
+                        .accountNumber("1000000000")
+                        .build(), 0L)));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1000000000", 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(USER_NOT_FOUND);
+        verify(accountUserRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 - 계좌는 한 번 조회하고 실패한 건은 건너뛰고 계속 처리")
+    void useBalances_partialFailure(){
+        //given
+        AccountUser user = AccountUser.builder()
+                .id(12L)
+                .name("pobi")
+                .build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+
+        given(accountRepository.findOwnershipByAccountNumber("1000000000", 12L))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId1", "transactionId2");
+
+        //when
+        List<UseBalanceBatch.Item> items = transactionService.useBalances("1000000000", List.of(
+                new UseBalance.Request(12L, "1000000000", 1000L),
+                new UseBalance.Request(12L, "1000000000", 20000L),
+                new UseBalance.Request(12L, "1000000000", 2000L)
+        ));
+
+        //then
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(2)).save(captor.capture());
+        verify(accountRepository, times(1)).findOwnershipByAccountNumber(anyString(), anyLong());
+        assertThat(captor.getAllValues()).extracting(Transaction::getBalanceSnapshot)
+                .containsExactly(9000L, 7000L);
+        assertThat(items).extracting(UseBalanceBatch.Item::getTransactionResultType)
+                .containsExactly(S, F, S);
+        assertThat(items.get(1).getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
+        assertThat(account.getBalance()).isEqualTo(7000L);
+        verify(accountListCache, times(1)).evictAfterCommit(12L);
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 - 소유주가 아닌 유저는 단건과 같이 실패")
+    void useBalances_otherUser(){
+        //given
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder()
+                        .id(12L)
+                        .build())
+                .accountStatus(IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+
+        given(accountRepository.findOwnershipByAccountNumber("1000000000", 12L))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(accountUserRepository.existsById(13L))
+                .willReturn(true);
+        given(accountUserRepository.existsById(14L))
+                .willReturn(false);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId1", "transactionId2");
+
+        //when
+        List<UseBalanceBatch.Item> items = transactionService.useBalances("1000000000", List.of(
+                new UseBalance.Request(12L, "1000000000", 1000L),
+                new UseBalance.Request(13L, "1000000000", 1000L),
+                new UseBalance.Request(14L, "1000000000", 1000L)
+        ));
+
+        //then
+        assertThat(items).extracting(UseBalanceBatch.Item::getErrorCode)
+                .containsExactly(null, USER_ACCOUNT_UN_MATCH, USER_NOT_FOUND);
+        assertThat(account.getBalance()).isEqualTo(9000L);
+    }
+
+    @Test
+    @DisplayName("일괄 잔액 사용 실패 - row lock 대기 시간 초과면 전체 실패")
+    void useBalances_pessimisticLockTimeout(){
+        //given
+        ReflectionTestUtils.setField(transactionService, "lockType", "pessimistic");
+        given(accountRepository.findLockedOwnershipByAccountNumber(anyString(), anyLong()))
+                .willThrow(new PessimisticLockingFailureException("lock timeout"));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalances("1000000000", List.of(
+                        new UseBalance.Request(12L, "1000000000", 1000L),
+                        new UseBalance.Request(12L, "1000000000", 1000L))));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("이체 성공 - 출금/입금 거래가 서로를 가리킨다")
+    void transferSuccess(){
+        //given
+        Account fromAccount = account(12L, "1000000000", 10000L);
+        Account toAccount = account(13L, "1000000001", 0L);
+
+        given(accountRepository.findByAccountNumberIn(List.of("1000000000", "1000000001")))
+                .willReturn(List.of(fromAccount, toAccount));
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId1", "transactionId2");
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        TransferDto transferDto = transactionService.transfer(
+                12L, "1000000000", "1000000001", 1000L);
+
+        //then
+        verify(transactionRepository, times(2))
+                .save(transactionArgumentCaptor.capture());
+        Transaction withdrawal = transactionArgumentCaptor.getAllValues().get(0);
+        Transaction deposit = transactionArgumentCaptor.getAllValues().get(1);
+
+        assertThat(fromAccount.getBalance()).isEqualTo(9000L);
+        assertThat(toAccount.getBalance()).isEqualTo(1000L);
+        assertThat(withdrawal.getTransactionType()).isEqualTo(TRANSFER_OUT);
+        assertThat(withdrawal.getBalanceSnapshot()).isEqualTo(9000L);
+        assertThat(withdrawal.getPairTransactionId()).isEqualTo("transactionId2");
+        assertThat(deposit.getTransactionType()).isEqualTo(TRANSFER_IN);
+        assertThat(deposit.getBalanceSnapshot()).isEqualTo(1000L);
+        assertThat(deposit.getPairTransactionId()).isEqualTo("transactionId1");
+        assertThat(deposit.getTransactedAt()).isEqualTo(withdrawal.getTransactedAt());
+        assertThat(transferDto.getWithdrawal().getTransactionId()).isEqualTo("transactionId1");
+        assertThat(transferDto.getDeposit().getAccountNumber()).isEqualTo("1000000001");
+        verify(accountListCache).evictAfterCommit(12L);
+        verify(accountListCache).evictAfterCommit(13L);
+    }
+
+    @Test
+    @DisplayName("이체 성공 - pessimistic 모드는 두 계좌를 한 번에 row lock")
+    void transfer_pessimisticLock(){
+        //given
+        ReflectionTestUtils.setField(transactionService, "lockType", "pessimistic");
+        given(accountRepository.findLockedByAccountNumberIn(List.of("1000000001", "1000000000")))
+                .willReturn(List.of(account(12L, "1000000000", 0L), account(13L, "1000000001", 10000L)));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId1", "transactionId2");
+
+        //when
+        transactionService.transfer(13L, "1000000001", "1000000000", 1000L);
+
+        //then
+        verify(accountRepository, never()).findByAccountNumberIn(any());
+    }
+
+    @Test
+    @DisplayName("이체 성공 - 나뉜 출금 계좌는 Account.balance 다음 잔액이 많은 shard 에서 출금")
+    void transfer_fromShardedAccount(){
+        //given
+        Account fromAccount = account(12L, "1000000000", 200L);
+        fromAccount.setShardCount(2);
+        AccountShard shard0 = AccountShard.builder().account(fromAccount).shardIndex(0).balance(500L).build();
+        AccountShard shard1 = AccountShard.builder().account(fromAccount).shardIndex(1).balance(700L).build();
+        Account toAccount = account(13L, "1000000001", 0L);
+
+        given(accountRepository.findByAccountNumberIn(List.of("1000000000", "1000000001")))
+                .willReturn(List.of(fromAccount, toAccount));
+        given(accountShardRepository.findByAccountAndShardIndexInOrderByShardIndex(fromAccount, List.of(0, 1)))
+                .willReturn(List.of(shard0, shard1));
+        given(accountShardRepository.sumBalanceByAccount(fromAccount))
+                .willReturn(400L);
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId1", "transactionId2");
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> transactionArgumentCaptor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        transactionService.transfer(12L, "1000000000", "1000000001", 1000L);
+
+        //then
+        verify(transactionRepository, times(2))
+                .save(transactionArgumentCaptor.capture());
+        assertThat(fromAccount.getBalance()).isEqualTo(0L);
+        assertThat(shard1.getBalance()).isEqualTo(0L);
+        assertThat(shard0.getBalance()).isEqualTo(400L);
+        assertThat(toAccount.getBalance()).isEqualTo(1000L);
+        assertThat(transactionArgumentCaptor.getAllValues().get(0).getBalanceSnapshot()).isEqualTo(400L);
+        assertThat(transactionArgumentCaptor.getAllValues().get(1).getBalanceSnapshot()).isEqualTo(1000L);
+    }
+
+    @Test
+    @DisplayName("이체 실패 - 같은 계좌")
+    void transfer_sameAccount(){
+        //given
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L, "1000000000", "1000000000", 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(TRANSFER_SAME_ACCOUNT);
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    @DisplayName("이체 실패 - 잔액 부족이면 두 계좌 모두 그대로")
+    void transfer_amountExceedBalance(){
+        //given
+        Account fromAccount = account(12L, "1000000000", 500L);
+        Account toAccount = account(13L, "1000000001", 0L);
+        given(accountRepository.findByAccountNumberIn(any()))
+                .willReturn(List.of(fromAccount, toAccount));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L, "1000000000", "1000000001", 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
+        assertThat(fromAccount.getBalance()).isEqualTo(500L);
+        assertThat(toAccount.getBalance()).isEqualTo(0L);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("이체 실패 - 입금 계좌 없음")
+    void transfer_toAccountNotFound(){
+        //given
+        given(accountRepository.findByAccountNumberIn(any()))
+                .willReturn(List.of(account(12L, "1000000000", 10000L)));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L, "1000000000", "1000000001", 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 성공 - 나뉜 계좌는 shard 잔액까지 합쳐서 balanceSnapshot")
+    void cancelBalance_shardedAccount(){
+        //given
+        Account account = account(12L, "1000000000", 0L);
+        account.setShardCount(2);
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(CANCEL_AMOUNT)
+                        .build()));
+        given(accountShardRepository.sumBalanceByAccount(account))
+                .willReturn(5000L);
+        given(transactionIdGenerator.generate())
+                .willReturn("cancelTransactionId");
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        TransactionDto transactionDto = transactionService.cancelBalance(
+                "transactionId", "1000000000", CANCEL_AMOUNT);
+
+        //then
+        assertThat(account.getBalance()).isEqualTo(CANCEL_AMOUNT);
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(5000L + CANCEL_AMOUNT);
+    }
+
+    @Test
+    @DisplayName("잔액 사용 취소 실패 - 이체 거래")
+    void cancelTransaction_transfer(){
+        //given
+        Account account = account(12L, "1000000000", 10000L);
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(TRANSFER_OUT)
+                        .transactionResultType(S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(CANCEL_AMOUNT)
+                        .build()));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("transactionId", "1000000000", CANCEL_AMOUNT));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(TRANSFER_CANNOT_CANCEL);
+    }
+
+    @Test
+    @DisplayName("shard 잔액 사용 성공 - 계좌 row 는 읽기만 하고 잔액이 많은 shard 부터 출금")
+    void useShardBalanceSuccess(){
+        //given
+        Account account = account(12L, "1000000000", 0L);
+        account.setShardCount(4);
+        AccountShard shard1 = AccountShard.builder().account(account).shardIndex(1).balance(300L).build();
+        AccountShard shard2 = AccountShard.builder().account(account).shardIndex(2).balance(1000L).build();
+
+        given(accountRepository.findOwnershipByAccountNumber("1000000000", 12L))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(accountShardRepository.findByAccountAndShardIndexInOrderByShardIndex(account, List.of(1, 2)))
+                .willReturn(List.of(shard1, shard2));
+        given(accountShardRepository.sumBalanceByAccount(account))
+                .willReturn(1500L);
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId");
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        TransactionDto transactionDto = transactionService.useShardBalance(
+                12L, "1000000000", List.of(1, 2), 1200L);
+
+        //then
+        assertThat(shard2.getBalance()).isEqualTo(0L);
+        assertThat(shard1.getBalance()).isEqualTo(100L);
+        assertThat(account.getBalance()).isEqualTo(0L);
+        assertThat(transactionDto.getAmount()).isEqualTo(1200L);
+        assertThat(transactionDto.getBalanceSnapshot()).isEqualTo(1500L);
+        verify(accountRepository, never()).findLockedOwnershipByAccountNumber(anyString(), anyLong());
+        verify(accountListCache).evictAfterCommit(12L);
+    }
+
+    @Test
+    @DisplayName("shard 잔액 사용 - pessimistic 모드는 shard row 에 lock")
+    void useShardBalance_pessimisticLock(){
+        //given
+        ReflectionTestUtils.setField(transactionService, "lockType", "pessimistic");
+        Account account = account(12L, "1000000000", 0L);
+        account.setShardCount(4);
+
+        given(accountRepository.findOwnershipByAccountNumber("1000000000", 12L))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(accountShardRepository.findLockedByAccountAndShardIndexIn(account, List.of(3)))
+                .willReturn(List.of(AccountShard.builder().account(account).shardIndex(3).balance(1000L).build()));
+        given(accountShardRepository.sumBalanceByAccount(account))
+                .willReturn(0L);
+        given(transactionIdGenerator.generate())
+                .willReturn("transactionId");
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        transactionService.useShardBalance(12L, "1000000000", List.of(3), 1000L);
+
+        //then
+        verify(accountRepository, never()).findLockedOwnershipByAccountNumber(anyString(), anyLong());
+        verify(accountShardRepository, never()).findByAccountAndShardIndexInOrderByShardIndex(any(), any());
+    }
+
+    @Test
+    @DisplayName("shard 잔액 사용 실패 - 고른 shard 잔액의 합이 부족")
+    void useShardBalance_amountExceedBalance(){
+        //given
+        Account account = account(12L, "1000000000", 5000L);
+        account.setShardCount(4);
+        AccountShard shard = AccountShard.builder().account(account).shardIndex(0).balance(500L).build();
+
+        given(accountRepository.findOwnershipByAccountNumber("1000000000", 12L))
+                .willReturn(Optional.of(ownership(account, 1L)));
+        given(accountShardRepository.findByAccountAndShardIndexInOrderByShardIndex(account, List.of(0)))
+                .willReturn(List.of(shard));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useShardBalance(12L, "1000000000", List.of(0), 1000L));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(AMOUNT_EXCEED_BALANCE);
+        assertThat(shard.getBalance()).isEqualTo(500L);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    private static Account account(Long userId, String accountNumber, Long balance) {
+        return Account.builder()
+                .accountUser(AccountUser.builder().id(userId).name("pobi").build())
+                .accountStatus(IN_USE)
+                .balance(balance)
+                .accountNumber(accountNumber)
+                .build();
+    }
+
+    private static AccountOwnership ownership(Account account, Long userCount) {
+        return new AccountOwnership() {
+            @Override
+            public Account getAccount() {
+                return account;
+            }
+
+            @Override
+            public Long getUserCount() {
+                return userCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TwoTierLockServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock rLock;
+
+    @Mock
+    private RFuture<Boolean> lockFuture;
+
+    @Mock
+    private RFuture<Void> unlockFuture;
+
+    private TwoTierLockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        lockService = new TwoTierLockService(redissonClient, 16);
+        given(redissonClient.getLock(anyString())).willReturn(rLock);
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(lockFuture);
+        given(rLock.unlockAsync(anyLong())).willReturn(unlockFuture);
+    }
+
+    @Test
+    void successGetLock() throws Exception {
+        //given
+        given(lockFuture.get()).willReturn(true);
+
+        //when
+        lockService.lock("1000000000");
+        lockService.unlock("1000000000");
+
+        //then
+        verify(redissonClient, atLeastOnce()).getLock("ACLK:1000000000");
+        verify(rLock, times(1)).tryLockAsync(anyLong(), anyLong(), any(), anyLong());
+        verify(rLock, times(1)).unlockAsync(anyLong());
+    }
+
+    @Test
+    void failGetLock() throws Exception {
+        //given
+        given(lockFuture.get()).willReturn(false);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lock("1000000000"));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        verify(rLock, never()).unlockAsync(anyLong());
+
+        // 실패 후 local lock 이 남아있지 않아야 한다
+        given(lockFuture.get()).willReturn(true);
+        assertDoesNotThrow(() -> lockService.lock("1000000000"));
+        lockService.unlock("1000000000");
+    }
+
+    @Test
+    @DisplayName("같은 노드의 대기자에게는 Redis lock 을 해제하지 않고 넘겨준다")
+    void handOffToLocalWaiter() throws Exception {
+        //given
+        given(lockFuture.get()).willReturn(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        lockService.lock("1000000000");
+        Future<?> waiter = executor.submit(() -> {
+            lockService.lock("1000000000");
+            acquired.countDown();
+            lockService.unlock("1000000000");
+        });
+        while (lockService.getQueueLength("1000000000") == 0) {
+            Thread.sleep(1);
+        }
+
+        //when
+        lockService.unlock("1000000000");
+        acquired.await();
+        waiter.get();
+
+        //then
+        verify(rLock, times(1)).tryLockAsync(anyLong(), anyLong(), any(), anyLong());
+        verify(rLock, times(1)).unlockAsync(anyLong());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Redis lock 을 기다리다 interrupt 되면 획득을 취소하고, 뒤늦게 획득되면 해제한다")
+    void interruptedWhileWaitingForRedisLock() throws Exception {
+        //given
+        given(lockFuture.get()).willThrow(new InterruptedException());
+        given(lockFuture.whenComplete(any())).willAnswer(invocation -> {
+            BiConsumer<Boolean, Throwable> callback = invocation.getArgument(0);
+            callback.accept(true, null);
+            return lockFuture;
+        });
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lock("1000000000"));
+
+        //then
+        assertThat(accountException.getErrorCode()).isEqualTo(ACCOUNT_TRANSACTION_LOCK);
+        assertThat(Thread.interrupted()).isTrue();
+        verify(lockFuture, times(1)).cancel(false);
+        verify(rLock, times(1)).unlockAsync(anyLong());
+    }
+
+    @Test
+    void unlockWithoutLock() {
+        assertThrows(IllegalMonitorStateException.class,
+                () -> lockService.unlock("1000000000"));
+    }
+}